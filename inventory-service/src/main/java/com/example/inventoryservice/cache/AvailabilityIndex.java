@@ -0,0 +1,272 @@
+package com.example.inventoryservice.cache;
+
+import com.example.inventoryservice.dto.StockLevelDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+public class AvailabilityIndex {
+    public static final int MISSING = -1;
+    private static final long EMPTY = 0L;
+    private static final double LOAD_FACTOR = 0.75;
+
+    private final StampedLock lock = new StampedLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder staleWrites = new LongAdder();
+    private final long timeToLiveNanos;
+    private final LongSupplier nanoClock;
+    private Table table;
+    private int size;
+
+    public AvailabilityIndex(int expectedSize, Duration timeToLive) {
+        this(expectedSize, timeToLive, System::nanoTime);
+    }
+
+    AvailabilityIndex(int expectedSize, Duration timeToLive, LongSupplier nanoClock) {
+        if (expectedSize <= 0) {
+            throw new IllegalArgumentException("Invalid availability index size " + expectedSize);
+        }
+        if (timeToLive == null || timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("Invalid availability index time to live " + timeToLive);
+        }
+        this.table = new Table(capacityFor(expectedSize));
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    public Boolean findInStock(long productId) {
+        long now = nanoClock.getAsLong();
+        long stamp = lock.tryOptimisticRead();
+        Table current = table;
+        int slot = current.findLive(productId, now);
+        boolean inStock = slot >= 0 && current.isInStock(slot);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                current = table;
+                slot = current.findLive(productId, now);
+                inStock = slot >= 0 && current.isInStock(slot);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        if (slot < 0) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return inStock;
+    }
+
+    public int getAvailable(long productId) {
+        long now = nanoClock.getAsLong();
+        long stamp = lock.tryOptimisticRead();
+        Table current = table;
+        int slot = current.findLive(productId, now);
+        int available = slot >= 0 ? current.quantities[slot] : MISSING;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                current = table;
+                slot = current.findLive(productId, now);
+                available = slot >= 0 ? current.quantities[slot] : MISSING;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return available;
+    }
+
+    public boolean put(Long productId, Integer quantity, Boolean inStock, Long version) {
+        if (productId == null || productId == EMPTY) {
+            return false;
+        }
+        long newVersion = version == null ? 0 : version;
+        long stamp = lock.writeLock();
+        try {
+            int slot = table.find(productId);
+            if (slot < 0) {
+                if (size + 1 > table.keys.length * LOAD_FACTOR) {
+                    table = table.resize(table.keys.length * 2);
+                }
+                slot = table.insert(productId);
+                size++;
+            } else if (table.versions[slot] > newVersion) {
+                staleWrites.increment();
+                return false;
+            }
+            table.quantities[slot] = quantity == null ? 0 : Math.max(quantity, 0);
+            table.versions[slot] = newVersion;
+            table.expiresAt[slot] = nanoClock.getAsLong() + timeToLiveNanos;
+            table.setInStock(slot, Boolean.TRUE.equals(inStock));
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void remove(Long productId) {
+        if (productId == null || productId == EMPTY) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            if (table.remove(productId)) {
+                size--;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void load(Stream<StockLevelDTO> stockLevels) {
+        stockLevels.forEach(level -> put(level.getProductId(), level.getQuantity(), level.getInStock(),
+                level.getVersion()));
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public long getMemoryBytes() {
+        long stamp = lock.readLock();
+        try {
+            return table.keys.length * 28L + table.inStock.length * 8L;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public void registerMetrics(MeterRegistry meterRegistry) {
+        Gauge.builder("availability.index.size", this, AvailabilityIndex::size).register(meterRegistry);
+        Gauge.builder("availability.index.memory", this, AvailabilityIndex::getMemoryBytes)
+                .baseUnit("bytes").register(meterRegistry);
+        FunctionCounter.builder("availability.index.lookups", hits, LongAdder::sum)
+                .tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("availability.index.lookups", misses, LongAdder::sum)
+                .tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("availability.index.stale.writes", staleWrites, LongAdder::sum)
+                .register(meterRegistry);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long minimum = (long) Math.ceil(expectedSize / LOAD_FACTOR);
+        return (int) Math.min(1L << 30, Long.highestOneBit(Math.max(minimum - 1, 1)) << 1);
+    }
+
+    private static int slotFor(long productId, int mask) {
+        long hash = productId * 0x9e3779b97f4a7c15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static final class Table {
+        private final long[] keys;
+        private final int[] quantities;
+        private final long[] versions;
+        private final long[] expiresAt;
+        private final long[] inStock;
+        private final int mask;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.quantities = new int[capacity];
+            this.versions = new long[capacity];
+            this.expiresAt = new long[capacity];
+            this.inStock = new long[(capacity + 63) >>> 6];
+            this.mask = capacity - 1;
+        }
+
+        private int find(long productId) {
+            int slot = slotFor(productId, mask);
+            for (int probes = 0; probes <= mask; probes++) {
+                long key = keys[slot];
+                if (key == productId) {
+                    return slot;
+                }
+                if (key == EMPTY) {
+                    return MISSING;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return MISSING;
+        }
+
+        private int findLive(long productId, long now) {
+            int slot = find(productId);
+            return slot >= 0 && expiresAt[slot] - now > 0 ? slot : MISSING;
+        }
+
+        private int insert(long productId) {
+            int slot = slotFor(productId, mask);
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = productId;
+            return slot;
+        }
+
+        private boolean remove(long productId) {
+            int hole = find(productId);
+            if (hole < 0) {
+                return false;
+            }
+            int next = (hole + 1) & mask;
+            while (keys[next] != EMPTY) {
+                int ideal = slotFor(keys[next], mask);
+                if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    quantities[hole] = quantities[next];
+                    versions[hole] = versions[next];
+                    expiresAt[hole] = expiresAt[next];
+                    setInStock(hole, isInStock(next));
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            keys[hole] = EMPTY;
+            quantities[hole] = 0;
+            versions[hole] = 0;
+            expiresAt[hole] = 0;
+            setInStock(hole, false);
+            return true;
+        }
+
+        private boolean isInStock(int slot) {
+            return (inStock[slot >>> 6] & (1L << slot)) != 0;
+        }
+
+        private void setInStock(int slot, boolean value) {
+            if (value) {
+                inStock[slot >>> 6] |= 1L << slot;
+            } else {
+                inStock[slot >>> 6] &= ~(1L << slot);
+            }
+        }
+
+        private Table resize(int capacity) {
+            Table resized = new Table(capacity);
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != EMPTY) {
+                    int target = resized.insert(keys[slot]);
+                    resized.quantities[target] = quantities[slot];
+                    resized.versions[target] = versions[slot];
+                    resized.expiresAt[target] = expiresAt[slot];
+                    resized.setInStock(target, isInStock(slot));
+                }
+            }
+            return resized;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.inventoryservice.cache;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+public class AvailabilityIndexSync implements MessageListener {
+    private static final String SEPARATOR = "\n";
+
+    private final AvailabilityIndex availabilityIndex;
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public AvailabilityIndexSync(AvailabilityIndex availabilityIndex, StringRedisTemplate redisTemplate,
+                                 String channel) {
+        this.availabilityIndex = availabilityIndex;
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+
+    public void put(Long productId, Integer quantity, Boolean inStock, Long version) {
+        int available = quantity == null ? 0 : quantity;
+        boolean stocked = Boolean.TRUE.equals(inStock);
+        long stockVersion = version == null ? 0 : version;
+        if (availabilityIndex.put(productId, available, stocked, stockVersion)) {
+            publish(String.join(SEPARATOR, instanceId, String.valueOf(productId), String.valueOf(stockVersion),
+                    String.valueOf(available), String.valueOf(stocked)));
+        }
+    }
+
+    public void remove(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        availabilityIndex.remove(productId);
+        publish(String.join(SEPARATOR, instanceId, String.valueOf(productId)));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR);
+        if (parts.length < 2 || instanceId.equals(parts[0])) {
+            return;
+        }
+        try {
+            if (parts.length == 2) {
+                availabilityIndex.remove(Long.valueOf(parts[1]));
+            } else if (parts.length == 5) {
+                availabilityIndex.put(Long.valueOf(parts[1]), Integer.valueOf(parts[3]), Boolean.valueOf(parts[4]),
+                        Long.valueOf(parts[2]));
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring malformed availability update: " + e.getMessage());
+        }
+    }
+
+    private void publish(String update) {
+        try {
+            redisTemplate.convertAndSend(channel, update);
+        } catch (RuntimeException e) {
+            System.err.println("Could not publish availability update: " + e.getMessage());
+        }
+    }
+}
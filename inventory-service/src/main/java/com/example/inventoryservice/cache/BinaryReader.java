@@ -0,0 +1,76 @@
+package com.example.inventoryservice.cache;
+
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+
+public class BinaryReader {
+    private final byte[] buffer;
+    private int position;
+
+    public BinaryReader(byte[] buffer, int offset) {
+        this.buffer = buffer;
+        this.position = offset;
+    }
+
+    public boolean hasRemaining() {
+        return position < buffer.length;
+    }
+
+    public int readByte() {
+        if (position >= buffer.length) {
+            throw new SerializationException("Unexpected end of cache value");
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    public long readVarLong() {
+        long zigZag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            zigZag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigZag >>> 1) ^ -(zigZag & 1);
+            }
+        }
+        throw new SerializationException("Malformed varint in cache value");
+    }
+
+    public Long readNullableLong() {
+        return readByte() == 0 ? null : readVarLong();
+    }
+
+    public Integer readNullableInt() {
+        return readByte() == 0 ? null : (int) readVarLong();
+    }
+
+    public double readDouble() {
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | readByte();
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    public Double readNullableDouble() {
+        return readByte() == 0 ? null : readDouble();
+    }
+
+    public Boolean readNullableBoolean() {
+        int value = readByte();
+        return value == 0 ? null : value == 2;
+    }
+
+    public String readString() {
+        int length = (int) readVarLong();
+        if (length < 0) {
+            return null;
+        }
+        if (position + length > buffer.length) {
+            throw new SerializationException("Unexpected end of cache value");
+        }
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.inventoryservice.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class BinaryWriter {
+    private byte[] buffer;
+    private int position;
+
+    public BinaryWriter(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeVarLong(long value) {
+        long zigZag = (value << 1) ^ (value >> 63);
+        ensureCapacity(10);
+        while ((zigZag & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((zigZag & 0x7F) | 0x80);
+            zigZag >>>= 7;
+        }
+        buffer[position++] = (byte) zigZag;
+    }
+
+    public void writeNullableLong(Long value) {
+        writeByte(value == null ? 0 : 1);
+        if (value != null) {
+            writeVarLong(value);
+        }
+    }
+
+    public void writeNullableInt(Integer value) {
+        writeByte(value == null ? 0 : 1);
+        if (value != null) {
+            writeVarLong(value);
+        }
+    }
+
+    public void writeDouble(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (bits >>> shift);
+        }
+    }
+
+    public void writeNullableDouble(Double value) {
+        writeByte(value == null ? 0 : 1);
+        if (value != null) {
+            writeDouble(value);
+        }
+    }
+
+    public void writeNullableBoolean(Boolean value) {
+        writeByte(value == null ? 0 : value ? 2 : 1);
+    }
+
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarLong(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void ensureCapacity(int additional) {
+        if (position + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + additional));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.inventoryservice.cache;
+
+import com.example.inventoryservice.entity.Inventory;
+
+public class InventoryCodec implements EntityCodec<Inventory> {
+    public static final int TAG = 3;
+
+    @Override
+    public int tag() {
+        return TAG;
+    }
+
+    @Override
+    public Class<Inventory> type() {
+        return Inventory.class;
+    }
+
+    @Override
+    public void write(BinaryWriter out, Inventory inventory) {
+        out.writeNullableLong(inventory.getId());
+        out.writeNullableLong(inventory.getProductId());
+        out.writeNullableInt(inventory.getQuantity());
+        out.writeString(inventory.getLocationCode());
+        out.writeNullableBoolean(inventory.getInStock());
+        out.writeNullableInt(inventory.getReservedQuantity());
+        out.writeNullableLong(inventory.getStockVersion());
+    }
+
+    @Override
+    public Inventory read(BinaryReader in) {
+        Inventory inventory = new Inventory();
+        inventory.setId(in.readNullableLong());
+        inventory.setProductId(in.readNullableLong());
+        inventory.setQuantity(in.readNullableInt());
+        inventory.setLocationCode(in.readString());
+        inventory.setInStock(in.readNullableBoolean());
+        if (in.hasRemaining()) {
+            inventory.setReservedQuantity(in.readNullableInt());
+        }
+        if (in.hasRemaining()) {
+            inventory.setStockVersion(in.readNullableLong());
+        }
+        return inventory;
+    }
+}
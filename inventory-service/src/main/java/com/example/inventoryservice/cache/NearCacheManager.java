@@ -0,0 +1,124 @@
+package com.example.inventoryservice.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class NearCacheManager implements CacheManager, MessageListener {
+    private static final String SEPARATOR = "\n";
+
+    private final CacheManager remoteCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String invalidationChannel;
+    private final long maximumSize;
+    private final Duration expireAfterWrite;
+    private final Duration negativeExpireAfterWrite;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, NearCache> caches = new ConcurrentHashMap<>();
+
+    public NearCacheManager(CacheManager remoteCacheManager, StringRedisTemplate redisTemplate, MeterRegistry meterRegistry,
+                            String invalidationChannel, long maximumSize, Duration expireAfterWrite,
+                            Duration negativeExpireAfterWrite) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.invalidationChannel = invalidationChannel;
+        this.maximumSize = maximumSize;
+        this.expireAfterWrite = expireAfterWrite;
+        this.negativeExpireAfterWrite = negativeExpireAfterWrite;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+        if (parts.length < 3 || instanceId.equals(parts[0])) {
+            return;
+        }
+        NearCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (parts[2].isEmpty()) {
+            cache.invalidateLocal();
+        } else {
+            cache.invalidateLocal(parts[2]);
+        }
+    }
+
+    private NearCache createCache(String name) {
+        NearCache cache = new NearCache(
+                remoteCacheManager.getCache(name),
+                Caffeine.newBuilder()
+                        .maximumSize(maximumSize)
+                        .expireAfter(new NearCacheExpiry())
+                        .build(),
+                this::publishInvalidation);
+        registerMetrics(cache);
+        return cache;
+    }
+
+    private void publishInvalidation(String cacheName, String key) {
+        redisTemplate.convertAndSend(invalidationChannel,
+                String.join(SEPARATOR, instanceId, cacheName, key != null ? key : ""));
+    }
+
+    private void registerMetrics(NearCache cache) {
+        FunctionCounter.builder("cache.near.gets", cache, NearCache::getLocalHits)
+                .tag("cache", cache.getName()).tag("result", "local-hit").register(meterRegistry);
+        FunctionCounter.builder("cache.near.gets", cache, NearCache::getRemoteHits)
+                .tag("cache", cache.getName()).tag("result", "remote-hit").register(meterRegistry);
+        FunctionCounter.builder("cache.near.gets", cache, NearCache::getMisses)
+                .tag("cache", cache.getName()).tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("cache.near.loads", cache, NearCache::getLoads)
+                .tag("cache", cache.getName()).register(meterRegistry);
+        Gauge.builder("cache.near.hit.ratio", cache, NearCache::getLocalHitRatio)
+                .tag("cache", cache.getName()).tag("level", "local").register(meterRegistry);
+        Gauge.builder("cache.near.hit.ratio", cache, NearCache::getRemoteHitRatio)
+                .tag("cache", cache.getName()).tag("level", "remote").register(meterRegistry);
+        Gauge.builder("cache.near.local.size", cache, NearCache::getLocalSize)
+                .tag("cache", cache.getName()).register(meterRegistry);
+    }
+
+    private class NearCacheExpiry implements Expiry<String, Cache.ValueWrapper> {
+        @Override
+        public long expireAfterCreate(String key, Cache.ValueWrapper value, long currentTime) {
+            return (value.get() == null ? negativeExpireAfterWrite : expireAfterWrite).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Cache.ValueWrapper value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Cache.ValueWrapper value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
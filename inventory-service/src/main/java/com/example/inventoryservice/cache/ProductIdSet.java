@@ -0,0 +1,105 @@
+package com.example.inventoryservice.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+public class ProductIdSet {
+    private static final int CHUNK_BITS = 16;
+    private static final int WORDS_PER_CHUNK = (1 << CHUNK_BITS) >>> 6;
+    private static final long OFFSET_MASK = (1L << CHUNK_BITS) - 1;
+
+    private final Map<Long, AtomicLongArray> chunks = new ConcurrentHashMap<>();
+    private final AtomicLong size = new AtomicLong();
+    private volatile boolean ready;
+
+    public boolean contains(long productId) {
+        AtomicLongArray chunk = chunks.get(productId >> CHUNK_BITS);
+        return chunk != null && (chunk.get(wordIndex(productId)) & (1L << productId)) != 0;
+    }
+
+    public boolean add(Long productId) {
+        if (productId == null) {
+            return false;
+        }
+        AtomicLongArray chunk = chunks.computeIfAbsent(productId >> CHUNK_BITS,
+                key -> new AtomicLongArray(WORDS_PER_CHUNK));
+        int index = wordIndex(productId);
+        long bit = 1L << productId;
+        long word;
+        do {
+            word = chunk.get(index);
+            if ((word & bit) != 0) {
+                return false;
+            }
+        } while (!chunk.compareAndSet(index, word, word | bit));
+        size.incrementAndGet();
+        return true;
+    }
+
+    public boolean remove(Long productId) {
+        if (productId == null) {
+            return false;
+        }
+        AtomicLongArray chunk = chunks.get(productId >> CHUNK_BITS);
+        if (chunk == null) {
+            return false;
+        }
+        int index = wordIndex(productId);
+        long bit = 1L << productId;
+        long word;
+        do {
+            word = chunk.get(index);
+            if ((word & bit) == 0) {
+                return false;
+            }
+        } while (!chunk.compareAndSet(index, word, word & ~bit));
+        size.decrementAndGet();
+        return true;
+    }
+
+    public void load(Stream<Long> productIds) {
+        productIds.forEach(this::add);
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+
+    public void markStale() {
+        ready = false;
+    }
+
+    public void clear() {
+        chunks.clear();
+        size.set(0);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long size() {
+        return size.get();
+    }
+
+    public long getMemoryBytes() {
+        return chunks.size() * (long) WORDS_PER_CHUNK * Long.BYTES;
+    }
+
+    public void registerMetrics(MeterRegistry meterRegistry) {
+        Gauge.builder("product.id.set.size", this, ProductIdSet::size).register(meterRegistry);
+        Gauge.builder("product.id.set.memory", this, ProductIdSet::getMemoryBytes)
+                .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("product.id.set.ready", this, set -> set.isReady() ? 1 : 0).register(meterRegistry);
+    }
+
+    private static int wordIndex(long productId) {
+        return (int) ((productId & OFFSET_MASK) >>> 6);
+    }
+}
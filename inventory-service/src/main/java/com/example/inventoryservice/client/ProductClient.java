@@ -0,0 +1,35 @@
+package com.example.inventoryservice.client;
+
+import com.example.inventoryservice.dto.ProductDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Component
+public class ProductClient {
+    private final WebClient webClient;
+
+    @Autowired
+    public ProductClient(@Qualifier("productServiceWebClient") WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    public Mono<ProductDTO> getProductById(Long id) {
+        return webClient.get()
+                .uri("/{id}", id)
+                .retrieve()
+                .bodyToMono(ProductDTO.class);
+    }
+
+    public Flux<Long> streamProductIds() {
+        return webClient.get()
+                .uri("/ids")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(Long.class);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.inventoryservice.config;
+
+import com.example.inventoryservice.cache.AvailabilityIndex;
+import com.example.inventoryservice.cache.AvailabilityIndexSync;
+import com.example.inventoryservice.dto.StockLevelDTO;
+import com.example.inventoryservice.repository.InventoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.stream.Stream;
+
+@Configuration
+public class AvailabilityIndexConfig {
+    @Value("${availability-index.expected-size:100000}")
+    private int expectedSize;
+    @Value("${availability-index.time-to-live:10m}")
+    private Duration timeToLive;
+    @Value("${availability-index.channel:availability-index}")
+    private String channel;
+
+    @Bean
+    public AvailabilityIndex availabilityIndex(MeterRegistry meterRegistry) {
+        AvailabilityIndex index = new AvailabilityIndex(expectedSize, timeToLive);
+        index.registerMetrics(meterRegistry);
+        return index;
+    }
+
+    @Bean
+    public AvailabilityIndexSync availabilityIndexSync(AvailabilityIndex availabilityIndex,
+                                                       StringRedisTemplate redisTemplate) {
+        return new AvailabilityIndexSync(availabilityIndex, redisTemplate, channel);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer availabilityIndexListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            AvailabilityIndexSync availabilityIndexSync) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(availabilityIndexSync, new ChannelTopic(channel));
+        return container;
+    }
+
+    @Bean
+    public ApplicationRunner availabilityIndexLoader(AvailabilityIndex availabilityIndex,
+                                                     InventoryRepository inventoryRepository,
+                                                     TransactionTemplate transactionTemplate) {
+        return args -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<StockLevelDTO> stockLevels = inventoryRepository.streamStockLevels()) {
+                availabilityIndex.load(stockLevels);
+            }
+        });
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.inventoryservice.config;
+
+import com.example.inventoryservice.cache.IdBloomFilter;
+import com.example.inventoryservice.cache.RecentIdLog;
+import com.example.inventoryservice.repository.InventoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.stream.Stream;
+
+@Configuration
+public class BloomFilterConfig {
+    @Value("${bloom-filter.expected-insertions:1000000}")
+    private long expectedInsertions;
+    @Value("${bloom-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+    @Value("${bloom-filter.reload-interval:10m}")
+    private Duration reloadInterval;
+    @Value("${bloom-filter.recent-id-retention:1h}")
+    private Duration recentIdRetention;
+
+    @Bean
+    public RecentIdLog inventoryIdLog(StringRedisTemplate redisTemplate) {
+        if (recentIdRetention.compareTo(reloadInterval.multipliedBy(2)) < 0) {
+            throw new IllegalArgumentException("bloom-filter.recent-id-retention must be at least twice the reload interval");
+        }
+        return new RecentIdLog(redisTemplate, "inventory", recentIdRetention);
+    }
+
+    @Bean
+    public IdBloomFilter inventoryIdFilter(RecentIdLog inventoryIdLog, MeterRegistry meterRegistry) {
+        IdBloomFilter filter = new IdBloomFilter("inventory", expectedInsertions, falsePositiveRate);
+        filter.share(inventoryIdLog::record, inventoryIdLog::findAll);
+        filter.registerMetrics(meterRegistry);
+        return filter;
+    }
+
+    @Bean
+    public ApplicationRunner inventoryIdFilterLoader(IdBloomFilter inventoryIdFilter, InventoryRepository inventoryRepository,
+            TransactionTemplate transactionTemplate) {
+        return args -> load(inventoryIdFilter, inventoryRepository, transactionTemplate);
+    }
+
+    @Bean
+    public SchedulingConfigurer inventoryIdFilterReloader(IdBloomFilter inventoryIdFilter, RecentIdLog inventoryIdLog,
+            InventoryRepository inventoryRepository, TransactionTemplate transactionTemplate) {
+        return registrar -> registrar.addFixedDelayTask(new FixedDelayTask(() -> {
+            try {
+                load(inventoryIdFilter, inventoryRepository, transactionTemplate);
+                inventoryIdLog.trim();
+            } catch (RuntimeException e) {
+                System.err.println("Could not reload inventory id filter: " + e.getMessage());
+            }
+        }, reloadInterval, reloadInterval));
+    }
+
+    private static void load(IdBloomFilter filter, InventoryRepository inventoryRepository,
+            TransactionTemplate transactionTemplate) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Long> ids = inventoryRepository.streamAllIds()) {
+                filter.load(ids);
+            }
+        });
+    }
+}
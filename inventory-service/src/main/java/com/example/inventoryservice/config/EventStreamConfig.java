@@ -0,0 +1,41 @@
+package com.example.inventoryservice.config;
+
+import com.example.inventoryservice.outbox.ProductEventConsumer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamMessageListenerContainerOptions;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamReadRequest;
+
+import java.time.Duration;
+
+@Configuration
+public class EventStreamConfig {
+    @Value("${outbox.consumer.poll-timeout:1s}")
+    private Duration pollTimeout;
+    @Value("${outbox.consumer.batch-size:100}")
+    private int batchSize;
+
+    @Bean(destroyMethod = "stop")
+    public StreamMessageListenerContainer<String, MapRecord<String, String, String>> productEventListenerContainer(
+            RedisConnectionFactory connectionFactory, ProductEventConsumer productEventConsumer) {
+        StreamMessageListenerContainer<String, MapRecord<String, String, String>> container =
+                StreamMessageListenerContainer.create(connectionFactory, StreamMessageListenerContainerOptions.builder()
+                        .pollTimeout(pollTimeout)
+                        .batchSize(batchSize)
+                        .build());
+        container.register(StreamReadRequest.builder(StreamOffset.create(productEventConsumer.getStream(),
+                                ReadOffset.from(productEventConsumer.subscriptionStart())))
+                        .cancelOnError(error -> false)
+                        .errorHandler(productEventConsumer::onError)
+                        .build(),
+                productEventConsumer);
+        container.start();
+        return container;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.inventoryservice.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class IdSequenceConfig {
+
+    @Bean
+    public SmartInitializingSingleton inventoryIdSequenceAligner(JdbcTemplate jdbcTemplate) {
+        return () -> jdbcTemplate.execute("select setval('inventory_seq', (select max(id) from inventory)) " +
+                "where (select max(id) from inventory) > (select last_value from inventory_seq)");
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.inventoryservice.config;
+
+import com.example.inventoryservice.cache.ProductIdSet;
+import com.example.inventoryservice.service.ProductIdReplica;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ProductIdSetConfig {
+
+    @Bean
+    public ProductIdSet productIdSet(MeterRegistry meterRegistry) {
+        ProductIdSet productIdSet = new ProductIdSet();
+        productIdSet.registerMetrics(meterRegistry);
+        return productIdSet;
+    }
+
+    @Bean
+    public ApplicationRunner productIdSetLoader(ProductIdReplica productIdReplica) {
+        return args -> productIdReplica.seedIfNeeded();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.inventoryservice.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+@Configuration
+@EnableConfigurationProperties(WebClientProperties.class)
+public class WebClientConfig {
+    @Bean
+    public WebClient productServiceWebClient(WebClient.Builder webClientBuilder, WebClientProperties properties,
+            @Value("${product-service.url}") String baseUrl) {
+        return buildWebClient(webClientBuilder, "product-service", baseUrl, properties.getProductService());
+    }
+
+    private WebClient buildWebClient(WebClient.Builder webClientBuilder, String name, String baseUrl,
+                                     WebClientProperties.Client client) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder(name)
+                .maxConnections(client.getMaxConnections())
+                .pendingAcquireMaxCount(client.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(client.getPendingAcquireTimeout())
+                .maxIdleTime(client.getMaxIdleTime())
+                .metrics(true)
+                .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) client.getConnectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, client.isKeepAlive())
+                .keepAlive(client.isKeepAlive())
+                .responseTimeout(client.getReadTimeout());
+        if (client.isHttp2()) {
+            httpClient = httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+
+        return webClientBuilder
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
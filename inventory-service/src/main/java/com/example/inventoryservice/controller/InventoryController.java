@@ -1,27 +1,50 @@
 package com.example.inventoryservice.controller;
 
+import com.example.inventoryservice.dto.StockItemDTO;
 import com.example.inventoryservice.entity.Inventory;
 import com.example.inventoryservice.service.InventoryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/inventory")
 public class InventoryController {
     private final InventoryService inventoryService;
+    private final ObjectMapper objectMapper;
+    @Value("${pagination.default-limit:100}")
+    private int defaultPageLimit;
+    @Value("${pagination.max-limit:1000}")
+    private int maxPageLimit;
 
     @Autowired
-    public InventoryController(InventoryService inventoryService) {
+    public InventoryController(InventoryService inventoryService, ObjectMapper objectMapper) {
         this.inventoryService = inventoryService;
+        this.objectMapper = objectMapper;
     }
 
-    @GetMapping()
-    public List<Inventory> getAllInventory() {
-        return inventoryService.getAllInventories();
+    @GetMapping
+    public List<Inventory> getAllInventory(@RequestParam(required = false) Long after,
+                                           @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return inventoryService.getAllInventories();
+        }
+        long pageAfter = after == null ? 0 : after;
+        int pageLimit = limit == null ? defaultPageLimit : limit;
+        return inventoryService.getInventoriesAfter(pageAfter, Math.max(1, Math.min(pageLimit, maxPageLimit)));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllInventories() {
+        return NdjsonResponses.stream(objectMapper, inventoryService::streamAllInventories);
     }
 
     @GetMapping("/{id}")
@@ -42,12 +65,24 @@ public class InventoryController {
         return new ResponseEntity<>(inStock, HttpStatus.OK);
     }
 
+    @PostMapping("/in-stock")
+    public ResponseEntity<Map<Long, Boolean>> getStockByProductIds(@RequestBody List<Long> productIds) {
+        Map<Long, Boolean> stock = inventoryService.getStockByProductIds(productIds);
+        return new ResponseEntity<>(stock, HttpStatus.OK);
+    }
+
     @PostMapping
     public ResponseEntity<Inventory> createInventory(@RequestBody Inventory inventory) {
         inventoryService.createInventory(inventory);
         return new ResponseEntity<>(inventory, HttpStatus.CREATED);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<Inventory>> createInventories(@RequestBody List<Inventory> inventories) {
+        List<Inventory> savedInventories = inventoryService.createInventories(inventories);
+        return new ResponseEntity<>(savedInventories, HttpStatus.CREATED);
+    }
+
     @PutMapping
     public ResponseEntity<Inventory> updateInventory(@RequestBody Inventory inventory) {
         inventoryService.updateInventory(inventory);
@@ -59,4 +94,25 @@ public class InventoryController {
         inventoryService.deleteInventoryById(id);
         return new ResponseEntity<>(HttpStatus.OK);
     }
+
+    @PostMapping("/reservations/{orderId}")
+    public ResponseEntity<List<Inventory>> reserveStock(@PathVariable Long orderId,
+                                                        @RequestBody List<StockItemDTO> items) {
+        return new ResponseEntity<>(inventoryService.reserveStock(orderId, items), HttpStatus.OK);
+    }
+
+    @PostMapping("/reservations/{orderId}/release")
+    public ResponseEntity<List<Inventory>> releaseStock(@PathVariable Long orderId) {
+        return new ResponseEntity<>(inventoryService.releaseReservation(orderId), HttpStatus.OK);
+    }
+
+    @PostMapping("/reservations/{orderId}/commit")
+    public ResponseEntity<List<Inventory>> commitStock(@PathVariable Long orderId) {
+        return new ResponseEntity<>(inventoryService.commitReservation(orderId), HttpStatus.OK);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleInvalidRequest(IllegalArgumentException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+    }
 }
@@ -0,0 +1,15 @@
+package com.example.inventoryservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockLevelDTO {
+    private Long productId;
+    private Integer quantity;
+    private Boolean inStock;
+    private Long version;
+}
@@ -14,10 +14,13 @@ import java.io.Serializable;
 @NoArgsConstructor
 public class Inventory implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_seq")
+    @SequenceGenerator(name = "inventory_seq", sequenceName = "inventory_seq", allocationSize = 50)
     private Long id;
     private Long productId;
     private Integer quantity;
+    private Integer reservedQuantity;
     private String locationCode;
     private Boolean inStock;
+    private Long stockVersion;
 }
@@ -0,0 +1,26 @@
+package com.example.inventoryservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Table(name = "stock_reservations")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockReservation {
+    @Id
+    private Long orderId;
+    private String status;
+    @ElementCollection
+    @CollectionTable(name = "stock_reservation_items", joinColumns = @JoinColumn(name = "order_id"))
+    private List<StockReservationItem> items = new ArrayList<>();
+    private Instant createdAt;
+    private Instant updatedAt;
+}
@@ -0,0 +1,15 @@
+package com.example.inventoryservice.entity;
+
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Embeddable
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockReservationItem {
+    private Long productId;
+    private Integer quantity;
+}
@@ -0,0 +1,126 @@
+package com.example.inventoryservice.outbox;
+
+import com.example.inventoryservice.cache.ProductIdSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.stream.StreamListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class ProductEventConsumer implements StreamListener<String, MapRecord<String, String, String>> {
+    public static final String PRODUCT_CREATED = "ProductCreated";
+    public static final String PRODUCT_UPDATED = "ProductUpdated";
+    public static final String PRODUCT_DELETED = "ProductDeleted";
+    public static final String STREAM_START = "0-0";
+
+    private final ProductIdSet productIdSet;
+    private final StringRedisTemplate redisTemplate;
+    private volatile RecordId lastRecordId;
+    private volatile boolean interrupted;
+    @Value("${outbox.consumer.product-stream:events.product}")
+    private String stream;
+    @Value("${outbox.consumer.batch-size:100}")
+    private int batchSize;
+
+    @Autowired
+    public ProductEventConsumer(ProductIdSet productIdSet, StringRedisTemplate redisTemplate) {
+        this.productIdSet = productIdSet;
+        this.redisTemplate = redisTemplate;
+    }
+
+    public String getStream() {
+        return stream;
+    }
+
+    public String latestRecordId() {
+        List<MapRecord<String, Object, Object>> latest = redisTemplate.opsForStream()
+                .reverseRange(stream, Range.unbounded(), Limit.limit().count(1));
+        return latest == null || latest.isEmpty() ? STREAM_START : latest.get(0).getId().getValue();
+    }
+
+    public String subscriptionStart() {
+        String recordId = latestRecordId();
+        lastRecordId = RecordId.of(recordId);
+        return recordId;
+    }
+
+    public void replayAfter(String recordId) {
+        ReadOffset offset = ReadOffset.from(recordId);
+        List<MapRecord<String, Object, Object>> records;
+        do {
+            records = redisTemplate.opsForStream().read(StreamReadOptions.empty().count(batchSize),
+                    StreamOffset.create(stream, offset));
+            if (records == null || records.isEmpty()) {
+                return;
+            }
+            records.forEach(record -> process(record.getId(), record.getValue()));
+            offset = ReadOffset.from(records.get(records.size() - 1).getId());
+        } while (records.size() == batchSize);
+    }
+
+    @Override
+    public void onMessage(MapRecord<String, String, String> record) {
+        if (interrupted) {
+            interrupted = false;
+            if (mayHaveMissedEventsAfter(lastRecordId)) {
+                System.err.println("Product events after " + lastRecordId + " were trimmed from " + stream
+                        + ", reseeding product ids");
+                productIdSet.markStale();
+            }
+        }
+        process(record.getId(), record.getValue());
+        lastRecordId = record.getId();
+    }
+
+    public void onError(Throwable error) {
+        System.err.println("Product event subscription on " + stream + " failed: " + error.getMessage());
+        interrupted = true;
+    }
+
+    private boolean mayHaveMissedEventsAfter(RecordId recordId) {
+        if (recordId == null) {
+            return true;
+        }
+        try {
+            List<MapRecord<String, Object, Object>> oldest = redisTemplate.opsForStream()
+                    .range(stream, Range.unbounded(), Limit.limit().count(1));
+            return oldest != null && !oldest.isEmpty() && isAfter(oldest.get(0).getId(), recordId);
+        } catch (RuntimeException e) {
+            System.err.println("Could not check " + stream + " for trimmed events: " + e.getMessage());
+            return true;
+        }
+    }
+
+    private static boolean isAfter(RecordId recordId, RecordId other) {
+        if (recordId.getTimestamp() != other.getTimestamp()) {
+            return recordId.getTimestamp() > other.getTimestamp();
+        }
+        return recordId.getSequence() > other.getSequence();
+    }
+
+    private void process(RecordId recordId, Map<?, ?> fields) {
+        try {
+            String eventType = (String) fields.get("type");
+            Long productId = Long.valueOf((String) fields.get("aggregateId"));
+            if (PRODUCT_DELETED.equals(eventType)) {
+                productIdSet.remove(productId);
+            } else if (PRODUCT_CREATED.equals(eventType) || PRODUCT_UPDATED.equals(eventType)) {
+                productIdSet.add(productId);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Failed to handle product event " + recordId + ": " + e.getMessage());
+            productIdSet.markStale();
+        }
+    }
+}
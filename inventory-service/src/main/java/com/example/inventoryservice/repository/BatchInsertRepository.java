@@ -0,0 +1,7 @@
+package com.example.inventoryservice.repository;
+
+import java.util.List;
+
+public interface BatchInsertRepository<T> {
+    List<T> insertAll(List<T> entities);
+}
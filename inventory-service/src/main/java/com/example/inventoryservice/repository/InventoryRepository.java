@@ -1,12 +1,74 @@
 package com.example.inventoryservice.repository;
 
+import com.example.inventoryservice.dto.StockLevelDTO;
 import com.example.inventoryservice.entity.Inventory;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface InventoryRepository extends JpaRepository<Inventory, Long> {
+public interface InventoryRepository extends JpaRepository<Inventory, Long>, BatchInsertRepository<Inventory> {
+    String BUMP_STOCK_VERSION = "stock_version = coalesce(stock_version, 0) + 1";
+    String RESERVE_STOCK_SQL = "update inventory set quantity = quantity - :quantity, " +
+            "reserved_quantity = coalesce(reserved_quantity, 0) + :quantity, in_stock = quantity > :quantity, " +
+            BUMP_STOCK_VERSION + " " +
+            "where product_id = :productId and quantity >= :quantity";
+    String RELEASE_STOCK_SQL = "update inventory set quantity = quantity + :quantity, " +
+            "reserved_quantity = reserved_quantity - :quantity, in_stock = quantity + :quantity > 0, " +
+            BUMP_STOCK_VERSION + " " +
+            "where product_id = :productId and reserved_quantity >= :quantity";
+    String COMMIT_STOCK_SQL = "update inventory set reserved_quantity = reserved_quantity - :quantity, " +
+            BUMP_STOCK_VERSION + " " +
+            "where product_id = :productId and reserved_quantity >= :quantity";
+
     Optional<Inventory> findByProductId(Long productId);
+    List<Inventory> findByProductIdIn(Collection<Long> productIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Inventory i where i.id = :id")
+    Optional<Inventory> findByIdForUpdate(@Param("id") Long id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select i.id from Inventory i")
+    Stream<Long> streamAllIds();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.example.inventoryservice.dto.StockLevelDTO(i.productId, i.quantity, i.inStock, " +
+            "i.stockVersion) " +
+            "from Inventory i")
+    Stream<StockLevelDTO> streamStockLevels();
+
+    List<Inventory> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select i from Inventory i order by i.id")
+    Stream<Inventory> streamAll();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = RESERVE_STOCK_SQL, nativeQuery = true)
+    int reserveStock(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = RELEASE_STOCK_SQL, nativeQuery = true)
+    int releaseStock(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = COMMIT_STOCK_SQL, nativeQuery = true)
+    int commitStock(@Param("productId") Long productId, @Param("quantity") int quantity);
 }
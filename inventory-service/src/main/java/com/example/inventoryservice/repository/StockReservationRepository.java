@@ -0,0 +1,24 @@
+package com.example.inventoryservice.repository;
+
+import com.example.inventoryservice.entity.StockReservation;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from StockReservation r where r.orderId = :orderId")
+    Optional<StockReservation> findForUpdate(@Param("orderId") Long orderId);
+
+    @Modifying
+    @Query("update StockReservation r set r.status = :status, r.updatedAt = :now where r.orderId = :orderId")
+    int updateStatus(@Param("orderId") Long orderId, @Param("status") String status, @Param("now") Instant now);
+}
@@ -0,0 +1,94 @@
+package com.example.inventoryservice.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class HotSkuCounter {
+    private static final int PADDING = 8;
+
+    private final Long inventoryId;
+    private final int stripes;
+    private final AtomicLongArray cells;
+    private final LongAdder pendingReserved = new LongAdder();
+
+    public HotSkuCounter(Long inventoryId, int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        this.inventoryId = inventoryId;
+        this.stripes = stripes;
+        this.cells = new AtomicLongArray(stripes * PADDING);
+    }
+
+    public Long getInventoryId() {
+        return inventoryId;
+    }
+
+    public boolean tryReserve(int quantity) {
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        for (int i = 0; i < stripes; i++) {
+            int index = ((start + i) % stripes) * PADDING;
+            long current = cells.get(index);
+            while (current >= quantity) {
+                if (cells.compareAndSet(index, current, current - quantity)) {
+                    pendingReserved.add(quantity);
+                    return true;
+                }
+                current = cells.get(index);
+            }
+        }
+        return tryReserveAcrossStripes(quantity);
+    }
+
+    public void addAvailable(long units) {
+        long share = units / stripes;
+        long remainder = units % stripes;
+        for (int i = 0; i < stripes; i++) {
+            long add = share + (i < remainder ? 1 : 0);
+            if (add > 0) {
+                cells.addAndGet(i * PADDING, add);
+            }
+        }
+    }
+
+    public void cancelReservation(int quantity) {
+        pendingReserved.add(-quantity);
+        addAvailable(quantity);
+    }
+
+    public long getAvailable() {
+        long available = 0;
+        for (int i = 0; i < stripes; i++) {
+            available += cells.get(i * PADDING);
+        }
+        return available;
+    }
+
+    public long drainPendingReserved() {
+        return pendingReserved.sumThenReset();
+    }
+
+    public void restorePendingReserved(long units) {
+        pendingReserved.add(units);
+    }
+
+    public synchronized long drainAvailable() {
+        long available = 0;
+        for (int i = 0; i < stripes; i++) {
+            available += cells.getAndSet(i * PADDING, 0);
+        }
+        return available;
+    }
+
+    private synchronized boolean tryReserveAcrossStripes(int quantity) {
+        long available = drainAvailable();
+        boolean reserved = available >= quantity;
+        if (reserved) {
+            available -= quantity;
+            pendingReserved.add(quantity);
+        }
+        addAvailable(available);
+        return reserved;
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.repository.InventoryRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Component
+public class HotSkuInventory {
+    private static final String FIND_INVENTORY_ID_SQL = "select id from inventory where product_id = :productId";
+    private static final String LEASE_STOCK_SQL = "update inventory set quantity = quantity - :quantity, " +
+            InventoryRepository.BUMP_STOCK_VERSION + " " +
+            "where product_id = :productId and quantity >= :quantity";
+    private static final String FLUSH_RESERVED_SQL = "update inventory set " +
+            "reserved_quantity = coalesce(reserved_quantity, 0) + :reserved, in_stock = quantity + :available > 0, " +
+            InventoryRepository.BUMP_STOCK_VERSION + " " +
+            "where product_id = :productId";
+    private static final String RETURN_STOCK_SQL = "update inventory set quantity = quantity + :quantity, " +
+            "in_stock = quantity + :quantity > 0, " + InventoryRepository.BUMP_STOCK_VERSION +
+            " where product_id = :productId";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final ExecutorService refillExecutor;
+    private final Map<Long, HotSkuCounter> counters = new ConcurrentHashMap<>();
+    private final Map<Long, Refill> refills = new ConcurrentHashMap<>();
+    @Value("${inventory-service.hot-sku.enabled:false}")
+    private boolean enabled;
+    @Value("${inventory-service.hot-sku.product-ids:}")
+    private Set<Long> hotProductIds;
+    @Value("${inventory-service.hot-sku.stripes:16}")
+    private int stripes;
+    @Value("${inventory-service.hot-sku.lease-size:100}")
+    private int leaseSize;
+    @Value("${inventory-service.hot-sku.refill-threshold:25}")
+    private int refillThreshold;
+    @Value("${inventory-service.hot-sku.refill-timeout:2s}")
+    private Duration refillTimeout;
+
+    @Autowired
+    public HotSkuInventory(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                           CacheManager cacheManager) {
+        this(jdbcTemplate, transactionManager, cacheManager, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hot-sku-refill");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    HotSkuInventory(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                    CacheManager cacheManager, ExecutorService refillExecutor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.cacheManager = cacheManager;
+        this.refillExecutor = refillExecutor;
+    }
+
+    public boolean isHot(Long productId) {
+        return enabled && hotProductIds.contains(productId);
+    }
+
+    public boolean tryReserve(Long productId, int quantity) {
+        HotSkuCounter counter = counters.computeIfAbsent(productId, this::createCounter);
+        if (counter == null) {
+            return false;
+        }
+        long deadline = System.nanoTime() + refillTimeout.toNanos();
+        while (!counter.tryReserve(quantity)) {
+            Refill refill = refill(productId, counter, quantity);
+            Long leased = awaitRefill(refill, deadline);
+            if (leased == null || (leased == 0 && refill.minimum <= quantity)) {
+                return false;
+            }
+        }
+        if (counter.getAvailable() < refillThreshold) {
+            refill(productId, counter, 0);
+        }
+        return true;
+    }
+
+    public void cancel(Long productId, int quantity) {
+        HotSkuCounter counter = counters.get(productId);
+        if (counter != null) {
+            counter.cancelReservation(quantity);
+        }
+    }
+
+    public long getAvailable(Long productId) {
+        HotSkuCounter counter = counters.get(productId);
+        return counter != null ? counter.getAvailable() : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory-service.hot-sku.flush-interval-ms:500}")
+    public void flush() {
+        flush(counters.keySet());
+    }
+
+    public synchronized void flush(Collection<Long> productIds) {
+        List<SqlParameterSource> batch = new ArrayList<>();
+        List<HotSkuCounter> flushed = new ArrayList<>();
+        List<Long> reservedUnits = new ArrayList<>();
+        for (Long productId : productIds) {
+            HotSkuCounter counter = counters.get(productId);
+            if (counter == null) {
+                continue;
+            }
+            long reserved = counter.drainPendingReserved();
+            if (reserved == 0) {
+                continue;
+            }
+            batch.add(new MapSqlParameterSource()
+                    .addValue("productId", productId)
+                    .addValue("reserved", reserved)
+                    .addValue("available", counter.getAvailable()));
+            flushed.add(counter);
+            reservedUnits.add(reserved);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(FLUSH_RESERVED_SQL, batch.toArray(new SqlParameterSource[0])));
+        } catch (RuntimeException e) {
+            for (int i = 0; i < flushed.size(); i++) {
+                flushed.get(i).restorePendingReserved(reservedUnits.get(i));
+            }
+            System.err.println("Failed to flush hot SKU counters: " + e.getMessage());
+            return;
+        }
+        evictCached(flushed);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        refillExecutor.shutdown();
+        try {
+            refillExecutor.awaitTermination(refillTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        for (Map.Entry<Long, HotSkuCounter> entry : counters.entrySet()) {
+            long available = entry.getValue().drainAvailable();
+            if (available > 0) {
+                jdbcTemplate.update(RETURN_STOCK_SQL, new MapSqlParameterSource()
+                        .addValue("productId", entry.getKey())
+                        .addValue("quantity", available));
+            }
+        }
+        evictCached(counters.values());
+    }
+
+    private HotSkuCounter createCounter(Long productId) {
+        List<Long> ids = jdbcTemplate.queryForList(FIND_INVENTORY_ID_SQL,
+                new MapSqlParameterSource("productId", productId), Long.class);
+        return ids.isEmpty() ? null : new HotSkuCounter(ids.get(0), stripes);
+    }
+
+    private Refill refill(Long productId, HotSkuCounter counter, int needed) {
+        Refill created = new Refill(needed > 0 ? needed : leaseSize);
+        Refill existing = refills.putIfAbsent(productId, created);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            refillExecutor.execute(() -> {
+                try {
+                    long leased = lease(productId, Math.max(leaseSize, needed));
+                    if (leased == 0 && needed > 0 && needed < leaseSize) {
+                        leased = lease(productId, needed);
+                    }
+                    counter.addAvailable(leased);
+                    refills.remove(productId, created);
+                    created.result.complete(leased);
+                } catch (RuntimeException e) {
+                    refills.remove(productId, created);
+                    created.result.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            refills.remove(productId, created);
+            created.result.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    private Long awaitRefill(Refill refill, long deadline) {
+        try {
+            return refill.result.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            System.err.println("Failed to lease hot SKU stock: " + e.getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private long lease(Long productId, int units) {
+        Integer updated = transactionTemplate.execute(status -> jdbcTemplate.update(LEASE_STOCK_SQL,
+                new MapSqlParameterSource()
+                        .addValue("productId", productId)
+                        .addValue("quantity", units)));
+        return updated != null && updated == 1 ? units : 0;
+    }
+
+    private void evictCached(Collection<HotSkuCounter> flushed) {
+        Cache cache = cacheManager.getCache("inventory");
+        if (cache != null) {
+            flushed.forEach(counter -> cache.evict(counter.getInventoryId()));
+        }
+    }
+
+    private static class Refill {
+        private final int minimum;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+
+        private Refill(int minimum) {
+            this.minimum = minimum;
+        }
+    }
+}
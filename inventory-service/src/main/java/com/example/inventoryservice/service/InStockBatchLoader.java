@@ -0,0 +1,138 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.cache.AvailabilityIndex;
+import com.example.inventoryservice.entity.Inventory;
+import com.example.inventoryservice.repository.InventoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class InStockBatchLoader {
+    private final InventoryRepository inventoryRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final DistributionSummary batchSize;
+    private final Timer waitTimer;
+    private final Counter queriesSaved;
+    private Batch current;
+    @Value("${inventory-service.in-stock-batch.enabled:true}")
+    private boolean enabled;
+    @Value("${inventory-service.in-stock-batch.window:2ms}")
+    private Duration window;
+    @Value("${inventory-service.in-stock-batch.max-size:100}")
+    private int maxSize;
+
+    @Autowired
+    public InStockBatchLoader(InventoryRepository inventoryRepository, AvailabilityIndex availabilityIndex,
+                              MeterRegistry meterRegistry) {
+        this.inventoryRepository = inventoryRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.batchSize = DistributionSummary.builder("inventory.in-stock.batch.size")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("inventory.in-stock.batch.wait")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.queriesSaved = meterRegistry.counter("inventory.in-stock.queries.saved");
+    }
+
+    public boolean load(Long productId) {
+        if (!enabled) {
+            return inventoryRepository.findByProductId(productId)
+                    .map(this::index)
+                    .map(Inventory::getInStock)
+                    .orElse(false);
+        }
+        Timer.Sample sample = Timer.start();
+        Batch batch;
+        CompletableFuture<Boolean> result;
+        boolean leader = false;
+        synchronized (this) {
+            if (current == null) {
+                current = new Batch();
+                leader = true;
+            }
+            batch = current;
+            result = batch.results.computeIfAbsent(productId, id -> new CompletableFuture<>());
+            batch.requests++;
+            if (batch.results.size() >= maxSize) {
+                current = null;
+                batch.full.countDown();
+            }
+        }
+        if (leader) {
+            awaitWindow(batch);
+            dispatch(batch);
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        } finally {
+            sample.stop(waitTimer);
+        }
+    }
+
+    private void awaitWindow(Batch batch) {
+        try {
+            batch.full.await(window.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (current == batch) {
+                current = null;
+            }
+        }
+    }
+
+    private void dispatch(Batch batch) {
+        Map<Long, CompletableFuture<Boolean>> results;
+        int requests;
+        synchronized (this) {
+            results = batch.results;
+            requests = batch.requests;
+        }
+        batchSize.record(results.size());
+        queriesSaved.increment(requests - 1);
+        try {
+            List<Inventory> inventories = inventoryRepository.findByProductIdIn(results.keySet());
+            Map<Long, Boolean> inStock = new HashMap<>();
+            for (Inventory inventory : inventories) {
+                index(inventory);
+                inStock.put(inventory.getProductId(), Boolean.TRUE.equals(inventory.getInStock()));
+            }
+            results.forEach((productId, future) -> future.complete(inStock.getOrDefault(productId, false)));
+        } catch (RuntimeException e) {
+            results.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private Inventory index(Inventory inventory) {
+        availabilityIndex.put(inventory.getProductId(), inventory.getQuantity(), inventory.getInStock(),
+                inventory.getStockVersion());
+        return inventory;
+    }
+
+    private static class Batch {
+        private final Map<Long, CompletableFuture<Boolean>> results = new HashMap<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+        private int requests;
+    }
+}
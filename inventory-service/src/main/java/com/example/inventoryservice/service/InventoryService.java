@@ -1,70 +1,431 @@
 package com.example.inventoryservice.service;
 
-import com.example.inventoryservice.dto.ProductDTO;
+import com.example.inventoryservice.cache.AvailabilityIndex;
+import com.example.inventoryservice.cache.AvailabilityIndexSync;
+import com.example.inventoryservice.cache.IdBloomFilter;
+import com.example.inventoryservice.dto.StockItemDTO;
 import com.example.inventoryservice.entity.Inventory;
+import com.example.inventoryservice.entity.StockReservation;
+import com.example.inventoryservice.entity.StockReservationItem;
+import com.example.inventoryservice.exception.InsufficientStockException;
+import com.example.inventoryservice.outbox.OutboxService;
 import com.example.inventoryservice.repository.InventoryRepository;
+import com.example.inventoryservice.repository.StockReservationRepository;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.ToIntBiFunction;
+import java.util.stream.Stream;
 
 @Service
 public class InventoryService {
+    public static final String INVENTORY_AGGREGATE = "Inventory";
+    public static final String INVENTORY_UPDATED = "InventoryUpdated";
+    public static final String STOCK_RESERVED = "StockReserved";
+    public static final String STOCK_RELEASED = "StockReleased";
+    public static final String STOCK_COMMITTED = "StockCommitted";
+    public static final String INVENTORY_CACHE = "inventory";
+    public static final String INVENTORY_BY_PRODUCT_CACHE = "inventory-by-product";
+    public static final String RESERVED_STATUS = "RESERVED";
+    public static final String RELEASED_STATUS = "RELEASED";
+    public static final String COMMITTED_STATUS = "COMMITTED";
+
     private final InventoryRepository inventoryRepository;
-    private final WebClient.Builder webClientBuilder;
-    @Value("${product-service.url}")
-    private String URIProductService;
+    private final ProductIdReplica productIdReplica;
+    private final IdBloomFilter inventoryIdFilter;
+    private final EntityManager entityManager;
+    private final CacheManager cacheManager;
+    private final HotSkuInventory hotSkuInventory;
+    private final InStockBatchLoader inStockBatchLoader;
+    private final AvailabilityIndex availabilityIndex;
+    private final AvailabilityIndexSync availabilityIndexSync;
+    private final OutboxService outboxService;
+    private final StockReservationRepository stockReservationRepository;
 
     @Autowired
-    public InventoryService(InventoryRepository inventoryRepository, WebClient.Builder webClientBuilder) {
+    public InventoryService(InventoryRepository inventoryRepository, ProductIdReplica productIdReplica,
+                            IdBloomFilter inventoryIdFilter, EntityManager entityManager, CacheManager cacheManager,
+                            HotSkuInventory hotSkuInventory, InStockBatchLoader inStockBatchLoader,
+                            AvailabilityIndex availabilityIndex, AvailabilityIndexSync availabilityIndexSync,
+                            OutboxService outboxService, StockReservationRepository stockReservationRepository) {
         this.inventoryRepository = inventoryRepository;
-        this.webClientBuilder = webClientBuilder;
+        this.productIdReplica = productIdReplica;
+        this.inventoryIdFilter = inventoryIdFilter;
+        this.entityManager = entityManager;
+        this.cacheManager = cacheManager;
+        this.hotSkuInventory = hotSkuInventory;
+        this.inStockBatchLoader = inStockBatchLoader;
+        this.availabilityIndex = availabilityIndex;
+        this.availabilityIndexSync = availabilityIndexSync;
+        this.outboxService = outboxService;
+        this.stockReservationRepository = stockReservationRepository;
     }
 
     public void createInventory(Inventory inventory) {
-        ProductDTO productDTO = webClientBuilder.build().get()
-                .uri(URIProductService + "/{id}", inventory.getProductId())
-                .retrieve()
-                .bodyToMono(ProductDTO.class)
-                .block();
-        if (productDTO != null) {
+        if (productIdReplica.exists(inventory.getProductId())) {
             inventory.setInStock(inventory.getQuantity() > 0);
+            inventory.setStockVersion(1L);
             inventoryRepository.save(inventory);
+            inventoryIdFilter.put(inventory.getId());
+            indexAfterCommit(List.of(inventory));
+            cacheAfterCommit(List.of(inventory));
         } else {
             System.err.println("Could not find product with id " + inventory.getProductId());
         }
     }
 
+    public List<Inventory> createInventories(List<Inventory> inventories) {
+        Set<Long> knownProductIds = productIdReplica.findExisting(inventories.stream()
+                .map(Inventory::getProductId)
+                .toList());
+        List<Inventory> validInventories = new ArrayList<>();
+        for (Inventory inventory : inventories) {
+            if (knownProductIds.contains(inventory.getProductId())) {
+                inventory.setInStock(inventory.getQuantity() > 0);
+                inventory.setStockVersion(1L);
+                validInventories.add(inventory);
+            } else {
+                System.err.println("Could not find product with id " + inventory.getProductId());
+            }
+        }
+        List<Inventory> savedInventories = inventoryRepository.insertAll(validInventories);
+        savedInventories.forEach(inventory -> inventoryIdFilter.put(inventory.getId()));
+        indexAfterCommit(savedInventories);
+        cacheAfterCommit(savedInventories);
+        return savedInventories;
+    }
+
     public List<Inventory> getAllInventories() {
         return inventoryRepository.findAll();
     }
 
-    @Cacheable(value = "inventory", key = "#id")
+    public List<Inventory> getInventoriesAfter(long after, int limit) {
+        return inventoryRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllInventories(Consumer<Inventory> consumer) {
+        try (Stream<Inventory> inventoryStream = inventoryRepository.streamAll()) {
+            inventoryStream.forEach(inventory -> {
+                consumer.accept(inventory);
+                entityManager.detach(inventory);
+            });
+        }
+    }
+
+    @Cacheable(value = INVENTORY_CACHE, key = "#id", sync = true)
     public Inventory getInventoryById(Long id) {
+        if (inventoryIdFilter.rejects(id)) {
+            return null;
+        }
         return inventoryRepository.findById(id).orElse(null);
     }
 
+    @Cacheable(value = INVENTORY_BY_PRODUCT_CACHE, key = "#productId", sync = true,
+            condition = "!@hotSkuInventory.isHot(#productId)")
     public Inventory getInventoryByProductId(Long productId) {
         return inventoryRepository.findByProductId(productId).orElse(null);
     }
 
-    @CachePut(value = "inventory", key = "#inventory.id")
+    @Transactional
     public Inventory updateInventory(Inventory inventory) {
+        Inventory previous = inventory.getId() == null ? null
+                : inventoryRepository.findByIdForUpdate(inventory.getId()).orElse(null);
+        Long previousProductId = previous == null ? null : previous.getProductId();
+        long previousVersion = previous == null || previous.getStockVersion() == null ? 0 : previous.getStockVersion();
+        inventory.setReservedQuantity(previous == null ? Integer.valueOf(0) : previous.getReservedQuantity());
         inventory.setInStock(inventory.getQuantity() > 0);
-        return inventoryRepository.save(inventory);
+        inventory.setStockVersion(previousVersion + 1);
+        Inventory savedInventory = inventoryRepository.save(inventory);
+        inventoryIdFilter.put(savedInventory.getId());
+        outboxService.record(INVENTORY_AGGREGATE, savedInventory.getProductId(), INVENTORY_UPDATED, savedInventory);
+        if (previousProductId != null && !previousProductId.equals(savedInventory.getProductId())) {
+            evictAfterCommit(null, previousProductId);
+        }
+        indexAfterCommit(List.of(savedInventory));
+        cacheAfterCommit(List.of(savedInventory));
+        return savedInventory;
     }
 
-    @CacheEvict(value = "inventory", key = "#id")
     public void deleteInventoryById(Long id) {
+        Long productId = inventoryRepository.findById(id).map(Inventory::getProductId).orElse(null);
         inventoryRepository.deleteById(id);
+        evictAfterCommit(id, productId);
     }
 
     public boolean isInStock(Long productId) {
-        return inventoryRepository.findByProductId(productId).map(Inventory::getInStock).orElse(false);
+        Boolean inStock = findIndexedInStock(productId);
+        if (inStock != null) {
+            return inStock;
+        }
+        return inStockBatchLoader.load(productId);
+    }
+
+    public Map<Long, Boolean> getStockByProductIds(List<Long> productIds) {
+        Map<Long, Boolean> stock = new HashMap<>();
+        Set<Long> unindexed = new HashSet<>();
+        for (Long productId : productIds) {
+            Boolean inStock = findIndexedInStock(productId);
+            stock.put(productId, Boolean.TRUE.equals(inStock));
+            if (inStock == null) {
+                unindexed.add(productId);
+            }
+        }
+        if (unindexed.isEmpty()) {
+            return stock;
+        }
+        List<Inventory> inventories = inventoryRepository.findByProductIdIn(unindexed);
+        for (Inventory inventory : inventories) {
+            stock.put(inventory.getProductId(), Boolean.TRUE.equals(inventory.getInStock()));
+            availabilityIndex.put(inventory.getProductId(), inventory.getQuantity(), inventory.getInStock(),
+                    inventory.getStockVersion());
+        }
+        return stock;
+    }
+
+    @Transactional
+    public List<Inventory> reserveStock(List<StockItemDTO> items) {
+        Map<Long, Integer> quantities = mergeStockItems(items);
+        Map<Long, Integer> hotReserved = new TreeMap<>();
+        Runnable cancelHotReservations = () -> hotReserved.forEach(hotSkuInventory::cancel);
+        boolean synchronizedTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        if (synchronizedTransaction) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        cancelHotReservations.run();
+                    }
+                }
+            });
+        }
+        try {
+            Map<Long, Integer> rowLocked = new TreeMap<>();
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                if (!hotSkuInventory.isHot(entry.getKey())) {
+                    rowLocked.put(entry.getKey(), entry.getValue());
+                } else if (hotSkuInventory.tryReserve(entry.getKey(), entry.getValue())) {
+                    hotReserved.put(entry.getKey(), entry.getValue());
+                } else {
+                    throw insufficientStock("reserve", entry);
+                }
+            }
+            applyStockChange(rowLocked, inventoryRepository::reserveStock, "reserve");
+        } catch (RuntimeException e) {
+            if (!synchronizedTransaction) {
+                cancelHotReservations.run();
+            }
+            throw e;
+        }
+        recordStockEvents(STOCK_RESERVED, quantities);
+        return loadAndCache(quantities.keySet());
+    }
+
+    @Transactional
+    public List<Inventory> releaseStock(List<StockItemDTO> items) {
+        Map<Long, Integer> quantities = mergeStockItems(items);
+        flushHotSkus(quantities.keySet());
+        applyStockChange(quantities, inventoryRepository::releaseStock, "release");
+        recordStockEvents(STOCK_RELEASED, quantities);
+        return loadAndCache(quantities.keySet());
+    }
+
+    @Transactional
+    public List<Inventory> commitStock(List<StockItemDTO> items) {
+        Map<Long, Integer> quantities = mergeStockItems(items);
+        flushHotSkus(quantities.keySet());
+        applyStockChange(quantities, inventoryRepository::commitStock, "commit");
+        recordStockEvents(STOCK_COMMITTED, quantities);
+        return loadAndCache(quantities.keySet());
+    }
+
+    @Transactional
+    public List<Inventory> reserveStock(Long orderId, List<StockItemDTO> items) {
+        StockReservation reservation = stockReservationRepository.findForUpdate(orderId).orElse(null);
+        if (reservation != null) {
+            if (RELEASED_STATUS.equals(reservation.getStatus())) {
+                throw new InsufficientStockException("Reservation for order " + orderId + " was already released");
+            }
+            return loadAndCache(reservedProductIds(reservation));
+        }
+        List<Inventory> inventories = reserveStock(items);
+        Instant now = Instant.now();
+        List<StockReservationItem> reservedItems = mergeStockItems(items).entrySet().stream()
+                .map(entry -> new StockReservationItem(entry.getKey(), entry.getValue()))
+                .toList();
+        stockReservationRepository.save(new StockReservation(orderId, RESERVED_STATUS, new ArrayList<>(reservedItems),
+                now, now));
+        return inventories;
+    }
+
+    @Transactional
+    public List<Inventory> releaseReservation(Long orderId) {
+        Instant now = Instant.now();
+        StockReservation reservation = stockReservationRepository.findForUpdate(orderId).orElse(null);
+        if (reservation == null) {
+            stockReservationRepository.save(new StockReservation(orderId, RELEASED_STATUS, new ArrayList<>(),
+                    now, now));
+            return List.of();
+        }
+        if (RELEASED_STATUS.equals(reservation.getStatus())) {
+            return loadAndCache(reservedProductIds(reservation));
+        }
+        if (COMMITTED_STATUS.equals(reservation.getStatus())) {
+            throw new InsufficientStockException("Reservation for order " + orderId + " was already committed");
+        }
+        List<Inventory> inventories = releaseStock(reservedItems(reservation));
+        stockReservationRepository.updateStatus(orderId, RELEASED_STATUS, now);
+        return inventories;
+    }
+
+    @Transactional
+    public List<Inventory> commitReservation(Long orderId) {
+        StockReservation reservation = stockReservationRepository.findForUpdate(orderId).orElse(null);
+        if (reservation == null || RELEASED_STATUS.equals(reservation.getStatus())) {
+            throw new InsufficientStockException("No reserved stock to commit for order " + orderId);
+        }
+        if (COMMITTED_STATUS.equals(reservation.getStatus())) {
+            return loadAndCache(reservedProductIds(reservation));
+        }
+        List<Inventory> inventories = commitStock(reservedItems(reservation));
+        stockReservationRepository.updateStatus(orderId, COMMITTED_STATUS, Instant.now());
+        return inventories;
+    }
+
+    private List<StockItemDTO> reservedItems(StockReservation reservation) {
+        return reservation.getItems().stream()
+                .map(item -> new StockItemDTO(item.getProductId(), item.getQuantity()))
+                .toList();
+    }
+
+    private Set<Long> reservedProductIds(StockReservation reservation) {
+        Set<Long> productIds = new HashSet<>();
+        reservation.getItems().forEach(item -> productIds.add(item.getProductId()));
+        return productIds;
+    }
+
+    private Map<Long, Integer> mergeStockItems(List<StockItemDTO> items) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (StockItemDTO item : items) {
+            if (item.getProductId() == null || item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Invalid stock item " + item);
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private void applyStockChange(Map<Long, Integer> quantities, ToIntBiFunction<Long, Integer> update,
+                                  String operation) {
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (update.applyAsInt(entry.getKey(), entry.getValue()) == 0) {
+                throw insufficientStock(operation, entry);
+            }
+        }
+    }
+
+    private void recordStockEvents(String eventType, Map<Long, Integer> quantities) {
+        quantities.forEach((productId, quantity) -> outboxService.record(INVENTORY_AGGREGATE, productId, eventType,
+                new StockItemDTO(productId, quantity)));
+    }
+
+    private InsufficientStockException insufficientStock(String operation, Map.Entry<Long, Integer> entry) {
+        return new InsufficientStockException("Cannot " + operation + " " + entry.getValue()
+                + " of product " + entry.getKey());
+    }
+
+    private void flushHotSkus(Set<Long> productIds) {
+        List<Long> hotProductIds = productIds.stream().filter(hotSkuInventory::isHot).toList();
+        if (!hotProductIds.isEmpty()) {
+            hotSkuInventory.flush(hotProductIds);
+        }
+    }
+
+    private Boolean findIndexedInStock(Long productId) {
+        if (productId == null || hotSkuInventory.isHot(productId)) {
+            return null;
+        }
+        return availabilityIndex.findInStock(productId);
+    }
+
+    private List<Inventory> loadAndCache(Set<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        List<Inventory> inventories = inventoryRepository.findByProductIdIn(productIds);
+        indexAfterCommit(inventories);
+        cacheAfterCommit(inventories);
+        return inventories;
+    }
+
+    private void cacheAfterCommit(List<Inventory> inventories) {
+        List<Inventory> cacheable = inventories.stream()
+                .filter(inventory -> !hotSkuInventory.isHot(inventory.getProductId()))
+                .toList();
+        if (cacheable.isEmpty()) {
+            return;
+        }
+        Cache byId = cacheManager.getCache(INVENTORY_CACHE);
+        Cache byProduct = cacheManager.getCache(INVENTORY_BY_PRODUCT_CACHE);
+        runAfterCommit(() -> cacheable.forEach(inventory -> {
+            if (byId != null) {
+                byId.put(inventory.getId(), inventory);
+            }
+            if (byProduct != null) {
+                byProduct.put(inventory.getProductId(), inventory);
+            }
+        }));
+    }
+
+    private void evictAfterCommit(Long id, Long productId) {
+        Cache byId = cacheManager.getCache(INVENTORY_CACHE);
+        Cache byProduct = cacheManager.getCache(INVENTORY_BY_PRODUCT_CACHE);
+        runAfterCommit(() -> {
+            if (byId != null && id != null) {
+                byId.evict(id);
+            }
+            if (byProduct != null && productId != null) {
+                byProduct.evict(productId);
+            }
+            availabilityIndexSync.remove(productId);
+        });
+    }
+
+    private void indexAfterCommit(List<Inventory> inventories) {
+        if (inventories.isEmpty()) {
+            return;
+        }
+        runAfterCommit(() -> inventories.forEach(inventory -> availabilityIndexSync.put(inventory.getProductId(),
+                inventory.getQuantity(), inventory.getInStock(), inventory.getStockVersion())));
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 }
@@ -0,0 +1,109 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.cache.ProductIdSet;
+import com.example.inventoryservice.client.ProductClient;
+import com.example.inventoryservice.dto.ProductDTO;
+import com.example.inventoryservice.outbox.ProductEventConsumer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Component
+public class ProductIdReplica {
+    private final ProductIdSet productIdSet;
+    private final ProductClient productClient;
+    private final ProductEventConsumer productEventConsumer;
+    private final Counter localLookups;
+    private final Counter remoteLookups;
+    @Value("${inventory-service.batch.product-lookup-concurrency:16}")
+    private int productLookupConcurrency;
+
+    @Autowired
+    public ProductIdReplica(ProductIdSet productIdSet, ProductClient productClient,
+                            ProductEventConsumer productEventConsumer, MeterRegistry meterRegistry) {
+        this.productIdSet = productIdSet;
+        this.productClient = productClient;
+        this.productEventConsumer = productEventConsumer;
+        this.localLookups = meterRegistry.counter("product.id.lookups", "source", "local");
+        this.remoteLookups = meterRegistry.counter("product.id.lookups", "source", "remote");
+    }
+
+    @Scheduled(fixedDelayString = "${product-id-set.seed-retry-interval-ms:30000}",
+            initialDelayString = "${product-id-set.seed-retry-interval-ms:30000}")
+    public synchronized void seedIfNeeded() {
+        if (productIdSet.isReady()) {
+            return;
+        }
+        try {
+            String lastRecordId = productEventConsumer.latestRecordId();
+            productIdSet.clear();
+            try (Stream<Long> productIds = productClient.streamProductIds().toStream()) {
+                productIdSet.load(productIds);
+            }
+            productEventConsumer.replayAfter(lastRecordId);
+            productIdSet.markReady();
+        } catch (RuntimeException e) {
+            System.err.println("Could not seed product ids: " + e.getMessage());
+        }
+    }
+
+    public boolean exists(Long productId) {
+        if (productId == null) {
+            return false;
+        }
+        if (productIdSet.isReady() && productIdSet.contains(productId)) {
+            localLookups.increment();
+            return true;
+        }
+        remoteLookups.increment();
+        ProductDTO productDTO = productClient.getProductById(productId).block();
+        if (productDTO == null) {
+            return false;
+        }
+        productIdSet.add(productId);
+        return true;
+    }
+
+    public Set<Long> findExisting(Collection<Long> productIds) {
+        Set<Long> existing = new HashSet<>();
+        List<Long> unknown = new ArrayList<>();
+        for (Long productId : new LinkedHashSet<>(productIds)) {
+            if (productId == null) {
+                continue;
+            }
+            if (productIdSet.isReady() && productIdSet.contains(productId)) {
+                existing.add(productId);
+            } else {
+                unknown.add(productId);
+            }
+        }
+        localLookups.increment(existing.size());
+        if (unknown.isEmpty()) {
+            return existing;
+        }
+        remoteLookups.increment(unknown.size());
+        Set<Long> found = Flux.fromIterable(unknown)
+                .flatMap(productId -> productClient.getProductById(productId).map(ProductDTO::getId),
+                        productLookupConcurrency)
+                .collect(Collectors.toSet())
+                .block();
+        if (found != null) {
+            found.forEach(productIdSet::add);
+            existing.addAll(found);
+        }
+        return existing;
+    }
+}
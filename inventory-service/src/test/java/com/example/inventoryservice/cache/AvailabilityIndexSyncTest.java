@@ -0,0 +1,91 @@
+package com.example.inventoryservice.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityIndexSyncTest {
+    private static final String CHANNEL = "availability-index";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private AvailabilityIndex index;
+    private AvailabilityIndexSync sync;
+
+    @BeforeEach
+    void setUp() {
+        index = new AvailabilityIndex(16, Duration.ofMinutes(10));
+        sync = new AvailabilityIndexSync(index, redisTemplate, CHANNEL);
+    }
+
+    @Test
+    void put_ShouldUpdateLocalIndexAndPublishToOtherInstances() {
+        AvailabilityIndex otherIndex = new AvailabilityIndex(16, Duration.ofMinutes(10));
+        AvailabilityIndexSync otherSync = new AvailabilityIndexSync(otherIndex, redisTemplate, CHANNEL);
+
+        sync.put(1L, 3, true, 2L);
+
+        ArgumentCaptor<String> update = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), update.capture());
+        otherSync.onMessage(message(update.getValue()), null);
+        assertThat(index.getAvailable(1L)).isEqualTo(3);
+        assertThat(otherIndex.getAvailable(1L)).isEqualTo(3);
+        assertThat(otherIndex.findInStock(1L)).isTrue();
+    }
+
+    @Test
+    void put_WhenLocalEntryIsNewer_ShouldNotPublish() {
+        index.put(1L, 0, false, 5L);
+
+        sync.put(1L, 3, true, 4L);
+
+        verifyNoInteractions(redisTemplate);
+        assertThat(index.findInStock(1L)).isFalse();
+    }
+
+    @Test
+    void onMessage_WithOlderVersion_ShouldKeepNewerEntry() {
+        index.put(1L, 0, false, 5L);
+
+        sync.onMessage(message("other\n1\n4\n3\ntrue"), null);
+
+        assertThat(index.findInStock(1L)).isFalse();
+    }
+
+    @Test
+    void onMessage_WithRemoval_ShouldDropEntry() {
+        index.put(1L, 3, true, 1L);
+
+        sync.onMessage(message("other\n1"), null);
+
+        assertThat(index.findInStock(1L)).isNull();
+    }
+
+    @Test
+    void put_WhenPublishFails_ShouldKeepLocalUpdate() {
+        doThrow(new RedisConnectionFailureException("down")).when(redisTemplate)
+                .convertAndSend(eq(CHANNEL), anyString());
+
+        sync.put(1L, 3, true, 1L);
+
+        assertThat(index.getAvailable(1L)).isEqualTo(3);
+    }
+
+    private DefaultMessage message(String body) {
+        return new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
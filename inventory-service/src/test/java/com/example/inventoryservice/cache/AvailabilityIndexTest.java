@@ -0,0 +1,146 @@
+package com.example.inventoryservice.cache;
+
+import com.example.inventoryservice.dto.StockLevelDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvailabilityIndexTest {
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(10);
+
+    @Test
+    void put_ShouldStoreQuantityAndInStockFlag() {
+        AvailabilityIndex index = new AvailabilityIndex(16, TIME_TO_LIVE);
+
+        index.put(1L, 5, true, 1L);
+        index.put(2L, 0, false, 1L);
+
+        assertThat(index.findInStock(1L)).isTrue();
+        assertThat(index.getAvailable(1L)).isEqualTo(5);
+        assertThat(index.findInStock(2L)).isFalse();
+        assertThat(index.getAvailable(2L)).isZero();
+        assertThat(index.findInStock(3L)).isNull();
+        assertThat(index.getAvailable(3L)).isEqualTo(AvailabilityIndex.MISSING);
+    }
+
+    @Test
+    void put_ExistingProduct_ShouldOverwriteWithoutGrowing() {
+        AvailabilityIndex index = new AvailabilityIndex(16, TIME_TO_LIVE);
+
+        index.put(1L, 5, true, 1L);
+        index.put(1L, 0, false, 2L);
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.findInStock(1L)).isFalse();
+        assertThat(index.getAvailable(1L)).isZero();
+    }
+
+    @Test
+    void put_BeyondExpectedSize_ShouldResizeAndKeepEntries() {
+        AvailabilityIndex index = new AvailabilityIndex(4, TIME_TO_LIVE);
+        long initialMemory = index.getMemoryBytes();
+
+        for (long productId = 1; productId <= 10_000; productId++) {
+            index.put(productId, (int) productId, productId % 2 == 0, 1L);
+        }
+
+        assertThat(index.size()).isEqualTo(10_000);
+        assertThat(index.getMemoryBytes()).isGreaterThan(initialMemory);
+        for (long productId = 1; productId <= 10_000; productId++) {
+            assertThat(index.getAvailable(productId)).isEqualTo((int) productId);
+            assertThat(index.findInStock(productId)).isEqualTo(productId % 2 == 0);
+        }
+    }
+
+    @Test
+    void remove_ShouldKeepCollidingEntriesReachable() {
+        AvailabilityIndex index = new AvailabilityIndex(1 << 12, TIME_TO_LIVE);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            long productId = random.nextInt(3000) + 1;
+            if (random.nextInt(3) == 0) {
+                index.remove(productId);
+                expected.remove(productId);
+            } else {
+                int quantity = random.nextInt(10);
+                index.put(productId, quantity, quantity > 0, (long) i);
+                expected.put(productId, quantity);
+            }
+        }
+
+        assertThat(index.size()).isEqualTo(expected.size());
+        for (long productId = 1; productId <= 3000; productId++) {
+            Integer quantity = expected.get(productId);
+            assertThat(index.getAvailable(productId))
+                    .isEqualTo(quantity == null ? AvailabilityIndex.MISSING : quantity);
+            assertThat(index.findInStock(productId)).isEqualTo(quantity == null ? null : quantity > 0);
+        }
+    }
+
+    @Test
+    void load_ShouldIndexStreamedStockLevelsAndCountLookups() {
+        AvailabilityIndex index = new AvailabilityIndex(16, TIME_TO_LIVE);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        index.registerMetrics(meterRegistry);
+
+        index.load(Stream.of(new StockLevelDTO(1L, 3, true, 1L), new StockLevelDTO(2L, null, null, null)));
+        index.findInStock(1L);
+        index.findInStock(9L);
+
+        assertThat(index.getAvailable(2L)).isZero();
+        assertThat(meterRegistry.get("availability.index.size").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("availability.index.lookups").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("availability.index.lookups").tag("result", "miss").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void put_WithOlderVersion_ShouldKeepNewerEntry() {
+        AvailabilityIndex index = new AvailabilityIndex(16, TIME_TO_LIVE);
+
+        boolean newer = index.put(1L, 0, false, 5L);
+        boolean older = index.put(1L, 7, true, 4L);
+
+        assertThat(newer).isTrue();
+        assertThat(older).isFalse();
+        assertThat(index.findInStock(1L)).isFalse();
+        assertThat(index.getAvailable(1L)).isZero();
+    }
+
+    @Test
+    void load_ShouldNotOverwriteEntriesUpdatedWhileLoading() {
+        AvailabilityIndex index = new AvailabilityIndex(16, TIME_TO_LIVE);
+        index.put(1L, 0, false, 9L);
+
+        index.load(Stream.of(new StockLevelDTO(1L, 3, true, 8L), new StockLevelDTO(2L, 4, true, 1L)));
+
+        assertThat(index.findInStock(1L)).isFalse();
+        assertThat(index.findInStock(2L)).isTrue();
+    }
+
+    @Test
+    void findInStock_AfterTimeToLive_ShouldMissButStillRejectOlderVersions() {
+        AtomicLong now = new AtomicLong();
+        AvailabilityIndex index = new AvailabilityIndex(16, Duration.ofSeconds(10), now::get);
+        index.put(1L, 5, true, 3L);
+
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        assertThat(index.findInStock(1L)).isNull();
+        assertThat(index.getAvailable(1L)).isEqualTo(AvailabilityIndex.MISSING);
+        assertThat(index.put(1L, 9, true, 2L)).isFalse();
+        assertThat(index.put(1L, 4, true, 3L)).isTrue();
+        assertThat(index.getAvailable(1L)).isEqualTo(4);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.inventoryservice.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductIdSetTest {
+    @Test
+    void add_ShouldMakeIdVisibleOnlyOnce() {
+        ProductIdSet productIds = new ProductIdSet();
+
+        assertThat(productIds.add(1L)).isTrue();
+        assertThat(productIds.add(1L)).isFalse();
+
+        assertThat(productIds.contains(1L)).isTrue();
+        assertThat(productIds.contains(2L)).isFalse();
+        assertThat(productIds.size()).isEqualTo(1);
+    }
+
+    @Test
+    void remove_ShouldClearOnlyThatId() {
+        ProductIdSet productIds = new ProductIdSet();
+        productIds.load(Stream.of(1L, 2L, 65L));
+
+        assertThat(productIds.remove(2L)).isTrue();
+        assertThat(productIds.remove(2L)).isFalse();
+        assertThat(productIds.remove(1_000_000L)).isFalse();
+
+        assertThat(productIds.contains(1L)).isTrue();
+        assertThat(productIds.contains(2L)).isFalse();
+        assertThat(productIds.contains(65L)).isTrue();
+        assertThat(productIds.size()).isEqualTo(2);
+    }
+
+    @Test
+    void add_SparseAndNegativeIds_ShouldMatchHashSet() {
+        ProductIdSet productIds = new ProductIdSet();
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            long productId = random.nextLong() % 5_000_000L;
+            if (random.nextInt(4) == 0) {
+                assertThat(productIds.remove(productId)).isEqualTo(expected.remove(productId));
+            } else {
+                assertThat(productIds.add(productId)).isEqualTo(expected.add(productId));
+            }
+        }
+
+        assertThat(productIds.size()).isEqualTo(expected.size());
+        expected.forEach(productId -> assertThat(productIds.contains(productId)).isTrue());
+        assertThat(productIds.contains(Long.MAX_VALUE)).isFalse();
+    }
+
+    @Test
+    void load_DenseIds_ShouldUseAboutOneBitPerId() {
+        ProductIdSet productIds = new ProductIdSet();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        productIds.registerMetrics(meterRegistry);
+
+        productIds.load(Stream.iterate(1L, id -> id <= 1_000_000L, id -> id + 1));
+        productIds.markReady();
+
+        assertThat(productIds.isReady()).isTrue();
+        assertThat(productIds.getMemoryBytes()).isLessThan(1_000_000L / 8 + 64 * 1024);
+        assertThat(meterRegistry.get("product.id.set.size").gauge().value()).isEqualTo(1_000_000);
+        assertThat(meterRegistry.get("product.id.set.ready").gauge().value()).isEqualTo(1);
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.inventoryservice.controller;
 
 import com.example.inventoryservice.dto.ProductDTO;
+import com.example.inventoryservice.dto.StockItemDTO;
 import com.example.inventoryservice.entity.Inventory;
+import com.example.inventoryservice.exception.InsufficientStockException;
 import com.example.inventoryservice.service.InventoryService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +16,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -70,6 +73,19 @@ class InventoryControllerTest {
         verify(inventoryService, times(1)).getAllInventories();
     }
 
+    @Test
+    void getInventoriesPage_WithAfterButNoLimit_ShouldReturnDefaultPage() throws Exception {
+        when(inventoryService.getInventoriesAfter(1L, 100)).thenReturn(List.of(inventory2));
+
+        mockMvc.perform(get("/api/inventory")
+                        .param("after", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].locationCode").value(inventory2.getLocationCode()));
+
+        verify(inventoryService, times(1)).getInventoriesAfter(1L, 100);
+        verify(inventoryService, never()).getAllInventories();
+    }
+
     @Test
     void getInventoryById_WhenInventoryExists_ShouldReturnInventoryById() throws Exception {
         when(inventoryService.getInventoryById(inventory1.getId())).thenReturn(inventory1);
@@ -133,6 +149,21 @@ class InventoryControllerTest {
         verify(inventoryService, times(1)).isInStock(productDTO.getId());
     }
 
+    @Test
+    void getStockByProductIds_ShouldReturnStockForEveryProductId() throws Exception {
+        List<Long> productIds = List.of(1L, 2L);
+        when(inventoryService.getStockByProductIds(productIds)).thenReturn(Map.of(1L, true, 2L, false));
+
+        mockMvc.perform(post("/api/inventory/in-stock")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(productIds)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['1']").value(true))
+                .andExpect(jsonPath("$['2']").value(false));
+
+        verify(inventoryService, times(1)).getStockByProductIds(productIds);
+    }
+
     @Test
     void createInventory_ShouldReturn201Status() throws Exception {
         mockMvc.perform(post("/api/inventory")
@@ -166,4 +197,59 @@ class InventoryControllerTest {
 
         verify(inventoryService, times(1)).deleteInventoryById(inventory1.getId());
     }
-}
\ No newline at end of file
+
+    @Test
+    void reserveStock_ShouldReturnUpdatedInventory() throws Exception {
+        List<StockItemDTO> items = List.of(new StockItemDTO(1L, 1));
+        when(inventoryService.reserveStock(10L, items)).thenReturn(List.of(inventory1));
+
+        mockMvc.perform(post("/api/inventory/reservations/10")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(items)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].productId").value(inventory1.getProductId()));
+
+        verify(inventoryService, times(1)).reserveStock(items);
+    }
+
+    @Test
+    void reserveStock_WhenStockIsShort_ShouldReturn409Status() throws Exception {
+        List<StockItemDTO> items = List.of(new StockItemDTO(1L, 5));
+        when(inventoryService.reserveStock(10L, items)).thenThrow(new InsufficientStockException("Cannot reserve"));
+
+        mockMvc.perform(post("/api/inventory/reservations/10")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(items)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void reserveStock_WhenItemIsInvalid_ShouldReturn400Status() throws Exception {
+        List<StockItemDTO> items = List.of(new StockItemDTO(1L, 0));
+        when(inventoryService.reserveStock(10L, items)).thenThrow(new IllegalArgumentException("Invalid stock item"));
+
+        mockMvc.perform(post("/api/inventory/reservations/10")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(items)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void releaseStock_ShouldReleaseTheOrdersReservation() throws Exception {
+        when(inventoryService.releaseReservation(10L)).thenReturn(List.of(inventory1));
+
+        mockMvc.perform(post("/api/inventory/reservations/10/release"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].productId").value(inventory1.getProductId()));
+
+        verify(inventoryService, times(1)).releaseReservation(10L);
+    }
+
+    @Test
+    void commitStock_WhenOrderHasNoReservation_ShouldReturn409Status() throws Exception {
+        when(inventoryService.commitReservation(10L)).thenThrow(new InsufficientStockException("Nothing reserved"));
+
+        mockMvc.perform(post("/api/inventory/reservations/10/commit"))
+                .andExpect(status().isConflict());
+    }
+}
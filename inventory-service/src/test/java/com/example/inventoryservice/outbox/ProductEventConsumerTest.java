@@ -0,0 +1,92 @@
+package com.example.inventoryservice.outbox;
+
+import com.example.inventoryservice.cache.ProductIdSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductEventConsumerTest {
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private StreamOperations<String, Object, Object> streamOperations;
+
+    private ProductIdSet productIdSet;
+    private ProductEventConsumer productEventConsumer;
+
+    @BeforeEach
+    void setUp() {
+        productIdSet = new ProductIdSet();
+        productIdSet.markReady();
+        productEventConsumer = new ProductEventConsumer(productIdSet, redisTemplate);
+        ReflectionTestUtils.setField(productEventConsumer, "stream", "events.product");
+        ReflectionTestUtils.setField(productEventConsumer, "batchSize", 100);
+    }
+
+    @Test
+    void onError_ShouldKeepProductIdsReady() {
+        productEventConsumer.onError(new QueryTimeoutException("timeout"));
+
+        assertThat(productIdSet.isReady()).isTrue();
+    }
+
+    @Test
+    void onMessage_AfterErrorWithNothingTrimmed_ShouldStayReadyAndApplyEvent() {
+        doReturn(streamOperations).when(redisTemplate).opsForStream();
+        productEventConsumer.onMessage(record("5-0", "ProductCreated", "1"));
+        doReturn(List.of(record("3-0", "ProductCreated", "9"))).when(streamOperations)
+                .range(eq("events.product"), eq(Range.unbounded()), any(Limit.class));
+
+        productEventConsumer.onError(new QueryTimeoutException("timeout"));
+        productEventConsumer.onMessage(record("6-0", "ProductCreated", "2"));
+
+        assertThat(productIdSet.isReady()).isTrue();
+        assertThat(productIdSet.contains(1L)).isTrue();
+        assertThat(productIdSet.contains(2L)).isTrue();
+    }
+
+    @Test
+    void onMessage_AfterErrorWhenUnreadEventsWereTrimmed_ShouldMarkProductIdsStale() {
+        doReturn(streamOperations).when(redisTemplate).opsForStream();
+        productEventConsumer.onMessage(record("5-0", "ProductCreated", "1"));
+        doReturn(List.of(record("8-0", "ProductCreated", "3"))).when(streamOperations)
+                .range(eq("events.product"), eq(Range.unbounded()), any(Limit.class));
+
+        productEventConsumer.onError(new QueryTimeoutException("timeout"));
+        productEventConsumer.onMessage(record("8-0", "ProductCreated", "3"));
+
+        assertThat(productIdSet.isReady()).isFalse();
+    }
+
+    @Test
+    void onMessage_WhenEventCannotBeHandled_ShouldMarkProductIdsStale() {
+        productEventConsumer.onMessage(record("5-0", "ProductCreated", "not-a-number"));
+
+        assertThat(productIdSet.isReady()).isFalse();
+    }
+
+    private MapRecord<String, String, String> record(String id, String type, String aggregateId) {
+        return StreamRecords.newRecord()
+                .in("events.product")
+                .withId(RecordId.of(id))
+                .ofMap(Map.of("type", type, "aggregateId", aggregateId));
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.inventoryservice.repository;
+
+import com.example.inventoryservice.cache.AvailabilityIndex;
+import com.example.inventoryservice.entity.Inventory;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_JDBC_URL", matches = ".+")
+class AvailabilityIndexBenchmarkTest {
+    private static final int ROWS = 10_000;
+    private static final int DATABASE_LOOKUPS = 2_000;
+    private static final int INDEX_LOOKUPS = 10_000_000;
+    private static final int HEAP_SKUS = 2_000_000;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private String table;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getenv("BENCHMARK_JDBC_URL"));
+        dataSource.setUsername(System.getenv().getOrDefault("BENCHMARK_JDBC_USERNAME", "postgres"));
+        dataSource.setPassword(System.getenv().getOrDefault("BENCHMARK_JDBC_PASSWORD", "postgres"));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        table = "inventory_bench_" + Long.toHexString(System.nanoTime());
+
+        jdbcTemplate.execute("create table " + table + " (id bigint primary key, product_id bigint, " +
+                "quantity int, in_stock boolean)");
+        jdbcTemplate.batchUpdate("insert into " + table + " values (?, ?, ?, ?)",
+                LongStream.rangeClosed(1, ROWS)
+                        .mapToObj(id -> new Object[]{id, id, (int) (id % 7), id % 7 != 0})
+                        .toList());
+        jdbcTemplate.execute("create index on " + table + " (product_id)");
+        jdbcTemplate.execute("analyze " + table);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("drop table if exists " + table);
+        dataSource.close();
+    }
+
+    @Test
+    void isInStock_IndexLookupVersusRepositoryQuery() {
+        AvailabilityIndex index = new AvailabilityIndex(ROWS, Duration.ofHours(1));
+        jdbcTemplate.query("select product_id, quantity, in_stock from " + table, (RowCallbackHandler) rs ->
+                index.put(rs.getLong("product_id"), rs.getInt("quantity"), rs.getBoolean("in_stock"), 1L));
+        Random random = new Random(7);
+
+        int databaseInStock = 0;
+        long databaseStartedAt = System.nanoTime();
+        for (int i = 0; i < DATABASE_LOOKUPS; i++) {
+            Boolean inStock = jdbcTemplate.queryForObject("select in_stock from " + table + " where product_id = ?",
+                    Boolean.class, random.nextInt(ROWS) + 1L);
+            databaseInStock += Boolean.TRUE.equals(inStock) ? 1 : 0;
+        }
+        long databaseNanos = (System.nanoTime() - databaseStartedAt) / DATABASE_LOOKUPS;
+
+        int indexInStock = 0;
+        for (int i = 0; i < INDEX_LOOKUPS; i++) {
+            indexInStock += Boolean.TRUE.equals(index.findInStock(random.nextInt(ROWS) + 1L)) ? 1 : 0;
+        }
+        long indexStartedAt = System.nanoTime();
+        for (int i = 0; i < INDEX_LOOKUPS; i++) {
+            indexInStock += Boolean.TRUE.equals(index.findInStock(random.nextInt(ROWS) + 1L)) ? 1 : 0;
+        }
+        double indexNanos = (double) (System.nanoTime() - indexStartedAt) / INDEX_LOOKUPS;
+
+        System.out.printf("isInStock over %d products: repository %d ns, index %.1f ns, %.0fx%n",
+                ROWS, databaseNanos, indexNanos, databaseNanos / indexNanos);
+        assertThat(databaseInStock).isPositive();
+        assertThat(indexInStock).isPositive();
+    }
+
+    @Test
+    void heapFootprint_IndexVersusBoxedHashMap() {
+        long baseline = usedHeap();
+        AvailabilityIndex index = new AvailabilityIndex(HEAP_SKUS, Duration.ofHours(1));
+        for (long productId = 1; productId <= HEAP_SKUS; productId++) {
+            index.put(productId, (int) (productId % 100), productId % 100 != 0, 1L);
+        }
+        long indexBytes = usedHeap() - baseline;
+
+        baseline = usedHeap();
+        Map<Long, Inventory> boxed = new HashMap<>();
+        for (long productId = 1; productId <= HEAP_SKUS; productId++) {
+            boxed.put(productId, new Inventory(productId, productId, (int) (productId % 100), 0, null,
+                    productId % 100 != 0, 1L));
+        }
+        long boxedBytes = usedHeap() - baseline;
+
+        System.out.printf("%d SKUs: index %d MB, HashMap<Long, Inventory> %d MB%n", HEAP_SKUS,
+                indexBytes >> 20, boxedBytes >> 20);
+        assertThat(index.size()).isEqualTo(boxed.size());
+        assertThat(indexBytes).isLessThan(boxedBytes);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.inventoryservice.repository;
+
+import com.example.inventoryservice.service.HotSkuInventory;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_JDBC_URL", matches = ".+")
+class StockReservationContentionBenchmarkTest {
+    private static final int THREADS = 64;
+    private static final int ATTEMPTS_PER_THREAD = 200;
+    private static final int INITIAL_STOCK = 10_000;
+
+    private HikariDataSource dataSource;
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private long productId;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getenv("BENCHMARK_JDBC_URL"));
+        dataSource.setUsername(System.getenv().getOrDefault("BENCHMARK_JDBC_USERNAME", "postgres"));
+        dataSource.setPassword(System.getenv().getOrDefault("BENCHMARK_JDBC_PASSWORD", "postgres"));
+        dataSource.setMaximumPoolSize(THREADS);
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        productId = -System.nanoTime();
+        jdbcTemplate.update("insert into inventory (id, product_id, quantity, reserved_quantity, location_code, in_stock) " +
+                        "values (nextval('inventory_seq'), :productId, :quantity, 0, 'BENCHMARK', true)",
+                Map.of("productId", productId, "quantity", INITIAL_STOCK));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from inventory where product_id = :productId", Map.of("productId", productId));
+        dataSource.close();
+    }
+
+    @Test
+    void reserveStock_RowLockUnder64Threads_ShouldNeverOversell() throws InterruptedException {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("productId", productId)
+                .addValue("quantity", 1);
+
+        int reserved = runContended("row-lock", () -> jdbcTemplate.update(InventoryRepository.RESERVE_STOCK_SQL, params));
+
+        assertNoOversell(reserved);
+    }
+
+    @Test
+    void reserveStock_HotSkuModeUnder64Threads_ShouldNeverOversell() throws InterruptedException {
+        HotSkuInventory hotSkuInventory = new HotSkuInventory(jdbcTemplate,
+                new DataSourceTransactionManager(dataSource), new ConcurrentMapCacheManager());
+        ReflectionTestUtils.setField(hotSkuInventory, "enabled", true);
+        ReflectionTestUtils.setField(hotSkuInventory, "hotProductIds", Set.of(productId));
+        ReflectionTestUtils.setField(hotSkuInventory, "stripes", 16);
+        ReflectionTestUtils.setField(hotSkuInventory, "leaseSize", 100);
+        ReflectionTestUtils.setField(hotSkuInventory, "refillThreshold", 25);
+        ReflectionTestUtils.setField(hotSkuInventory, "refillTimeout", Duration.ofSeconds(5));
+
+        int reserved = runContended("hot-sku", () -> hotSkuInventory.tryReserve(productId, 1) ? 1 : 0);
+        hotSkuInventory.shutdown();
+
+        assertNoOversell(reserved);
+    }
+
+    private int runContended(String mode, IntSupplier reserveOne) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        for (int i = 0; i < THREADS; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int attempt = 0; attempt < ATTEMPTS_PER_THREAD; attempt++) {
+                    reserved.addAndGet(reserveOne.getAsInt());
+                }
+            });
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startedAt);
+
+        int attempts = THREADS * ATTEMPTS_PER_THREAD;
+        System.out.printf("%s reserve on one SKU: %d attempts, %d reserved, %d ms, %.0f ops/s%n", mode,
+                attempts, reserved.get(), elapsed.toMillis(), attempts * 1000.0 / Math.max(1, elapsed.toMillis()));
+        return reserved.get();
+    }
+
+    private void assertNoOversell(int reserved) {
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "select quantity, reserved_quantity, in_stock from inventory where product_id = :productId",
+                Map.of("productId", productId));
+        assertThat(reserved).isEqualTo(INITIAL_STOCK);
+        assertThat(((Number) row.get("quantity")).intValue()).isZero();
+        assertThat(((Number) row.get("reserved_quantity")).intValue()).isEqualTo(INITIAL_STOCK);
+        assertThat(row.get("in_stock")).isEqualTo(false);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.inventoryservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotSkuCounterTest {
+    private static final int THREADS = 64;
+    private static final int ATTEMPTS_PER_THREAD = 5_000;
+    private static final int STOCK = 100_000;
+
+    @Test
+    void tryReserve_Under64Threads_ShouldNeverOversell() throws InterruptedException {
+        HotSkuCounter counter = new HotSkuCounter(1L, 16);
+        counter.addAvailable(STOCK);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        for (int i = 0; i < THREADS; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int attempt = 0; attempt < ATTEMPTS_PER_THREAD; attempt++) {
+                    if (counter.tryReserve(2)) {
+                        reserved.addAndGet(2);
+                    }
+                }
+            });
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        System.out.printf("hot SKU counter: %d attempts in %d ms%n", THREADS * ATTEMPTS_PER_THREAD, elapsedMs);
+        assertThat(reserved.get()).isEqualTo(STOCK);
+        assertThat(counter.getAvailable()).isZero();
+        assertThat(counter.drainPendingReserved()).isEqualTo(STOCK);
+    }
+
+    @Test
+    void tryReserve_WhenStockIsSpreadAcrossStripes_ShouldStillReserve() {
+        HotSkuCounter counter = new HotSkuCounter(1L, 4);
+        counter.addAvailable(4);
+
+        assertThat(counter.tryReserve(3)).isTrue();
+        assertThat(counter.tryReserve(2)).isFalse();
+        assertThat(counter.getAvailable()).isEqualTo(1);
+    }
+
+    @Test
+    void cancelReservation_ShouldReturnUnitsAndReducePendingReserved() {
+        HotSkuCounter counter = new HotSkuCounter(1L, 4);
+        counter.addAvailable(10);
+        counter.tryReserve(4);
+
+        counter.cancelReservation(4);
+
+        assertThat(counter.getAvailable()).isEqualTo(10);
+        assertThat(counter.drainPendingReserved()).isZero();
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.inventoryservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HotSkuInventoryTest {
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private Cache cache;
+    @Mock
+    private TransactionStatus leaseTransaction;
+
+    private HotSkuInventory hotSkuInventory;
+
+    @BeforeEach
+    void setUp() {
+        hotSkuInventory = new HotSkuInventory(jdbcTemplate, transactionManager, cacheManager);
+        ReflectionTestUtils.setField(hotSkuInventory, "enabled", true);
+        ReflectionTestUtils.setField(hotSkuInventory, "hotProductIds", Set.of(1L));
+        ReflectionTestUtils.setField(hotSkuInventory, "stripes", 4);
+        ReflectionTestUtils.setField(hotSkuInventory, "leaseSize", 10);
+        ReflectionTestUtils.setField(hotSkuInventory, "refillThreshold", 0);
+        ReflectionTestUtils.setField(hotSkuInventory, "refillTimeout", Duration.ofSeconds(5));
+        lenient().doReturn(List.of(7L)).when(jdbcTemplate).queryForList(anyString(), any(SqlParameterSource.class), eq(Long.class));
+    }
+
+    @Test
+    void isHot_ShouldOnlyMatchConfiguredProducts() {
+        assertThat(hotSkuInventory.isHot(1L)).isTrue();
+        assertThat(hotSkuInventory.isHot(2L)).isFalse();
+    }
+
+    @Test
+    void tryReserve_ShouldLeaseOnceAndServeFromCounter() {
+        doReturn(1).when(jdbcTemplate).update(anyString(), any(SqlParameterSource.class));
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(hotSkuInventory.tryReserve(1L, 1)).isTrue();
+        }
+
+        verify(jdbcTemplate, times(1)).update(anyString(), any(SqlParameterSource.class));
+        assertThat(hotSkuInventory.getAvailable(1L)).isZero();
+    }
+
+    @Test
+    void tryReserve_WhenDatabaseHasNoStock_ShouldFail() {
+        doReturn(0).when(jdbcTemplate).update(anyString(), any(SqlParameterSource.class));
+
+        assertThat(hotSkuInventory.tryReserve(1L, 1)).isFalse();
+    }
+
+    @Test
+    void flush_ShouldWriteReservedUnitsAndEvictCache() {
+        doReturn(1).when(jdbcTemplate).update(anyString(), any(SqlParameterSource.class));
+        doReturn(cache).when(cacheManager).getCache("inventory");
+        hotSkuInventory.tryReserve(1L, 3);
+
+        hotSkuInventory.flush();
+        hotSkuInventory.flush();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), any(SqlParameterSource[].class));
+        verify(cache, times(1)).evict(7L);
+    }
+
+    @Test
+    void flush_WhenDatabaseFails_ShouldKeepReservedUnitsForNextFlush() {
+        doReturn(1).when(jdbcTemplate).update(anyString(), any(SqlParameterSource.class));
+        doReturn(cache).when(cacheManager).getCache("inventory");
+        doThrow(new QueryTimeoutException("timeout")).doReturn(new int[]{1})
+                .when(jdbcTemplate).batchUpdate(anyString(), any(SqlParameterSource[].class));
+        hotSkuInventory.tryReserve(1L, 3);
+
+        hotSkuInventory.flush();
+        hotSkuInventory.flush();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), any(SqlParameterSource[].class));
+        verify(cache, times(1)).evict(7L);
+    }
+
+    @Test
+    void tryReserve_WhenCallerRollsBackMixedReservation_ShouldKeepLeasedStockAccountedFor() {
+        AtomicLong databaseQuantity = new AtomicLong(100);
+        doAnswer(invocation -> {
+            SqlParameterSource params = invocation.getArgument(1);
+            databaseQuantity.addAndGet(-((Number) params.getValue("quantity")).longValue());
+            return 1;
+        }).when(jdbcTemplate).update(anyString(), any(SqlParameterSource.class));
+        doReturn(leaseTransaction).when(transactionManager).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+
+        assertThat(hotSkuInventory.tryReserve(1L, 3)).isTrue();
+        hotSkuInventory.cancel(1L, 3);
+
+        verify(transactionManager, times(1)).commit(leaseTransaction);
+        assertThat(hotSkuInventory.getAvailable(1L)).isEqualTo(10);
+        assertThat(databaseQuantity.get() + hotSkuInventory.getAvailable(1L)).isEqualTo(100);
+    }
+
+    @Test
+    void tryReserve_ShouldLeaseOnRefillThreadInsteadOfCallerThread() {
+        AtomicReference<Thread> leaseThread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            leaseThread.set(Thread.currentThread());
+            return 1;
+        }).when(jdbcTemplate).update(anyString(), any(SqlParameterSource.class));
+
+        assertThat(hotSkuInventory.tryReserve(1L, 1)).isTrue();
+
+        assertThat(leaseThread.get()).isNotNull().isNotSameAs(Thread.currentThread());
+        assertThat(leaseThread.get().getName()).isEqualTo("hot-sku-refill");
+    }
+
+    @Test
+    void tryReserve_WhenBelowRefillThreshold_ShouldLeaseAheadInBackground() throws InterruptedException {
+        ReflectionTestUtils.setField(hotSkuInventory, "refillThreshold", 5);
+        doReturn(1).when(jdbcTemplate).update(anyString(), any(SqlParameterSource.class));
+
+        assertThat(hotSkuInventory.tryReserve(1L, 6)).isTrue();
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (hotSkuInventory.getAvailable(1L) < 14 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(hotSkuInventory.getAvailable(1L)).isEqualTo(14);
+        verify(jdbcTemplate, times(2)).update(anyString(), any(SqlParameterSource.class));
+    }
+
+    @Test
+    void tryReserve_WhenFullLeaseIsUnavailable_ShouldLeaseRequestedQuantity() {
+        doReturn(0).doReturn(1).when(jdbcTemplate).update(anyString(), any(SqlParameterSource.class));
+
+        assertThat(hotSkuInventory.tryReserve(1L, 3)).isTrue();
+
+        verify(jdbcTemplate, times(2)).update(anyString(), any(SqlParameterSource.class));
+        assertThat(hotSkuInventory.getAvailable(1L)).isZero();
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.cache.AvailabilityIndex;
+import com.example.inventoryservice.entity.Inventory;
+import com.example.inventoryservice.repository.InventoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InStockBatchLoaderTest {
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AvailabilityIndex availabilityIndex;
+    private InStockBatchLoader inStockBatchLoader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        availabilityIndex = new AvailabilityIndex(16, Duration.ofMinutes(10));
+        inStockBatchLoader = new InStockBatchLoader(inventoryRepository, availabilityIndex, meterRegistry);
+        ReflectionTestUtils.setField(inStockBatchLoader, "enabled", true);
+        ReflectionTestUtils.setField(inStockBatchLoader, "window", Duration.ofMillis(300));
+        ReflectionTestUtils.setField(inStockBatchLoader, "maxSize", 100);
+    }
+
+    @Test
+    void load_ConcurrentLookupsWithinWindow_ShouldShareOneInQuery() throws Exception {
+        doReturn(List.of(inventory(1L, true), inventory(2L, false)))
+                .when(inventoryRepository).findByProductIdIn(Set.of(1L, 2L, 3L));
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(9);
+        try {
+            List<Future<Boolean>> results = IntStream.range(0, 9)
+                    .mapToObj(i -> executor.submit(() -> {
+                        start.await();
+                        return inStockBatchLoader.load(i % 3 + 1L);
+                    }))
+                    .toList();
+            start.countDown();
+
+            for (int i = 0; i < results.size(); i++) {
+                assertThat(results.get(i).get()).isEqualTo(i % 3 == 0);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(inventoryRepository, times(1)).findByProductIdIn(anyCollection());
+        assertThat(meterRegistry.get("inventory.in-stock.batch.size").summary().max()).isEqualTo(3);
+        assertThat(meterRegistry.get("inventory.in-stock.queries.saved").counter().count()).isEqualTo(8);
+        assertThat(meterRegistry.get("inventory.in-stock.batch.wait").timer().count()).isEqualTo(9);
+    }
+
+    @Test
+    void load_WhenBatchIsFull_ShouldDispatchWithoutWaitingForWindow() {
+        ReflectionTestUtils.setField(inStockBatchLoader, "window", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(inStockBatchLoader, "maxSize", 1);
+        doReturn(List.of(inventory(1L, true))).when(inventoryRepository).findByProductIdIn(Set.of(1L));
+
+        boolean result = assertTimeout(Duration.ofSeconds(5), () -> inStockBatchLoader.load(1L));
+
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    void load_WhenProductHasNoInventory_ShouldReturnFalse() {
+        doReturn(List.of()).when(inventoryRepository).findByProductIdIn(Set.of(4L));
+
+        assertThat(inStockBatchLoader.load(4L)).isFalse();
+    }
+
+    @Test
+    void load_WhenQueryFails_ShouldPropagateToCaller() {
+        doThrow(new QueryTimeoutException("timeout")).when(inventoryRepository).findByProductIdIn(anyCollection());
+
+        assertThatThrownBy(() -> inStockBatchLoader.load(1L)).isInstanceOf(QueryTimeoutException.class);
+    }
+
+    @Test
+    void load_WhenDisabled_ShouldQueryProductDirectly() {
+        ReflectionTestUtils.setField(inStockBatchLoader, "enabled", false);
+        doReturn(Optional.of(inventory(1L, true))).when(inventoryRepository).findByProductId(1L);
+
+        assertThat(inStockBatchLoader.load(1L)).isTrue();
+        verify(inventoryRepository, never()).findByProductIdIn(anyCollection());
+    }
+
+    @Test
+    void load_ShouldWriteLoadedStockBackIntoAvailabilityIndex() {
+        Inventory inventory = inventory(1L, true);
+        inventory.setQuantity(5);
+        inventory.setStockVersion(3L);
+        ReflectionTestUtils.setField(inStockBatchLoader, "maxSize", 1);
+        doReturn(List.of(inventory)).when(inventoryRepository).findByProductIdIn(Set.of(1L));
+
+        assertThat(inStockBatchLoader.load(1L)).isTrue();
+
+        assertThat(availabilityIndex.findInStock(1L)).isTrue();
+        assertThat(availabilityIndex.getAvailable(1L)).isEqualTo(5);
+    }
+
+    @Test
+    void load_AfterIndexEntryExpired_ShouldRepopulateIndex() throws Exception {
+        availabilityIndex = new AvailabilityIndex(16, Duration.ofMillis(50));
+        inStockBatchLoader = new InStockBatchLoader(inventoryRepository, availabilityIndex, meterRegistry);
+        ReflectionTestUtils.setField(inStockBatchLoader, "enabled", true);
+        ReflectionTestUtils.setField(inStockBatchLoader, "window", Duration.ZERO);
+        ReflectionTestUtils.setField(inStockBatchLoader, "maxSize", 100);
+        Inventory inventory = inventory(1L, true);
+        inventory.setQuantity(5);
+        inventory.setStockVersion(3L);
+        availabilityIndex.put(1L, 5, true, 3L);
+        Thread.sleep(100);
+        assertThat(availabilityIndex.findInStock(1L)).isNull();
+        doReturn(List.of(inventory)).when(inventoryRepository).findByProductIdIn(Set.of(1L));
+
+        assertThat(inStockBatchLoader.load(1L)).isTrue();
+
+        assertThat(availabilityIndex.findInStock(1L)).isTrue();
+    }
+
+    @Test
+    void load_WhenDisabled_ShouldWriteLoadedStockBackIntoAvailabilityIndex() {
+        ReflectionTestUtils.setField(inStockBatchLoader, "enabled", false);
+        doReturn(Optional.of(inventory(1L, false))).when(inventoryRepository).findByProductId(1L);
+
+        assertThat(inStockBatchLoader.load(1L)).isFalse();
+        assertThat(availabilityIndex.findInStock(1L)).isFalse();
+    }
+
+    private Inventory inventory(Long productId, boolean inStock) {
+        Inventory inventory = new Inventory();
+        inventory.setId(productId);
+        inventory.setProductId(productId);
+        inventory.setInStock(inStock);
+        return inventory;
+    }
+}
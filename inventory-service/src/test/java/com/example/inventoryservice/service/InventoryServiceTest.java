@@ -1,38 +1,70 @@
 package com.example.inventoryservice.service;
 
+import com.example.inventoryservice.cache.AvailabilityIndex;
+import com.example.inventoryservice.cache.AvailabilityIndexSync;
+import com.example.inventoryservice.cache.IdBloomFilter;
 import com.example.inventoryservice.dto.ProductDTO;
+import com.example.inventoryservice.dto.StockItemDTO;
 import com.example.inventoryservice.entity.Inventory;
+import com.example.inventoryservice.entity.StockReservation;
+import com.example.inventoryservice.entity.StockReservationItem;
+import com.example.inventoryservice.exception.InsufficientStockException;
+import com.example.inventoryservice.outbox.OutboxService;
 import com.example.inventoryservice.repository.InventoryRepository;
+import com.example.inventoryservice.repository.StockReservationRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class InventoryServiceTest {
     @Mock
     private InventoryRepository inventoryRepository;
+    @Spy
+    private IdBloomFilter inventoryIdFilter = new IdBloomFilter("inventory", 1000, 0.01);
     @Mock
-    private WebClient.Builder webClientBuilder;
+    private EntityManager entityManager;
     @Mock
-    private WebClient webClient;
+    private ProductIdReplica productIdReplica;
     @Mock
-    private WebClient.RequestHeadersUriSpec requestHeadersUriSpec;
+    private CacheManager cacheManager;
     @Mock
-    private WebClient.RequestHeadersSpec requestHeadersSpec;
+    private Cache cache;
     @Mock
-    private WebClient.ResponseSpec responseSpec;
+    private Cache productCache;
+    @Mock
+    private HotSkuInventory hotSkuInventory;
+    @Mock
+    private InStockBatchLoader inStockBatchLoader;
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+    @Mock
+    private AvailabilityIndexSync availabilityIndexSync;
+    @Mock
+    private OutboxService outboxService;
+    @Mock
+    private StockReservationRepository stockReservationRepository;
     @InjectMocks
     private InventoryService inventoryService;
 
@@ -67,11 +99,7 @@ class InventoryServiceTest {
 
     @Test
     void createInventory_WhenProductExists_ShouldCreateInventory() {
-        when(webClientBuilder.build()).thenReturn(webClient);
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString(), anyLong())).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(ProductDTO.class)).thenReturn(Mono.just(productDTO));
+        doReturn(true).when(productIdReplica).exists(inventory1.getProductId());
 
         doReturn(inventory1).when(inventoryRepository).save(any(Inventory.class));
 
@@ -83,17 +111,25 @@ class InventoryServiceTest {
 
     @Test
     void createInventory_WhenProductDoesNotExist_ShouldDoNothing() {
-        when(webClientBuilder.build()).thenReturn(webClient);
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString(), anyLong())).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(ProductDTO.class)).thenReturn(Mono.empty());
+        doReturn(false).when(productIdReplica).exists(inventory1.getProductId());
 
         inventoryService.createInventory(inventory1);
 
         verify(inventoryRepository, never()).save(any());
     }
 
+    @Test
+    void createInventories_ShouldInsertOnlyRowsWithKnownProducts() {
+        doReturn(Set.of(1L)).when(productIdReplica).findExisting(List.of(1L, 2L));
+        doAnswer(invocation -> invocation.getArgument(0)).when(inventoryRepository).insertAll(anyList());
+
+        List<Inventory> result = inventoryService.createInventories(List.of(inventory1, inventory2));
+
+        assertThat(result).containsExactly(inventory1);
+        verify(inventoryRepository, times(1)).insertAll(List.of(inventory1));
+        verify(productIdReplica, times(1)).findExisting(List.of(1L, 2L));
+    }
+
     @Test
     void getAllInventories_ShouldReturnAllInventories() {
         doReturn(inventoryList).when(inventoryRepository).findAll();
@@ -105,6 +141,29 @@ class InventoryServiceTest {
         verify(inventoryRepository, times(1)).findAll();
     }
 
+    @Test
+    void getInventoriesAfter_ShouldQueryNextPageByKey() {
+        List<Inventory> page = List.of(inventory1, inventory2);
+        doReturn(page).when(inventoryRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2));
+
+        List<Inventory> result = inventoryService.getInventoriesAfter(0L, 2);
+
+        assertThat(result).isEqualTo(page);
+        verify(inventoryRepository, times(1)).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2));
+    }
+
+    @Test
+    void streamAllInventories_ShouldPassEachRowAndDetachIt() {
+        List<Inventory> rows = List.of(inventory1, inventory2);
+        doReturn(rows.stream()).when(inventoryRepository).streamAll();
+        List<Inventory> received = new ArrayList<>();
+
+        inventoryService.streamAllInventories(received::add);
+
+        assertThat(received).isEqualTo(rows);
+        verify(entityManager, times(rows.size())).detach(any(Inventory.class));
+    }
+
     @Test
     void getInventoryById_WhenInventoryExists_ShouldReturnInventory() {
         when(inventoryRepository.findById(inventory1.getId())).thenReturn(Optional.of(inventory1));
@@ -163,6 +222,80 @@ class InventoryServiceTest {
         verify(inventoryRepository, times(1)).save(inventory);
     }
 
+    @Test
+    void updateInventory_ShouldWriteBothCacheKeys() {
+        doReturn(Optional.of(inventory1)).when(inventoryRepository).findByIdForUpdate(inventory1.getId());
+        doReturn(inventory1).when(inventoryRepository).save(inventory1);
+        doReturn(cache).when(cacheManager).getCache(InventoryService.INVENTORY_CACHE);
+        doReturn(productCache).when(cacheManager).getCache(InventoryService.INVENTORY_BY_PRODUCT_CACHE);
+
+        inventoryService.updateInventory(inventory1);
+
+        verify(cache, times(1)).put(inventory1.getId(), inventory1);
+        verify(productCache, times(1)).put(inventory1.getProductId(), inventory1);
+        verify(productCache, never()).evict(any());
+    }
+
+    @Test
+    void updateInventory_WhenProductChanged_ShouldEvictPreviousProductKey() {
+        Inventory previous = new Inventory();
+        previous.setId(1L);
+        previous.setProductId(9L);
+        doReturn(Optional.of(previous)).when(inventoryRepository).findByIdForUpdate(1L);
+        doReturn(inventory1).when(inventoryRepository).save(inventory1);
+        doReturn(cache).when(cacheManager).getCache(InventoryService.INVENTORY_CACHE);
+        doReturn(productCache).when(cacheManager).getCache(InventoryService.INVENTORY_BY_PRODUCT_CACHE);
+
+        inventoryService.updateInventory(inventory1);
+
+        verify(productCache, times(1)).evict(9L);
+        verify(availabilityIndexSync, times(1)).remove(9L);
+        verify(productCache, times(1)).put(inventory1.getProductId(), inventory1);
+    }
+
+    @Test
+    void updateInventory_ShouldBumpStockVersionOfLockedRowAndPublishIt() {
+        Inventory previous = new Inventory();
+        previous.setId(1L);
+        previous.setProductId(1L);
+        previous.setStockVersion(7L);
+        doReturn(Optional.of(previous)).when(inventoryRepository).findByIdForUpdate(1L);
+        doReturn(inventory1).when(inventoryRepository).save(inventory1);
+
+        inventoryService.updateInventory(inventory1);
+
+        assertThat(inventory1.getStockVersion()).isEqualTo(8L);
+        verify(inventoryRepository, never()).findById(anyLong());
+        verify(availabilityIndexSync, times(1)).put(inventory1.getProductId(), inventory1.getQuantity(),
+                inventory1.getInStock(), 8L);
+    }
+
+    @Test
+    void updateInventory_ShouldKeepReservedQuantityOfLockedRow() {
+        Inventory previous = new Inventory();
+        previous.setId(1L);
+        previous.setProductId(1L);
+        previous.setReservedQuantity(4);
+        inventory1.setReservedQuantity(null);
+        doReturn(Optional.of(previous)).when(inventoryRepository).findByIdForUpdate(1L);
+        doReturn(inventory1).when(inventoryRepository).save(inventory1);
+
+        inventoryService.updateInventory(inventory1);
+
+        assertThat(inventory1.getReservedQuantity()).isEqualTo(4);
+    }
+
+    @Test
+    void updateInventory_WhenRowIsNew_ShouldIgnoreClientReservedQuantity() {
+        inventory1.setReservedQuantity(7);
+        doReturn(Optional.empty()).when(inventoryRepository).findByIdForUpdate(1L);
+        doReturn(inventory1).when(inventoryRepository).save(inventory1);
+
+        inventoryService.updateInventory(inventory1);
+
+        assertThat(inventory1.getReservedQuantity()).isZero();
+    }
+
     @Test
     void deleteInventoryById_ShouldDeleteInventory() {
         inventoryService.deleteInventoryById(inventory1.getId());
@@ -170,25 +303,298 @@ class InventoryServiceTest {
         verify(inventoryRepository, times(1)).deleteById(inventory1.getId());
     }
 
+    @Test
+    void deleteInventoryById_ShouldRemoveProductFromAvailabilityIndex() {
+        doReturn(Optional.of(inventory1)).when(inventoryRepository).findById(inventory1.getId());
+
+        inventoryService.deleteInventoryById(inventory1.getId());
+
+        verify(availabilityIndexSync, times(1)).remove(inventory1.getProductId());
+    }
+
+    @Test
+    void deleteInventoryById_ShouldEvictBothCacheKeys() {
+        doReturn(Optional.of(inventory1)).when(inventoryRepository).findById(inventory1.getId());
+        doReturn(cache).when(cacheManager).getCache(InventoryService.INVENTORY_CACHE);
+        doReturn(productCache).when(cacheManager).getCache(InventoryService.INVENTORY_BY_PRODUCT_CACHE);
+
+        inventoryService.deleteInventoryById(inventory1.getId());
+
+        verify(cache, times(1)).evict(inventory1.getId());
+        verify(productCache, times(1)).evict(inventory1.getProductId());
+    }
+
+    @Test
+    void isInStock_WhenProductIsIndexed_ShouldAnswerWithoutQuerying() {
+        doReturn(true).when(availabilityIndex).findInStock(1L);
+
+        boolean result = inventoryService.isInStock(1L);
+
+        assertThat(result).isTrue();
+        verifyNoInteractions(inStockBatchLoader, inventoryRepository);
+    }
+
+    @Test
+    void isInStock_WhenProductIsHot_ShouldBypassAvailabilityIndex() {
+        doReturn(true).when(hotSkuInventory).isHot(1L);
+        doReturn(false).when(inStockBatchLoader).load(1L);
+
+        boolean result = inventoryService.isInStock(1L);
+
+        assertThat(result).isFalse();
+        verify(availabilityIndex, never()).findInStock(anyLong());
+    }
+
     @Test
     void isInStock_WhenProductInStock_ShouldReturnTrue() {
-        doReturn(Optional.of(inventory1)).when(inventoryRepository).findByProductId(productDTO.getId());
+        doReturn(true).when(inStockBatchLoader).load(productDTO.getId());
 
         boolean result = inventoryService.isInStock(productDTO.getId());
 
         assertThat(result).isTrue();
-        verify(inventoryRepository, times(1)).findByProductId(productDTO.getId());
+        verify(inStockBatchLoader, times(1)).load(productDTO.getId());
     }
 
     @Test
     void isInStock_WhenProductDoesNotInStock_ShouldReturnFalse() {
-        inventory1.setInStock(false);
-        inventory1.setQuantity(0);
-        doReturn(Optional.of(inventory1)).when(inventoryRepository).findByProductId(productDTO.getId());
+        doReturn(false).when(inStockBatchLoader).load(productDTO.getId());
 
         boolean result = inventoryService.isInStock(productDTO.getId());
 
         assertThat(result).isFalse();
-        verify(inventoryRepository, times(1)).findByProductId(productDTO.getId());
+        verify(inStockBatchLoader, times(1)).load(productDTO.getId());
+    }
+
+    @Test
+    void getStockByProductIds_ShouldQueryOnceAndMarkMissingProductsAsOutOfStock() {
+        inventory2.setInStock(false);
+        doReturn(inventoryList).when(inventoryRepository).findByProductIdIn(anyCollection());
+
+        Map<Long, Boolean> result = inventoryService.getStockByProductIds(List.of(1L, 2L, 3L));
+
+        assertThat(result).containsEntry(1L, true).containsEntry(2L, false).containsEntry(3L, false);
+        verify(inventoryRepository, times(1)).findByProductIdIn(anyCollection());
+        verify(inventoryRepository, never()).findByProductId(anyLong());
+    }
+
+    @Test
+    void getStockByProductIds_ShouldOnlyQueryProductsMissingFromAvailabilityIndex() {
+        doReturn(true).when(availabilityIndex).findInStock(1L);
+        doReturn(List.of(inventory2)).when(inventoryRepository).findByProductIdIn(Set.of(2L, 3L));
+
+        Map<Long, Boolean> result = inventoryService.getStockByProductIds(List.of(1L, 2L, 3L));
+
+        assertThat(result).containsEntry(1L, true).containsEntry(2L, true).containsEntry(3L, false);
+        verify(availabilityIndex, times(1)).put(inventory2.getProductId(), inventory2.getQuantity(),
+                inventory2.getInStock(), inventory2.getStockVersion());
+    }
+
+    @Test
+    void reserveStock_ShouldUpdateInProductOrderAndCacheResult() {
+        doReturn(1).when(inventoryRepository).reserveStock(anyLong(), anyInt());
+        doReturn(inventoryList).when(inventoryRepository).findByProductIdIn(anyCollection());
+        doReturn(cache).when(cacheManager).getCache("inventory");
+
+        List<Inventory> result = inventoryService.reserveStock(List.of(
+                new StockItemDTO(2L, 1), new StockItemDTO(1L, 2), new StockItemDTO(2L, 3)));
+
+        assertThat(result).isEqualTo(inventoryList);
+        InOrder inOrder = inOrder(inventoryRepository);
+        inOrder.verify(inventoryRepository).reserveStock(1L, 2);
+        inOrder.verify(inventoryRepository).reserveStock(2L, 4);
+        verify(cache, times(1)).put(1L, inventory1);
+        verify(cache, times(1)).put(2L, inventory2);
+        verify(outboxService, times(1)).record(InventoryService.INVENTORY_AGGREGATE, 1L,
+                InventoryService.STOCK_RESERVED, new StockItemDTO(1L, 2));
+        verify(outboxService, times(1)).record(InventoryService.INVENTORY_AGGREGATE, 2L,
+                InventoryService.STOCK_RESERVED, new StockItemDTO(2L, 4));
+    }
+
+    @Test
+    void reserveStock_WhenAnyItemIsShort_ShouldFailWithoutCaching() {
+        doReturn(1).when(inventoryRepository).reserveStock(1L, 1);
+        doReturn(0).when(inventoryRepository).reserveStock(2L, 5);
+
+        assertThatThrownBy(() -> inventoryService.reserveStock(List.of(
+                new StockItemDTO(1L, 1), new StockItemDTO(2L, 5))))
+                .isInstanceOf(InsufficientStockException.class);
+
+        verify(inventoryRepository, never()).findByProductIdIn(anyCollection());
+        verify(cacheManager, never()).getCache(anyString());
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void reserveStock_WhenQuantityIsNotPositive_ShouldRejectRequest() {
+        assertThatThrownBy(() -> inventoryService.reserveStock(List.of(new StockItemDTO(1L, 0))))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verify(inventoryRepository, never()).reserveStock(anyLong(), anyInt());
+    }
+
+    @Test
+    void releaseStock_ShouldReturnReservedUnits() {
+        doReturn(1).when(inventoryRepository).releaseStock(1L, 2);
+        doReturn(List.of(inventory1)).when(inventoryRepository).findByProductIdIn(anyCollection());
+        doReturn(cache).when(cacheManager).getCache("inventory");
+
+        List<Inventory> result = inventoryService.releaseStock(List.of(new StockItemDTO(1L, 2)));
+
+        assertThat(result).containsExactly(inventory1);
+        verify(inventoryRepository, times(1)).releaseStock(1L, 2);
+        verify(cache, times(1)).put(1L, inventory1);
+        verify(outboxService, times(1)).record(InventoryService.INVENTORY_AGGREGATE, 1L,
+                InventoryService.STOCK_RELEASED, new StockItemDTO(1L, 2));
+    }
+
+    @Test
+    void commitStock_WhenNothingReserved_ShouldFail() {
+        doReturn(0).when(inventoryRepository).commitStock(1L, 2);
+
+        assertThatThrownBy(() -> inventoryService.commitStock(List.of(new StockItemDTO(1L, 2))))
+                .isInstanceOf(InsufficientStockException.class);
+    }
+
+    @Test
+    void reserveStock_WhenProductIsHot_ShouldUseCounterInsteadOfRowUpdate() {
+        doReturn(true).when(hotSkuInventory).isHot(1L);
+        doReturn(true).when(hotSkuInventory).tryReserve(1L, 2);
+        doReturn(List.of(inventory1)).when(inventoryRepository).findByProductIdIn(anyCollection());
+
+        List<Inventory> result = inventoryService.reserveStock(List.of(new StockItemDTO(1L, 2)));
+
+        assertThat(result).containsExactly(inventory1);
+        verify(inventoryRepository, never()).reserveStock(anyLong(), anyInt());
+        verify(cacheManager, never()).getCache(anyString());
+    }
+
+    @Test
+    void reserveStock_WhenRowUpdateFailsAfterHotReservation_ShouldCancelHotReservation() {
+        doReturn(true).when(hotSkuInventory).isHot(1L);
+        doReturn(true).when(hotSkuInventory).tryReserve(1L, 2);
+        doReturn(0).when(inventoryRepository).reserveStock(2L, 1);
+
+        assertThatThrownBy(() -> inventoryService.reserveStock(List.of(
+                new StockItemDTO(1L, 2), new StockItemDTO(2L, 1))))
+                .isInstanceOf(InsufficientStockException.class);
+
+        verify(hotSkuInventory, times(1)).cancel(1L, 2);
+    }
+
+    @Test
+    void commitStock_WhenProductIsHot_ShouldFlushCounterFirst() {
+        doReturn(true).when(hotSkuInventory).isHot(1L);
+        doReturn(1).when(inventoryRepository).commitStock(1L, 2);
+        doReturn(List.of(inventory1)).when(inventoryRepository).findByProductIdIn(anyCollection());
+
+        inventoryService.commitStock(List.of(new StockItemDTO(1L, 2)));
+
+        InOrder inOrder = inOrder(hotSkuInventory, inventoryRepository);
+        inOrder.verify(hotSkuInventory).flush(List.of(1L));
+        inOrder.verify(inventoryRepository).commitStock(1L, 2);
+    }
+
+    @Test
+    void reserveStockForOrder_ShouldReserveItemsAndRecordReservation() {
+        doReturn(Optional.empty()).when(stockReservationRepository).findForUpdate(10L);
+        doReturn(1).when(inventoryRepository).reserveStock(1L, 2);
+        doReturn(List.of(inventory1)).when(inventoryRepository).findByProductIdIn(anyCollection());
+
+        inventoryService.reserveStock(10L, List.of(new StockItemDTO(1L, 2)));
+
+        verify(inventoryRepository, times(1)).reserveStock(1L, 2);
+        verify(stockReservationRepository, times(1)).save(argThat(reservation -> reservation.getOrderId() == 10L
+                && InventoryService.RESERVED_STATUS.equals(reservation.getStatus())
+                && reservation.getItems().equals(List.of(new StockReservationItem(1L, 2)))));
+    }
+
+    @Test
+    void reserveStockForOrder_WhenOrderAlreadyReserved_ShouldNotReserveAgain() {
+        doReturn(Optional.of(reservation(InventoryService.RESERVED_STATUS))).when(stockReservationRepository)
+                .findForUpdate(10L);
+        doReturn(List.of(inventory1)).when(inventoryRepository).findByProductIdIn(anyCollection());
+
+        List<Inventory> result = inventoryService.reserveStock(10L, List.of(new StockItemDTO(1L, 2)));
+
+        assertThat(result).containsExactly(inventory1);
+        verify(inventoryRepository, never()).reserveStock(anyLong(), anyInt());
+        verify(stockReservationRepository, never()).save(any());
+    }
+
+    @Test
+    void reserveStockForOrder_WhenOrderWasReleased_ShouldFail() {
+        doReturn(Optional.of(reservation(InventoryService.RELEASED_STATUS))).when(stockReservationRepository)
+                .findForUpdate(10L);
+
+        assertThatThrownBy(() -> inventoryService.reserveStock(10L, List.of(new StockItemDTO(1L, 2))))
+                .isInstanceOf(InsufficientStockException.class);
+
+        verify(inventoryRepository, never()).reserveStock(anyLong(), anyInt());
+    }
+
+    @Test
+    void releaseReservation_WhenOrderReservedNothing_ShouldRecordReleaseWithoutTouchingStock() {
+        doReturn(Optional.empty()).when(stockReservationRepository).findForUpdate(10L);
+
+        List<Inventory> result = inventoryService.releaseReservation(10L);
+
+        assertThat(result).isEmpty();
+        verify(inventoryRepository, never()).releaseStock(anyLong(), anyInt());
+        verify(stockReservationRepository, times(1)).save(argThat(reservation -> reservation.getOrderId() == 10L
+                && InventoryService.RELEASED_STATUS.equals(reservation.getStatus())
+                && reservation.getItems().isEmpty()));
+    }
+
+    @Test
+    void releaseReservation_ShouldReleaseOnlyTheOrdersReservedItems() {
+        doReturn(Optional.of(reservation(InventoryService.RESERVED_STATUS))).when(stockReservationRepository)
+                .findForUpdate(10L);
+        doReturn(1).when(inventoryRepository).releaseStock(1L, 2);
+        doReturn(List.of(inventory1)).when(inventoryRepository).findByProductIdIn(anyCollection());
+
+        inventoryService.releaseReservation(10L);
+
+        verify(inventoryRepository, times(1)).releaseStock(1L, 2);
+        verify(stockReservationRepository, times(1)).updateStatus(eq(10L), eq(InventoryService.RELEASED_STATUS),
+                any(Instant.class));
+    }
+
+    @Test
+    void releaseReservation_WhenAlreadyReleased_ShouldNotReleaseAgain() {
+        doReturn(Optional.of(reservation(InventoryService.RELEASED_STATUS))).when(stockReservationRepository)
+                .findForUpdate(10L);
+        doReturn(List.of(inventory1)).when(inventoryRepository).findByProductIdIn(anyCollection());
+
+        inventoryService.releaseReservation(10L);
+
+        verify(inventoryRepository, never()).releaseStock(anyLong(), anyInt());
+        verify(stockReservationRepository, never()).updateStatus(anyLong(), anyString(), any());
+    }
+
+    @Test
+    void commitReservation_WhenAlreadyCommitted_ShouldNotConsumeAgain() {
+        doReturn(Optional.of(reservation(InventoryService.COMMITTED_STATUS))).when(stockReservationRepository)
+                .findForUpdate(10L);
+        doReturn(List.of(inventory1)).when(inventoryRepository).findByProductIdIn(anyCollection());
+
+        inventoryService.commitReservation(10L);
+
+        verify(inventoryRepository, never()).commitStock(anyLong(), anyInt());
+        verify(stockReservationRepository, never()).updateStatus(anyLong(), anyString(), any());
+    }
+
+    @Test
+    void commitReservation_WhenOrderReservedNothing_ShouldFail() {
+        doReturn(Optional.empty()).when(stockReservationRepository).findForUpdate(10L);
+
+        assertThatThrownBy(() -> inventoryService.commitReservation(10L))
+                .isInstanceOf(InsufficientStockException.class);
+
+        verify(inventoryRepository, never()).commitStock(anyLong(), anyInt());
+    }
+
+    private StockReservation reservation(String status) {
+        return new StockReservation(10L, status, new ArrayList<>(List.of(new StockReservationItem(1L, 2))),
+                Instant.now(), Instant.now());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,152 @@
+package com.example.inventoryservice.service;
+
+import com.example.inventoryservice.cache.ProductIdSet;
+import com.example.inventoryservice.client.ProductClient;
+import com.example.inventoryservice.dto.ProductDTO;
+import com.example.inventoryservice.outbox.ProductEventConsumer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductIdReplicaTest {
+    @Mock
+    private ProductClient productClient;
+    @Mock
+    private ProductEventConsumer productEventConsumer;
+
+    private ProductIdSet productIdSet;
+    private SimpleMeterRegistry meterRegistry;
+    private ProductIdReplica productIdReplica;
+
+    @BeforeEach
+    void setUp() {
+        productIdSet = new ProductIdSet();
+        meterRegistry = new SimpleMeterRegistry();
+        productIdReplica = new ProductIdReplica(productIdSet, productClient, productEventConsumer, meterRegistry);
+        ReflectionTestUtils.setField(productIdReplica, "productLookupConcurrency", 4);
+    }
+
+    @Test
+    void seedIfNeeded_ShouldLoadExportThenReplayEventsSinceExportStarted() {
+        doReturn("5-0").when(productEventConsumer).latestRecordId();
+        doReturn(Flux.just(1L, 2L)).when(productClient).streamProductIds();
+
+        productIdReplica.seedIfNeeded();
+
+        InOrder inOrder = inOrder(productEventConsumer, productClient);
+        inOrder.verify(productEventConsumer).latestRecordId();
+        inOrder.verify(productClient).streamProductIds();
+        inOrder.verify(productEventConsumer).replayAfter("5-0");
+        assertThat(productIdSet.isReady()).isTrue();
+        assertThat(productIdSet.contains(1L)).isTrue();
+        assertThat(productIdSet.contains(2L)).isTrue();
+    }
+
+    @Test
+    void seedIfNeeded_WhenExportFails_ShouldStayNotReady() {
+        doReturn("0-0").when(productEventConsumer).latestRecordId();
+        doReturn(Flux.error(new IllegalStateException("unavailable"))).when(productClient).streamProductIds();
+
+        productIdReplica.seedIfNeeded();
+
+        assertThat(productIdSet.isReady()).isFalse();
+        verify(productEventConsumer, never()).replayAfter(anyString());
+    }
+
+    @Test
+    void seedIfNeeded_WhenAlreadyReady_ShouldNotCallProductService() {
+        productIdSet.markReady();
+
+        productIdReplica.seedIfNeeded();
+
+        verifyNoInteractions(productClient, productEventConsumer);
+    }
+
+    @Test
+    void exists_WhenIdIsReplicated_ShouldNotCallProductService() {
+        productIdSet.add(1L);
+        productIdSet.markReady();
+
+        assertThat(productIdReplica.exists(1L)).isTrue();
+
+        verifyNoInteractions(productClient);
+        assertThat(meterRegistry.get("product.id.lookups").tag("source", "local").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void exists_WhenIdIsUnknown_ShouldFallBackToProductServiceAndRememberIt() {
+        productIdSet.markReady();
+        doReturn(Mono.just(product(1L))).when(productClient).getProductById(1L);
+
+        assertThat(productIdReplica.exists(1L)).isTrue();
+        assertThat(productIdReplica.exists(1L)).isTrue();
+
+        verify(productClient, times(1)).getProductById(1L);
+        assertThat(meterRegistry.get("product.id.lookups").tag("source", "remote").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void exists_WhenProductServiceHasNoProduct_ShouldReturnFalse() {
+        doReturn(Mono.empty()).when(productClient).getProductById(1L);
+
+        assertThat(productIdReplica.exists(1L)).isFalse();
+        assertThat(productIdSet.contains(1L)).isFalse();
+    }
+
+    @Test
+    void findExisting_ShouldLookUpOnlyUnknownIdsRemotely() {
+        productIdSet.add(1L);
+        productIdSet.markReady();
+        doReturn(Mono.just(product(2L))).when(productClient).getProductById(2L);
+        doReturn(Mono.empty()).when(productClient).getProductById(3L);
+
+        assertThat(productIdReplica.findExisting(List.of(1L, 2L, 3L, 1L))).containsExactlyInAnyOrder(1L, 2L);
+
+        verify(productClient, never()).getProductById(1L);
+        assertThat(productIdSet.contains(2L)).isTrue();
+    }
+
+    @Test
+    void exists_WhenSubscriptionMarkedSetStale_ShouldAskProductService() {
+        productIdSet.add(1L);
+        productIdSet.markReady();
+        productIdSet.markStale();
+        doReturn(Mono.empty()).when(productClient).getProductById(1L);
+
+        assertThat(productIdReplica.exists(1L)).isFalse();
+
+        verify(productClient, times(1)).getProductById(1L);
+    }
+
+    @Test
+    void seedIfNeeded_AfterSetWentStale_ShouldDropIdsMissingFromNewExport() {
+        productIdSet.add(9L);
+        doReturn("7-0").when(productEventConsumer).latestRecordId();
+        doReturn(Flux.just(1L)).when(productClient).streamProductIds();
+
+        productIdReplica.seedIfNeeded();
+
+        assertThat(productIdSet.isReady()).isTrue();
+        assertThat(productIdSet.contains(1L)).isTrue();
+        assertThat(productIdSet.contains(9L)).isFalse();
+    }
+
+    private ProductDTO product(Long id) {
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setId(id);
+        return productDTO;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.orderservice.cache;
+
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.entity.OrderLine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class OrderCodec implements EntityCodec<Order> {
+    public static final int TAG = 6;
+
+    @Override
+    public int tag() {
+        return TAG;
+    }
+
+    @Override
+    public Class<Order> type() {
+        return Order.class;
+    }
+
+    @Override
+    public void write(BinaryWriter out, Order order) {
+        out.writeNullableLong(order.getId());
+        out.writeNullableLong(order.getUserId());
+        List<Long> productIds = order.getProductIds();
+        out.writeVarLong(productIds == null ? -1 : productIds.size());
+        if (productIds != null) {
+            for (Long item : productIds) {
+                out.writeVarLong(item);
+            }
+        }
+        out.writeNullableDouble(order.getTotalPrice());
+        out.writeString(order.getStatus());
+        List<OrderLine> lines = order.getLines();
+        out.writeVarLong(lines == null ? -1 : lines.size());
+        if (lines != null) {
+            for (OrderLine line : lines) {
+                out.writeNullableLong(line.getProductId());
+                out.writeNullableInt(line.getQuantity());
+                out.writeNullableDouble(line.getUnitPrice());
+            }
+        }
+    }
+
+    @Override
+    public Order read(BinaryReader in) {
+        Order order = new Order();
+        order.setId(in.readNullableLong());
+        order.setUserId(in.readNullableLong());
+        int productIdsSize = (int) in.readVarLong();
+        if (productIdsSize >= 0) {
+            List<Long> productIds = new ArrayList<>(productIdsSize);
+            for (int i = 0; i < productIdsSize; i++) {
+                productIds.add(in.readVarLong());
+            }
+            order.setProductIds(productIds);
+        }
+        order.setTotalPrice(in.readNullableDouble());
+        order.setStatus(in.readString());
+        int linesSize = (int) in.readVarLong();
+        if (linesSize >= 0) {
+            List<OrderLine> lines = new ArrayList<>(linesSize);
+            for (int i = 0; i < linesSize; i++) {
+                lines.add(new OrderLine(in.readNullableLong(), in.readNullableInt(), in.readNullableDouble()));
+            }
+            order.setLines(lines);
+        }
+        return order;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.orderservice.client;
+
+import com.example.orderservice.dto.StockItemDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class InventoryClient {
+    private final WebClient webClient;
+
+    @Autowired
+    public InventoryClient(@Qualifier("inventoryServiceWebClient") WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    public Mono<Map<Long, Boolean>> getStockByProductIds(List<Long> productIds) {
+        return webClient.post()
+                .uri("/in-stock")
+                .bodyValue(productIds)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Map<Long, Boolean>>() {});
+    }
+
+    public Mono<Void> reserveStock(Long orderId, List<StockItemDTO> items) {
+        return webClient.post()
+                .uri("/reservations/{orderId}", orderId)
+                .bodyValue(items)
+                .retrieve()
+                .bodyToMono(Void.class);
+    }
+
+    public Mono<Void> releaseStock(Long orderId) {
+        return changeReservation("/reservations/{orderId}/release", orderId);
+    }
+
+    public Mono<Void> commitStock(Long orderId) {
+        return changeReservation("/reservations/{orderId}/commit", orderId);
+    }
+
+    private Mono<Void> changeReservation(String uri, Long orderId) {
+        return webClient.post()
+                .uri(uri, orderId)
+                .retrieve()
+                .bodyToMono(Void.class);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.orderservice.client;
+
+import com.example.orderservice.dto.PaymentDTO;
+import com.example.orderservice.idempotency.IdempotencyStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Component
+public class PaymentClient {
+    private final WebClient webClient;
+    private final String clientId;
+
+    @Autowired
+    public PaymentClient(@Qualifier("paymentServiceWebClient") WebClient webClient,
+                         @Value("${spring.application.name}") String clientId) {
+        this.webClient = webClient;
+        this.clientId = clientId;
+    }
+
+    public Mono<PaymentDTO> createPayment(PaymentDTO payment, String idempotencyKey) {
+        return webClient.post()
+                .header(IdempotencyStore.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                .header(IdempotencyStore.CLIENT_ID_HEADER, clientId)
+                .bodyValue(payment)
+                .retrieve()
+                .bodyToMono(PaymentDTO.class);
+    }
+
+    public Mono<List<PaymentDTO>> getPaymentsByOrderId(Long orderId) {
+        return webClient.get()
+                .uri("/order/{orderId}", orderId)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<List<PaymentDTO>>() {});
+    }
+
+    public Mono<List<PaymentDTO>> refundPaymentsByOrderId(Long orderId) {
+        return webClient.post()
+                .uri("/order/{orderId}/refund", orderId)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<List<PaymentDTO>>() {});
+    }
+}
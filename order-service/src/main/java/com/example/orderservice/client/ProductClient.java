@@ -0,0 +1,29 @@
+package com.example.orderservice.client;
+
+import com.example.orderservice.dto.ProductDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Component
+public class ProductClient {
+    private final WebClient webClient;
+
+    @Autowired
+    public ProductClient(@Qualifier("productServiceWebClient") WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    public Mono<List<ProductDTO>> getProductsByIds(List<Long> ids) {
+        return webClient.post()
+                .uri("/by-ids")
+                .bodyValue(ids)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<List<ProductDTO>>() {});
+    }
+}
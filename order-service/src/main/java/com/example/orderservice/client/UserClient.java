@@ -0,0 +1,25 @@
+package com.example.orderservice.client;
+
+import com.example.orderservice.dto.UserDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+@Component
+public class UserClient {
+    private final WebClient webClient;
+
+    @Autowired
+    public UserClient(@Qualifier("userServiceWebClient") WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    public Mono<UserDTO> getUserById(Long id) {
+        return webClient.get()
+                .uri("/{id}", id)
+                .retrieve()
+                .bodyToMono(UserDTO.class);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.orderservice.config;
+
+import com.example.orderservice.cache.IdBloomFilter;
+import com.example.orderservice.cache.RecentIdLog;
+import com.example.orderservice.repository.OrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.stream.Stream;
+
+@Configuration
+public class BloomFilterConfig {
+    @Value("${bloom-filter.expected-insertions:1000000}")
+    private long expectedInsertions;
+    @Value("${bloom-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+    @Value("${bloom-filter.reload-interval:10m}")
+    private Duration reloadInterval;
+    @Value("${bloom-filter.recent-id-retention:1h}")
+    private Duration recentIdRetention;
+
+    @Bean
+    public RecentIdLog orderIdLog(StringRedisTemplate redisTemplate) {
+        if (recentIdRetention.compareTo(reloadInterval.multipliedBy(2)) < 0) {
+            throw new IllegalArgumentException("bloom-filter.recent-id-retention must be at least twice the reload interval");
+        }
+        return new RecentIdLog(redisTemplate, "orders", recentIdRetention);
+    }
+
+    @Bean
+    public IdBloomFilter orderIdFilter(RecentIdLog orderIdLog, MeterRegistry meterRegistry) {
+        IdBloomFilter filter = new IdBloomFilter("orders", expectedInsertions, falsePositiveRate);
+        filter.share(orderIdLog::record, orderIdLog::findAll);
+        filter.registerMetrics(meterRegistry);
+        return filter;
+    }
+
+    @Bean
+    public ApplicationRunner orderIdFilterLoader(IdBloomFilter orderIdFilter, OrderRepository orderRepository,
+            TransactionTemplate transactionTemplate) {
+        return args -> load(orderIdFilter, orderRepository, transactionTemplate);
+    }
+
+    @Bean
+    public SchedulingConfigurer orderIdFilterReloader(IdBloomFilter orderIdFilter, RecentIdLog orderIdLog,
+            OrderRepository orderRepository, TransactionTemplate transactionTemplate) {
+        return registrar -> registrar.addFixedDelayTask(new FixedDelayTask(() -> {
+            try {
+                load(orderIdFilter, orderRepository, transactionTemplate);
+                orderIdLog.trim();
+            } catch (RuntimeException e) {
+                System.err.println("Could not reload order id filter: " + e.getMessage());
+            }
+        }, reloadInterval, reloadInterval));
+    }
+
+    private static void load(IdBloomFilter filter, OrderRepository orderRepository,
+            TransactionTemplate transactionTemplate) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Long> ids = orderRepository.streamAllIds()) {
+                filter.load(ids);
+            }
+        });
+    }
+}
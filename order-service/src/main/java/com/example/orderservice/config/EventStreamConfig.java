@@ -0,0 +1,38 @@
+package com.example.orderservice.config;
+
+import com.example.orderservice.outbox.PaymentEventConsumer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamMessageListenerContainerOptions;
+
+import java.time.Duration;
+
+@Configuration
+public class EventStreamConfig {
+    @Value("${outbox.consumer.poll-timeout:1s}")
+    private Duration pollTimeout;
+    @Value("${outbox.consumer.batch-size:100}")
+    private int batchSize;
+
+    @Bean(destroyMethod = "stop")
+    public StreamMessageListenerContainer<String, MapRecord<String, String, String>> paymentEventListenerContainer(
+            RedisConnectionFactory connectionFactory, PaymentEventConsumer paymentEventConsumer) {
+        StreamMessageListenerContainer<String, MapRecord<String, String, String>> container =
+                StreamMessageListenerContainer.create(connectionFactory, StreamMessageListenerContainerOptions.builder()
+                        .pollTimeout(pollTimeout)
+                        .batchSize(batchSize)
+                        .build());
+        paymentEventConsumer.createGroupIfMissing();
+        paymentEventConsumer.recoverPending();
+        container.receive(paymentEventConsumer.getConsumer(),
+                StreamOffset.create(paymentEventConsumer.getStream(), ReadOffset.lastConsumed()), paymentEventConsumer);
+        container.start();
+        return container;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.orderservice.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class IdSequenceConfig {
+
+    @Bean
+    public SmartInitializingSingleton orderIdSequenceAligner(JdbcTemplate jdbcTemplate) {
+        return () -> jdbcTemplate.execute("select setval('orders_seq', (select max(id) from orders)) " +
+                "where (select max(id) from orders) > (select last_value from orders_seq)");
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.orderservice.config;
+
+import com.example.orderservice.notification.OrderStatusSubscriptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class OrderEventsConfig {
+    @Value("${order-events.channel:order-status}")
+    private String channel;
+
+    @Bean
+    public RedisMessageListenerContainer orderStatusListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                      OrderStatusSubscriptions subscriptions) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(subscriptions, new ChannelTopic(channel));
+        return container;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.orderservice.config;
+
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class OrderIndexConfig {
+
+    @Bean
+    public ApplicationRunner orderProductIdsIndexCreator(JdbcTemplate jdbcTemplate) {
+        return args -> jdbcTemplate.execute(
+                "create index if not exists idx_orders_product_ids on orders using gin (product_ids)");
+    }
+}
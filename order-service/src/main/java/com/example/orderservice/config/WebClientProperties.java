@@ -0,0 +1,27 @@
+package com.example.orderservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "web-client")
+public class WebClientProperties {
+    private Client userService = new Client();
+    private Client productService = new Client();
+    private Client inventoryService = new Client();
+    private Client paymentService = new Client();
+
+    @Data
+    public static class Client {
+        private int maxConnections = 100;
+        private int pendingAcquireMaxCount = 1000;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration readTimeout = Duration.ofSeconds(5);
+        private boolean keepAlive = true;
+        private boolean http2 = false;
+    }
+}
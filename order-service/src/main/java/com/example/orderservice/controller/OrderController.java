@@ -1,11 +1,26 @@
 package com.example.orderservice.controller;
 
+import com.example.orderservice.dto.OrderDetailsDTO;
+import com.example.orderservice.dto.OrderStatusDTO;
 import com.example.orderservice.entity.Order;
+import com.example.orderservice.idempotency.IdempotencyConflictException;
+import com.example.orderservice.idempotency.IdempotencyMismatchException;
+import com.example.orderservice.idempotency.IdempotencyStore;
+import com.example.orderservice.notification.OrderStatusSubscriptions;
+import com.example.orderservice.saga.OrderSagaOrchestrator;
+import com.example.orderservice.service.OrderDetailsService;
 import com.example.orderservice.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.util.List;
 
@@ -13,15 +28,62 @@ import java.util.List;
 @RequestMapping("/api/orders")
 public class OrderController {
     private final OrderService orderService;
+    private final OrderDetailsService orderDetailsService;
+    private final OrderSagaOrchestrator orderSagaOrchestrator;
+    private final OrderStatusSubscriptions orderStatusSubscriptions;
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+    @Value("${pagination.default-limit:100}")
+    private int defaultPageLimit;
+    @Value("${pagination.max-limit:1000}")
+    private int maxPageLimit;
+    @Value("${order-history.first-page-size:20}")
+    private int firstPageSize;
 
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderDetailsService orderDetailsService,
+                           OrderSagaOrchestrator orderSagaOrchestrator,
+                           OrderStatusSubscriptions orderStatusSubscriptions, IdempotencyStore idempotencyStore,
+                           ObjectMapper objectMapper) {
         this.orderService = orderService;
+        this.orderDetailsService = orderDetailsService;
+        this.orderSagaOrchestrator = orderSagaOrchestrator;
+        this.orderStatusSubscriptions = orderStatusSubscriptions;
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    public List<Order> getAllOrders() {
-        return orderService.getAllOrders();
+    public List<Order> getAllOrders(@RequestParam(required = false) Long after,
+                                    @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return orderService.getAllOrders();
+        }
+        long pageAfter = after == null ? 0 : after;
+        int pageLimit = limit == null ? defaultPageLimit : limit;
+        return orderService.getOrdersAfter(pageAfter, Math.max(1, Math.min(pageLimit, maxPageLimit)));
+    }
+
+    @GetMapping("/user/{userId}")
+    public List<Order> getUserOrders(@PathVariable Long userId, @RequestParam(defaultValue = "0") long after,
+                                     @RequestParam(defaultValue = "20") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageLimit));
+        if (after <= 0 && pageSize <= firstPageSize) {
+            List<Order> firstPage = orderService.getFirstUserOrdersPage(userId);
+            return firstPage.subList(0, Math.min(pageSize, firstPage.size()));
+        }
+        return orderService.getUserOrdersBefore(userId, after <= 0 ? Long.MAX_VALUE : after, pageSize);
+    }
+
+    @GetMapping("/by-product/{productId}")
+    public List<Order> getOrdersByProductId(@PathVariable long productId, @RequestParam(defaultValue = "0") long after,
+                                            @RequestParam(defaultValue = "100") int limit) {
+        return orderService.getOrdersByProductId(productId, after, Math.max(1, Math.min(limit, maxPageLimit)));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllOrders() {
+        return NdjsonResponses.stream(objectMapper, orderService::streamAllOrders);
     }
 
     @GetMapping("/{id}")
@@ -30,10 +92,56 @@ public class OrderController {
         return new ResponseEntity<>(order, HttpStatus.OK);
     }
 
+    @GetMapping("/{id}/details")
+    public ResponseEntity<OrderDetailsDTO> getOrderDetails(@PathVariable Long id) {
+        OrderDetailsDTO orderDetails = orderDetailsService.getOrderDetails(id);
+        if (orderDetails == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(orderDetails, HttpStatus.OK);
+    }
+
+    @GetMapping("/{id}/status")
+    public ResponseEntity<OrderStatusDTO> getOrderStatus(@PathVariable Long id) {
+        OrderStatusDTO orderStatus = orderSagaOrchestrator.getStatus(id);
+        if (orderStatus == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(orderStatus, HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamOrderEvents(@PathVariable Long id) {
+        Order order = orderService.getOrderById(id);
+        if (order == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(orderStatusSubscriptions.subscribeToOrder(order), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/user/{userId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamUserOrderEvents(@PathVariable Long userId) {
+        return new ResponseEntity<>(orderStatusSubscriptions.subscribeToUser(userId), HttpStatus.OK);
+    }
+
     @PostMapping
-    public ResponseEntity<Order> createOrder(@RequestBody Order order) {
-        orderService.createOrder(order);
-        return new ResponseEntity<>(order, HttpStatus.CREATED);
+    public ResponseEntity<Order> createOrder(@RequestBody Order order,
+            @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = IdempotencyStore.CLIENT_ID_HEADER, required = false) String clientId) {
+        if (idempotencyKey == null) {
+            return startOrder(order);
+        }
+        return idempotencyStore.execute(clientId, idempotencyKey, order, Order.class, () -> startOrder(order));
+    }
+
+    private ResponseEntity<Order> startOrder(Order order) {
+        orderSagaOrchestrator.start(order);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setLocation(ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}/status")
+                .buildAndExpand(order.getId())
+                .toUri());
+        return new ResponseEntity<>(order, headers, HttpStatus.ACCEPTED);
     }
 
     @PatchMapping("/{id}/status")
@@ -47,4 +155,19 @@ public class OrderController {
         orderService.deleteOrderById(id);
         return new ResponseEntity<>(HttpStatus.OK);
     }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleInvalidRequest(IllegalArgumentException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<String> handleIdempotencyConflict(IdempotencyConflictException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(IdempotencyMismatchException.class)
+    public ResponseEntity<String> handleIdempotencyMismatch(IdempotencyMismatchException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
+    }
 }
@@ -0,0 +1,21 @@
+package com.example.orderservice.dto;
+
+import com.example.orderservice.entity.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderDetailsDTO {
+    private Order order;
+    private UserDTO user;
+    private List<ProductDTO> products;
+    private Map<Long, Boolean> stock;
+    private List<PaymentDTO> payments;
+    private List<String> unavailable;
+}
@@ -0,0 +1,15 @@
+package com.example.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderStatusDTO {
+    private Long orderId;
+    private String status;
+    private String sagaStep;
+    private String failureReason;
+}
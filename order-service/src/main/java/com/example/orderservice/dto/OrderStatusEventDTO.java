@@ -0,0 +1,17 @@
+package com.example.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderStatusEventDTO {
+    private Long orderId;
+    private Long userId;
+    private String status;
+    private Instant timestamp;
+}
@@ -0,0 +1,14 @@
+package com.example.orderservice.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class PaymentDTO {
+    private Long id;
+    private Long orderId;
+    private Double amount;
+    private String status;
+    private LocalDateTime paymentDate;
+}
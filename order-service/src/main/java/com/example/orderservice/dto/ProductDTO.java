@@ -0,0 +1,12 @@
+package com.example.orderservice.dto;
+
+import lombok.Data;
+
+@Data
+public class ProductDTO {
+    private Long id;
+    private String name;
+    private String description;
+    private Double price;
+    private String category;
+}
@@ -0,0 +1,18 @@
+package com.example.orderservice.entity;
+
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Embeddable
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderLine implements Serializable {
+    private Long productId;
+    private Integer quantity;
+    private Double unitPrice;
+}
@@ -0,0 +1,7 @@
+package com.example.orderservice.idempotency;
+
+public class IdempotencyConflictException extends RuntimeException {
+    public IdempotencyConflictException(String idempotencyKey) {
+        super("Request with Idempotency-Key " + idempotencyKey + " is still in progress");
+    }
+}
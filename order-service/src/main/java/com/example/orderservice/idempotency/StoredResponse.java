@@ -0,0 +1,18 @@
+package com.example.orderservice.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StoredResponse {
+    private int status;
+    private Map<String, List<String>> headers;
+    private String body;
+    private String fingerprint;
+}
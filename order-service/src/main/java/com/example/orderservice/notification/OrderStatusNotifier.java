@@ -0,0 +1,51 @@
+package com.example.orderservice.notification;
+
+import com.example.orderservice.dto.OrderStatusEventDTO;
+import com.example.orderservice.entity.Order;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+
+@Component
+public class OrderStatusNotifier {
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    @Value("${order-events.channel:order-status}")
+    private String channel;
+
+    @Autowired
+    public OrderStatusNotifier(StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public void notifyAfterCommit(Order order) {
+        OrderStatusEventDTO event = new OrderStatusEventDTO(order.getId(), order.getUserId(), order.getStatus(),
+                Instant.now());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(event);
+                }
+            });
+        } else {
+            publish(event);
+        }
+    }
+
+    private void publish(OrderStatusEventDTO event) {
+        try {
+            redisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException | RuntimeException e) {
+            System.err.println("Failed to publish status of order " + event.getOrderId() + ": " + e.getMessage());
+        }
+    }
+}
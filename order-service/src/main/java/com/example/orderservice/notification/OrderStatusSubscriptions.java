@@ -0,0 +1,212 @@
+package com.example.orderservice.notification;
+
+import com.example.orderservice.dto.OrderStatusEventDTO;
+import com.example.orderservice.entity.Order;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class OrderStatusSubscriptions implements MessageListener {
+    public static final String STATUS_EVENT = "status";
+
+    private final Map<Long, Set<SseEmitter>> orderSubscribers = new ConcurrentHashMap<>();
+    private final Map<Long, Set<SseEmitter>> userSubscribers = new ConcurrentHashMap<>();
+    private final Map<SseEmitter, PendingWrite> writesInProgress = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final ObjectMapper objectMapper;
+    private final List<Executor> sendLanes;
+    @Value("${order-events.emitter-timeout:30m}")
+    private Duration emitterTimeout;
+    @Value("${order-events.write-deadline:5s}")
+    private Duration writeDeadline;
+
+    @Autowired
+    public OrderStatusSubscriptions(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                    @Value("${order-events.send-threads:4}") int sendThreads,
+                                    @Value("${order-events.send-queue-capacity:10000}") int sendQueueCapacity) {
+        this(objectMapper, meterRegistry, sendLanes(sendThreads, sendQueueCapacity));
+    }
+
+    OrderStatusSubscriptions(ObjectMapper objectMapper, MeterRegistry meterRegistry, List<Executor> sendLanes) {
+        this.objectMapper = objectMapper;
+        this.sendLanes = sendLanes;
+        Gauge.builder("order.events.connections", connections, AtomicInteger::get).register(meterRegistry);
+    }
+
+    public SseEmitter subscribeToOrder(Order order) {
+        SseEmitter emitter = subscribe(orderSubscribers, order.getId());
+        OrderStatusEventDTO current = new OrderStatusEventDTO(order.getId(), order.getUserId(), order.getStatus(),
+                Instant.now());
+        try {
+            send(orderSubscribers, order.getId(), emitter, statusEvent(objectMapper.writeValueAsString(current)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize order status", e);
+        }
+        return emitter;
+    }
+
+    public SseEmitter subscribeToUser(Long userId) {
+        return subscribe(userSubscribers, userId);
+    }
+
+    public int getConnections() {
+        return connections.get();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String json = new String(message.getBody(), StandardCharsets.UTF_8);
+        OrderStatusEventDTO event;
+        try {
+            event = objectMapper.readValue(json, OrderStatusEventDTO.class);
+        } catch (JsonProcessingException e) {
+            System.err.println("Malformed order status event: " + e.getMessage());
+            return;
+        }
+        broadcast(orderSubscribers, event.getOrderId(), json);
+        broadcast(userSubscribers, event.getUserId(), json);
+    }
+
+    @Scheduled(fixedDelayString = "${order-events.heartbeat-interval-ms:20000}")
+    public void sendHeartbeats() {
+        dropSlowWriters();
+        heartbeat(orderSubscribers);
+        heartbeat(userSubscribers);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sendLanes.forEach(lane -> {
+            if (lane instanceof ExecutorService executorService) {
+                executorService.shutdown();
+            }
+        });
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(emitterTimeout.toMillis());
+    }
+
+    private SseEmitter subscribe(Map<Long, Set<SseEmitter>> subscribers, Long key) {
+        SseEmitter emitter = createEmitter();
+        subscribers.compute(key, (k, emitters) -> {
+            Set<SseEmitter> keyEmitters = emitters == null ? ConcurrentHashMap.newKeySet() : emitters;
+            keyEmitters.add(emitter);
+            return keyEmitters;
+        });
+        connections.incrementAndGet();
+        emitter.onCompletion(() -> unsubscribe(subscribers, key, emitter));
+        emitter.onTimeout(() -> unsubscribe(subscribers, key, emitter));
+        emitter.onError(e -> unsubscribe(subscribers, key, emitter));
+        return emitter;
+    }
+
+    private void unsubscribe(Map<Long, Set<SseEmitter>> subscribers, Long key, SseEmitter emitter) {
+        subscribers.computeIfPresent(key, (k, emitters) -> {
+            if (emitters.remove(emitter)) {
+                connections.decrementAndGet();
+            }
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    private void broadcast(Map<Long, Set<SseEmitter>> subscribers, Long key, String json) {
+        Set<SseEmitter> emitters = key == null ? null : subscribers.get(key);
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            send(subscribers, key, emitter, statusEvent(json));
+        }
+    }
+
+    private SseEmitter.SseEventBuilder statusEvent(String json) {
+        return SseEmitter.event().name(STATUS_EVENT).data(json, MediaType.APPLICATION_JSON);
+    }
+
+    private void send(Map<Long, Set<SseEmitter>> subscribers, Long key, SseEmitter emitter,
+                      SseEmitter.SseEventBuilder event) {
+        Executor lane = sendLanes.get(Math.floorMod(System.identityHashCode(emitter), sendLanes.size()));
+        try {
+            lane.execute(() -> write(subscribers, key, emitter, event));
+        } catch (RejectedExecutionException e) {
+            drop(subscribers, key, emitter, e);
+        }
+    }
+
+    private void write(Map<Long, Set<SseEmitter>> subscribers, Long key, SseEmitter emitter,
+                       SseEmitter.SseEventBuilder event) {
+        PendingWrite pendingWrite = new PendingWrite(subscribers, key, Instant.now());
+        writesInProgress.put(emitter, pendingWrite);
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            drop(subscribers, key, emitter, e);
+        } finally {
+            writesInProgress.remove(emitter, pendingWrite);
+        }
+    }
+
+    private void drop(Map<Long, Set<SseEmitter>> subscribers, Long key, SseEmitter emitter, Exception cause) {
+        unsubscribe(subscribers, key, emitter);
+        emitter.completeWithError(cause);
+    }
+
+    private void dropSlowWriters() {
+        Instant cutoff = Instant.now().minus(writeDeadline);
+        writesInProgress.forEach((emitter, pendingWrite) -> {
+            if (pendingWrite.startedAt().isBefore(cutoff) && writesInProgress.remove(emitter, pendingWrite)) {
+                drop(pendingWrite.subscribers(), pendingWrite.key(), emitter,
+                        new IllegalStateException("Write deadline exceeded"));
+            }
+        });
+    }
+
+    private void heartbeat(Map<Long, Set<SseEmitter>> subscribers) {
+        subscribers.forEach((key, emitters) -> emitters.forEach(emitter -> {
+            if (!writesInProgress.containsKey(emitter)) {
+                send(subscribers, key, emitter, SseEmitter.event().comment("heartbeat"));
+            }
+        }));
+    }
+
+    private static List<Executor> sendLanes(int sendThreads, int sendQueueCapacity) {
+        List<Executor> lanes = new ArrayList<>();
+        for (int i = 0; i < sendThreads; i++) {
+            lanes.add(new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(sendQueueCapacity)));
+        }
+        return lanes;
+    }
+
+    private record PendingWrite(Map<Long, Set<SseEmitter>> subscribers, Long key, Instant startedAt) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.orderservice.outbox;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "order_outbox", indexes = @Index(name = "idx_order_outbox_pending", columnList = "published_at, id"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_outbox_seq")
+    @SequenceGenerator(name = "order_outbox_seq", sequenceName = "order_outbox_seq", allocationSize = 50)
+    private Long id;
+    private String aggregateType;
+    private String aggregateId;
+    private String eventType;
+    @Column(columnDefinition = "text")
+    private String payload;
+    private Instant createdAt;
+    private Instant publishedAt;
+    private Instant claimedUntil;
+}
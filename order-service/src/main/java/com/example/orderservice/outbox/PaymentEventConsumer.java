@@ -0,0 +1,150 @@
+package com.example.orderservice.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisStreamCommands.XClaimOptions;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.stream.StreamListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class PaymentEventConsumer implements StreamListener<String, MapRecord<String, String, String>> {
+    private final PaymentEventHandler paymentEventHandler;
+    private final StringRedisTemplate redisTemplate;
+    private final Counter retriedCounter;
+    private final Counter deadLetteredCounter;
+    @Value("${outbox.consumer.payment-stream:events.payment}")
+    private String stream;
+    @Value("${outbox.consumer.group:order-service}")
+    private String group;
+    @Value("${outbox.consumer.name:${spring.application.name}-${HOSTNAME:local}}")
+    private String consumerName;
+    @Value("${outbox.consumer.batch-size:100}")
+    private int batchSize;
+    @Value("${outbox.consumer.retry-min-idle:1m}")
+    private Duration retryMinIdle;
+    @Value("${outbox.consumer.max-deliveries:10}")
+    private long maxDeliveries;
+    @Value("${outbox.consumer.dead-letter-stream:events.payment.dead-letter}")
+    private String deadLetterStream;
+
+    @Autowired
+    public PaymentEventConsumer(PaymentEventHandler paymentEventHandler, StringRedisTemplate redisTemplate,
+                                MeterRegistry meterRegistry) {
+        this.paymentEventHandler = paymentEventHandler;
+        this.redisTemplate = redisTemplate;
+        this.retriedCounter = meterRegistry.counter("outbox.consumer.retried");
+        this.deadLetteredCounter = meterRegistry.counter("outbox.consumer.dead.lettered");
+    }
+
+    public String getStream() {
+        return stream;
+    }
+
+    public Consumer getConsumer() {
+        return Consumer.from(group, consumerName);
+    }
+
+    public void createGroupIfMissing() {
+        try {
+            redisTemplate.execute((RedisCallback<String>) connection -> connection.streamCommands()
+                    .xGroupCreate(stream.getBytes(StandardCharsets.UTF_8), group, ReadOffset.from("0"), true));
+        } catch (RedisSystemException e) {
+            if (e.getMessage() == null || !e.getMessage().contains("BUSYGROUP")) {
+                throw e;
+            }
+        }
+    }
+
+    public void recoverPending() {
+        ReadOffset offset = ReadOffset.from("0");
+        List<MapRecord<String, Object, Object>> pending;
+        do {
+            pending = redisTemplate.opsForStream().read(getConsumer(), StreamReadOptions.empty().count(batchSize),
+                    StreamOffset.create(stream, offset));
+            if (pending == null || pending.isEmpty()) {
+                return;
+            }
+            pending.forEach(record -> process(record.getId(), record.getValue()));
+            offset = ReadOffset.from(pending.get(pending.size() - 1).getId());
+        } while (pending.size() == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.consumer.retry-interval-ms:30000}")
+    public void retryPending() {
+        PendingMessages pending = redisTemplate.opsForStream().pending(stream, group, Range.unbounded(), batchSize);
+        List<RecordId> retries = new ArrayList<>();
+        List<RecordId> exhausted = new ArrayList<>();
+        for (PendingMessage message : pending) {
+            if (message.getElapsedTimeSinceLastDelivery().compareTo(retryMinIdle) < 0) {
+                continue;
+            }
+            if (message.getTotalDeliveryCount() >= maxDeliveries) {
+                exhausted.add(message.getId());
+            } else {
+                retries.add(message.getId());
+            }
+        }
+        claim(retries).forEach(record -> {
+            retriedCounter.increment();
+            process(record.getId(), record.getValue());
+        });
+        claim(exhausted).forEach(this::deadLetter);
+    }
+
+    @Override
+    public void onMessage(MapRecord<String, String, String> record) {
+        process(record.getId(), record.getValue());
+    }
+
+    private List<MapRecord<String, Object, Object>> claim(List<RecordId> recordIds) {
+        if (recordIds.isEmpty()) {
+            return List.of();
+        }
+        return redisTemplate.opsForStream().claim(stream, group, consumerName,
+                XClaimOptions.minIdle(retryMinIdle).ids(recordIds.toArray(new RecordId[0])));
+    }
+
+    private void deadLetter(MapRecord<String, Object, Object> record) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        record.getValue().forEach((field, value) -> fields.put(String.valueOf(field), String.valueOf(value)));
+        fields.put("sourceRecordId", record.getId().getValue());
+        redisTemplate.opsForStream().add(StreamRecords.newRecord().in(deadLetterStream).ofMap(fields));
+        redisTemplate.opsForStream().acknowledge(stream, group, record.getId());
+        deadLetteredCounter.increment();
+        System.err.println("Moved payment event " + record.getId() + " to " + deadLetterStream + " after "
+                + maxDeliveries + " deliveries");
+    }
+
+    private void process(RecordId recordId, Map<?, ?> fields) {
+        try {
+            paymentEventHandler.handle((String) fields.get("eventId"), (String) fields.get("type"),
+                    (String) fields.get("payload"));
+            redisTemplate.opsForStream().acknowledge(stream, group, recordId);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to handle payment event " + recordId + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.orderservice.outbox;
+
+import com.example.orderservice.saga.OrderSagaOrchestrator;
+import com.example.orderservice.service.OrderService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class PaymentEventHandler {
+    public static final String PAYMENT_COMPLETED = "PaymentCompleted";
+    public static final String PAID_STATUS = "PAID";
+
+    private final ProcessedEventRepository processedEventRepository;
+    private final OrderService orderService;
+    private final OrderSagaOrchestrator orderSagaOrchestrator;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public PaymentEventHandler(ProcessedEventRepository processedEventRepository, OrderService orderService,
+                               OrderSagaOrchestrator orderSagaOrchestrator, ObjectMapper objectMapper) {
+        this.processedEventRepository = processedEventRepository;
+        this.orderService = orderService;
+        this.orderSagaOrchestrator = orderSagaOrchestrator;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional
+    public boolean handle(String eventId, String eventType, String payload) {
+        if (processedEventRepository.markProcessed(eventId) == 0) {
+            return false;
+        }
+        if (PAYMENT_COMPLETED.equals(eventType)) {
+            Long orderId = readOrderId(payload);
+            if (orderId != null && orderSagaOrchestrator.onPaymentCompleted(orderId)) {
+                return true;
+            }
+            if (orderId == null) {
+                System.err.println("Payment event " + eventId + " has no order id");
+                return true;
+            }
+            if (orderService.getOrderById(orderId) == null) {
+                throw new IllegalStateException("Payment event " + eventId + " references unknown order " + orderId);
+            }
+            orderService.updateOrderStatus(orderId, PAID_STATUS);
+        }
+        return true;
+    }
+
+    private Long readOrderId(String payload) {
+        try {
+            JsonNode orderId = objectMapper.readTree(payload).get("orderId");
+            return orderId == null || orderId.isNull() ? null : orderId.asLong();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed payment event payload", e);
+        }
+    }
+}
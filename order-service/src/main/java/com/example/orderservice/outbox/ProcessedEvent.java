@@ -0,0 +1,21 @@
+package com.example.orderservice.outbox;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "order_processed_events")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProcessedEvent {
+    @Id
+    private String eventId;
+    private Instant processedAt;
+}
@@ -0,0 +1,16 @@
+package com.example.orderservice.outbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent, String> {
+
+    @Modifying
+    @Query(value = "insert into order_processed_events (event_id, processed_at) values (:eventId, now()) " +
+            "on conflict (event_id) do nothing", nativeQuery = true)
+    int markProcessed(@Param("eventId") String eventId);
+}
@@ -1,10 +1,37 @@
 package com.example.orderservice.repository;
 
 import com.example.orderservice.entity.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select o.id from Order o")
+    Stream<Long> streamAllIds();
+
+    List<Order> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    List<Order> findByUserIdAndIdLessThanOrderByIdDesc(Long userId, Long id, Limit limit);
+
+    @Query(value = "select * from orders where product_ids @> cast(array[:productId] as bigint[]) and id > :after " +
+            "order by id limit :limit", nativeQuery = true)
+    List<Order> findByProductIdAfter(@Param("productId") long productId, @Param("after") long after,
+                                     @Param("limit") int limit);
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select o from Order o order by o.id")
+    Stream<Order> streamAll();
 }
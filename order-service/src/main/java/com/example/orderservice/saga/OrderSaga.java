@@ -0,0 +1,32 @@
+package com.example.orderservice.saga;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "order_sagas", indexes = @Index(name = "idx_order_sagas_due", columnList = "next_attempt_at"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderSaga {
+    @Id
+    private Long orderId;
+    @Enumerated(EnumType.STRING)
+    private SagaStep step;
+    private int attempts;
+    private Instant stepDeadline;
+    private Instant nextAttemptAt;
+    private Instant lockedUntil;
+    @Column(insertable = false, updatable = false)
+    private Instant paymentCompletedAt;
+    private Long paymentId;
+    private String failureReason;
+    private Instant createdAt;
+    private Instant updatedAt;
+    @Version
+    private Long version;
+}
@@ -0,0 +1,366 @@
+package com.example.orderservice.saga;
+
+import com.example.orderservice.client.InventoryClient;
+import com.example.orderservice.client.PaymentClient;
+import com.example.orderservice.dto.OrderStatusDTO;
+import com.example.orderservice.dto.PaymentDTO;
+import com.example.orderservice.dto.StockItemDTO;
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class OrderSagaOrchestrator {
+    public static final String PAID_STATUS = "PAID";
+    public static final String CONFIRMED_STATUS = "CONFIRMED";
+    public static final String REJECTED_STATUS = "REJECTED";
+
+    private final OrderSagaRepository orderSagaRepository;
+    private final OrderService orderService;
+    private final InventoryClient inventoryClient;
+    private final PaymentClient paymentClient;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService sagaExecutor;
+    @Value("${order-saga.step-timeout:5s}")
+    private Duration stepTimeout;
+    @Value("${order-saga.payment-timeout:30s}")
+    private Duration paymentTimeout;
+    @Value("${order-saga.retry-backoff:1s}")
+    private Duration retryBackoff;
+    @Value("${order-saga.poll-batch-size:100}")
+    private int pollBatchSize;
+
+    @Autowired
+    public OrderSagaOrchestrator(OrderSagaRepository orderSagaRepository, OrderService orderService,
+                                 InventoryClient inventoryClient, PaymentClient paymentClient,
+                                 PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                 @Value("${order-saga.worker-threads:16}") int workerThreads,
+                                 @Value("${order-saga.queue-capacity:10000}") int queueCapacity) {
+        this(orderSagaRepository, orderService, inventoryClient, paymentClient, transactionManager, meterRegistry,
+                new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(queueCapacity)));
+    }
+
+    OrderSagaOrchestrator(OrderSagaRepository orderSagaRepository, OrderService orderService,
+                          InventoryClient inventoryClient, PaymentClient paymentClient,
+                          PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                          ExecutorService sagaExecutor) {
+        this.orderSagaRepository = orderSagaRepository;
+        this.orderService = orderService;
+        this.inventoryClient = inventoryClient;
+        this.paymentClient = paymentClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.sagaExecutor = sagaExecutor;
+    }
+
+    public OrderSaga start(Order order) {
+        orderService.priceOrder(order);
+        return transactionTemplate.execute(status -> {
+            orderService.createOrder(order);
+            Instant now = Instant.now();
+            OrderSaga saga = new OrderSaga();
+            saga.setOrderId(order.getId());
+            saga.setCreatedAt(now);
+            saga.setUpdatedAt(now);
+            enter(saga, SagaStep.VALIDATE, now);
+            OrderSaga savedSaga = orderSagaRepository.save(saga);
+            afterCommit(() -> dispatch(order.getId()));
+            return savedSaga;
+        });
+    }
+
+    @Transactional
+    public boolean onPaymentCompleted(Long orderId) {
+        if (!orderSagaRepository.existsById(orderId)) {
+            return false;
+        }
+        Instant now = Instant.now();
+        orderSagaRepository.markPaymentCompleted(orderId, now);
+        if (orderSagaRepository.wakeUp(orderId, SagaStep.AWAIT_PAYMENT, now) > 0) {
+            afterCommit(() -> dispatch(orderId));
+        }
+        return true;
+    }
+
+    public OrderStatusDTO getStatus(Long orderId) {
+        Order order = orderService.getOrderById(orderId);
+        if (order == null) {
+            return null;
+        }
+        return orderSagaRepository.findById(orderId)
+                .map(saga -> new OrderStatusDTO(orderId, order.getStatus(), saga.getStep().name(),
+                        saga.getFailureReason()))
+                .orElseGet(() -> new OrderStatusDTO(orderId, order.getStatus(), null, null));
+    }
+
+    @Scheduled(fixedDelayString = "${order-saga.poll-interval-ms:1000}")
+    public void resumeDueSagas() {
+        orderSagaRepository.findDueOrderIds(SagaStep.TERMINAL, Instant.now(), Limit.of(pollBatchSize))
+                .forEach(this::dispatch);
+    }
+
+    public void dispatch(Long orderId) {
+        try {
+            sagaExecutor.execute(() -> advance(orderId));
+        } catch (RejectedExecutionException e) {
+            System.err.println("Saga for order " + orderId + " left to the poller: " + e.getMessage());
+        }
+    }
+
+    public void advance(Long orderId) {
+        while (claim(orderId)) {
+            OrderSaga saga = orderSagaRepository.findById(orderId).orElse(null);
+            if (saga == null) {
+                return;
+            }
+            SagaStep step = saga.getStep();
+            Instant now = Instant.now();
+            Timer.Sample sample = Timer.start(meterRegistry);
+            Order order = orderService.getOrderById(orderId);
+            if (order == null) {
+                fail(saga, "Order not found", now);
+            } else {
+                runStep(saga, order, now);
+            }
+            sample.stop(meterRegistry.timer("order.saga.step", "step", step.name(), "next", saga.getStep().name()));
+            if (!persist(saga, step)) {
+                return;
+            }
+            if (saga.getStep().isTerminal() || saga.getNextAttemptAt().isAfter(Instant.now())) {
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sagaExecutor.shutdown();
+    }
+
+    private boolean claim(Long orderId) {
+        Instant now = Instant.now();
+        Integer claimed = transactionTemplate.execute(status -> orderSagaRepository.claim(orderId,
+                SagaStep.TERMINAL, now, now.plus(stepTimeout.multipliedBy(2))));
+        return claimed != null && claimed > 0;
+    }
+
+    private boolean persist(OrderSaga saga, SagaStep previousStep) {
+        saga.setLockedUntil(null);
+        saga.setUpdatedAt(Instant.now());
+        String orderStatus = saga.getStep() == previousStep ? null : orderStatusFor(saga.getStep());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                orderSagaRepository.save(saga);
+                if (orderStatus != null) {
+                    orderService.updateOrderStatus(saga.getOrderId(), orderStatus);
+                }
+            });
+            return true;
+        } catch (OptimisticLockingFailureException e) {
+            System.err.println("Saga for order " + saga.getOrderId() + " changed concurrently: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private String orderStatusFor(SagaStep step) {
+        return switch (step) {
+            case CONFIRM -> PAID_STATUS;
+            case COMPLETED -> CONFIRMED_STATUS;
+            case FAILED -> REJECTED_STATUS;
+            default -> null;
+        };
+    }
+
+    private void runStep(OrderSaga saga, Order order, Instant now) {
+        switch (saga.getStep()) {
+            case VALIDATE -> validate(saga, order, now);
+            case RESERVE_INVENTORY -> reserveInventory(saga, order, now);
+            case CREATE_PAYMENT -> createPayment(saga, order, now);
+            case AWAIT_PAYMENT -> awaitPayment(saga, now);
+            case CONFIRM -> confirm(saga, order, now);
+            case REFUND_PAYMENT -> refundPayment(saga, order, now);
+            case RELEASE_INVENTORY -> releaseInventory(saga, order, now);
+            default -> {
+            }
+        }
+    }
+
+    private void validate(OrderSaga saga, Order order, Instant now) {
+        String failure;
+        try {
+            failure = orderService.validateOrder(order);
+        } catch (RuntimeException e) {
+            if (now.isBefore(saga.getStepDeadline())) {
+                scheduleRetry(saga, now);
+            } else {
+                fail(saga, "Validation timed out", now);
+            }
+            return;
+        }
+        if (failure == null) {
+            enter(saga, SagaStep.RESERVE_INVENTORY, now);
+        } else {
+            fail(saga, failure, now);
+        }
+    }
+
+    private void reserveInventory(OrderSaga saga, Order order, Instant now) {
+        try {
+            inventoryClient.reserveStock(order.getId(), stockItems(order)).timeout(stepTimeout).block();
+            enter(saga, SagaStep.CREATE_PAYMENT, now);
+        } catch (WebClientResponseException.Conflict e) {
+            fail(saga, "Insufficient stock", now);
+        } catch (RuntimeException e) {
+            retryOrCompensate(saga, "Inventory reservation failed", SagaStep.RELEASE_INVENTORY, e, now);
+        }
+    }
+
+    private void createPayment(OrderSaga saga, Order order, Instant now) {
+        PaymentDTO payment = new PaymentDTO();
+        payment.setOrderId(order.getId());
+        payment.setAmount(order.getTotalPrice());
+        try {
+            PaymentDTO createdPayment = paymentClient.createPayment(payment, paymentKey(order.getId()))
+                    .timeout(stepTimeout).block();
+            saga.setPaymentId(createdPayment == null ? null : createdPayment.getId());
+            enter(saga, SagaStep.AWAIT_PAYMENT, now);
+        } catch (RuntimeException e) {
+            retryOrCompensate(saga, "Payment failed", SagaStep.REFUND_PAYMENT, e, now);
+        }
+    }
+
+    private void awaitPayment(OrderSaga saga, Instant now) {
+        if (saga.getPaymentCompletedAt() != null) {
+            enter(saga, SagaStep.CONFIRM, now);
+        } else if (now.isBefore(saga.getStepDeadline())) {
+            saga.setNextAttemptAt(saga.getStepDeadline());
+        } else {
+            compensate(saga, "Payment timed out", SagaStep.REFUND_PAYMENT, now);
+        }
+    }
+
+    private void confirm(OrderSaga saga, Order order, Instant now) {
+        try {
+            inventoryClient.commitStock(order.getId()).timeout(stepTimeout).block();
+            enter(saga, SagaStep.COMPLETED, now);
+        } catch (WebClientResponseException.Conflict e) {
+            compensate(saga, "Reserved stock was lost before confirmation", SagaStep.REFUND_PAYMENT, now);
+        } catch (RuntimeException e) {
+            scheduleRetry(saga, now);
+        }
+    }
+
+    private void refundPayment(OrderSaga saga, Order order, Instant now) {
+        try {
+            paymentClient.refundPaymentsByOrderId(order.getId()).timeout(stepTimeout).block();
+        } catch (RuntimeException e) {
+            scheduleRetry(saga, now);
+            return;
+        }
+        enter(saga, SagaStep.RELEASE_INVENTORY, now);
+    }
+
+    private void releaseInventory(OrderSaga saga, Order order, Instant now) {
+        try {
+            inventoryClient.releaseStock(order.getId()).timeout(stepTimeout).block();
+        } catch (WebClientResponseException.Conflict e) {
+            System.err.println("Nothing to release for order " + order.getId());
+        } catch (RuntimeException e) {
+            scheduleRetry(saga, now);
+            return;
+        }
+        enter(saga, SagaStep.FAILED, now);
+    }
+
+    private void enter(OrderSaga saga, SagaStep step, Instant now) {
+        saga.setStep(step);
+        saga.setAttempts(0);
+        saga.setStepDeadline(now.plus(step == SagaStep.AWAIT_PAYMENT ? paymentTimeout : stepTimeout));
+        saga.setNextAttemptAt(now);
+    }
+
+    private void retryOrCompensate(OrderSaga saga, String reason, SagaStep compensation, RuntimeException e,
+                                   Instant now) {
+        boolean rejected = e instanceof WebClientResponseException responseException
+                && responseException.getStatusCode().is4xxClientError()
+                && !(responseException instanceof WebClientResponseException.Conflict);
+        if (!rejected && now.isBefore(saga.getStepDeadline())) {
+            scheduleRetry(saga, now);
+        } else {
+            compensate(saga, reason, compensation, now);
+        }
+    }
+
+    private void compensate(OrderSaga saga, String reason, SagaStep compensation, Instant now) {
+        saga.setFailureReason(reason);
+        enter(saga, compensation, now);
+    }
+
+    private String paymentKey(Long orderId) {
+        return "order-" + orderId + "-payment";
+    }
+
+    private void fail(OrderSaga saga, String reason, Instant now) {
+        saga.setFailureReason(reason);
+        enter(saga, SagaStep.FAILED, now);
+    }
+
+    private void scheduleRetry(OrderSaga saga, Instant now) {
+        saga.setAttempts(saga.getAttempts() + 1);
+        Instant nextAttemptAt = now.plus(retryBackoff.multipliedBy(Math.min(saga.getAttempts(), 10)));
+        saga.setNextAttemptAt(saga.getStepDeadline().isAfter(now) && nextAttemptAt.isAfter(saga.getStepDeadline())
+                ? saga.getStepDeadline() : nextAttemptAt);
+    }
+
+    private List<StockItemDTO> stockItems(Order order) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        if (order.getLines() != null && !order.getLines().isEmpty()) {
+            order.getLines().forEach(line -> quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum));
+        } else {
+            order.getProductIds().forEach(productId -> quantities.merge(productId, 1, Integer::sum));
+        }
+        return quantities.entrySet().stream()
+                .map(entry -> new StockItemDTO(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.orderservice.saga;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderSagaRepository extends JpaRepository<OrderSaga, Long> {
+
+    @Query("select s.orderId from OrderSaga s where s.step not in :terminal and s.nextAttemptAt <= :now " +
+            "and (s.lockedUntil is null or s.lockedUntil < :now) order by s.nextAttemptAt")
+    List<Long> findDueOrderIds(@Param("terminal") Collection<SagaStep> terminal, @Param("now") Instant now,
+                               Limit limit);
+
+    @Modifying
+    @Query("update OrderSaga s set s.lockedUntil = :lockedUntil, s.version = s.version + 1 " +
+            "where s.orderId = :orderId and s.step not in :terminal and s.nextAttemptAt <= :now " +
+            "and (s.lockedUntil is null or s.lockedUntil < :now)")
+    int claim(@Param("orderId") Long orderId, @Param("terminal") Collection<SagaStep> terminal,
+              @Param("now") Instant now, @Param("lockedUntil") Instant lockedUntil);
+
+    @Modifying
+    @Query("update OrderSaga s set s.paymentCompletedAt = :now " +
+            "where s.orderId = :orderId and s.paymentCompletedAt is null")
+    int markPaymentCompleted(@Param("orderId") Long orderId, @Param("now") Instant now);
+
+    @Modifying
+    @Query("update OrderSaga s set s.nextAttemptAt = :now, s.version = s.version + 1 " +
+            "where s.orderId = :orderId and s.step = :step")
+    int wakeUp(@Param("orderId") Long orderId, @Param("step") SagaStep step, @Param("now") Instant now);
+}
@@ -0,0 +1,22 @@
+package com.example.orderservice.saga;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+public enum SagaStep {
+    VALIDATE,
+    RESERVE_INVENTORY,
+    CREATE_PAYMENT,
+    AWAIT_PAYMENT,
+    CONFIRM,
+    REFUND_PAYMENT,
+    RELEASE_INVENTORY,
+    COMPLETED,
+    FAILED;
+
+    public static final Set<SagaStep> TERMINAL = EnumSet.of(COMPLETED, FAILED);
+
+    public boolean isTerminal() {
+        return TERMINAL.contains(this);
+    }
+}
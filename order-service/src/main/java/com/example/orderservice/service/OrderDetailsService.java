@@ -0,0 +1,116 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.client.InventoryClient;
+import com.example.orderservice.client.PaymentClient;
+import com.example.orderservice.client.ProductClient;
+import com.example.orderservice.client.UserClient;
+import com.example.orderservice.dto.OrderDetailsDTO;
+import com.example.orderservice.dto.PaymentDTO;
+import com.example.orderservice.dto.ProductDTO;
+import com.example.orderservice.dto.UserDTO;
+import com.example.orderservice.entity.Order;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple4;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class OrderDetailsService {
+    public static final String USER_PART = "user";
+    public static final String PRODUCTS_PART = "products";
+    public static final String STOCK_PART = "stock";
+    public static final String PAYMENTS_PART = "payments";
+
+    private final OrderService orderService;
+    private final UserClient userClient;
+    private final ProductClient productClient;
+    private final InventoryClient inventoryClient;
+    private final PaymentClient paymentClient;
+    private final MeterRegistry meterRegistry;
+    @Value("${order-service.details.deadline:500ms}")
+    private Duration deadline;
+    @Value("${order-service.details.batch-size:100}")
+    private int batchSize;
+
+    @Autowired
+    public OrderDetailsService(OrderService orderService, UserClient userClient, ProductClient productClient,
+                               InventoryClient inventoryClient, PaymentClient paymentClient,
+                               MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.userClient = userClient;
+        this.productClient = productClient;
+        this.inventoryClient = inventoryClient;
+        this.paymentClient = paymentClient;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public OrderDetailsDTO getOrderDetails(Long id) {
+        Order order = orderService.getOrderById(id);
+        if (order == null) {
+            return null;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<Long> productIds = order.getProductIds() == null
+                ? List.of()
+                : order.getProductIds().stream().distinct().toList();
+        Set<String> unavailable = ConcurrentHashMap.newKeySet();
+        Tuple4<Optional<UserDTO>, List<ProductDTO>, Map<Long, Boolean>, List<PaymentDTO>> parts = Mono.zip(
+                withDeadline(USER_PART, fetchUser(order.getUserId()), Optional.empty(), unavailable),
+                withDeadline(PRODUCTS_PART, fetchProducts(productIds), List.of(), unavailable),
+                withDeadline(STOCK_PART, fetchStock(productIds), Map.of(), unavailable),
+                withDeadline(PAYMENTS_PART, paymentClient.getPaymentsByOrderId(id), List.of(), unavailable)
+        ).block();
+        sample.stop(meterRegistry.timer("order.details.duration", "partial", String.valueOf(!unavailable.isEmpty())));
+
+        return new OrderDetailsDTO(order, parts.getT1().orElse(null), parts.getT2(), parts.getT3(), parts.getT4(),
+                unavailable.stream().sorted().toList());
+    }
+
+    private <T> Mono<T> withDeadline(String part, Mono<T> call, T fallback, Set<String> unavailable) {
+        return call.defaultIfEmpty(fallback)
+                .timeout(deadline)
+                .onErrorResume(e -> {
+                    unavailable.add(part);
+                    meterRegistry.counter("order.details.unavailable", "part", part).increment();
+                    return Mono.just(fallback);
+                });
+    }
+
+    private Mono<Optional<UserDTO>> fetchUser(Long userId) {
+        return userClient.getUserById(userId)
+                .map(Optional::of)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.just(Optional.empty()));
+    }
+
+    private Mono<List<ProductDTO>> fetchProducts(List<Long> productIds) {
+        return Flux.fromIterable(productIds)
+                .buffer(batchSize)
+                .flatMap(productClient::getProductsByIds)
+                .flatMapIterable(products -> products)
+                .collectList();
+    }
+
+    private Mono<Map<Long, Boolean>> fetchStock(List<Long> productIds) {
+        return Flux.fromIterable(productIds)
+                .buffer(batchSize)
+                .flatMap(inventoryClient::getStockByProductIds)
+                .<Map<Long, Boolean>>reduceWith(HashMap::new, (stock, batch) -> {
+                    stock.putAll(batch);
+                    return stock;
+                });
+    }
+}
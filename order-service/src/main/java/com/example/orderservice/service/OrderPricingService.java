@@ -0,0 +1,109 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.client.ProductClient;
+import com.example.orderservice.dto.ProductDTO;
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.entity.OrderLine;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class OrderPricingService {
+    private final ProductClient productClient;
+    private final Cache<Long, Double> priceCache;
+    private final Timer priceFetchTimer;
+    @Value("${order-service.pricing.call-timeout:2s}")
+    private Duration callTimeout;
+
+    @Autowired
+    public OrderPricingService(ProductClient productClient, MeterRegistry meterRegistry,
+                               @Value("${order-service.pricing.price-ttl:10s}") Duration priceTtl,
+                               @Value("${order-service.pricing.maximum-size:100000}") long maximumSize) {
+        this.productClient = productClient;
+        this.priceCache = Caffeine.newBuilder()
+                .expireAfterWrite(priceTtl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        this.priceFetchTimer = Timer.builder("order.pricing.fetch")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, priceCache, "product-prices");
+    }
+
+    public void price(Order order) {
+        List<OrderLine> lines = mergeLines(order);
+        if (lines.isEmpty()) {
+            throw new IllegalArgumentException("Order has no lines");
+        }
+        List<Long> productIds = lines.stream().map(OrderLine::getProductId).toList();
+        Map<Long, Double> prices = getPrices(productIds);
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (OrderLine line : lines) {
+            Double unitPrice = prices.get(line.getProductId());
+            if (unitPrice == null) {
+                throw new IllegalArgumentException("Product " + line.getProductId() + " not found");
+            }
+            line.setUnitPrice(unitPrice);
+            total = total.add(BigDecimal.valueOf(unitPrice).multiply(BigDecimal.valueOf(line.getQuantity())));
+        }
+        order.setLines(lines);
+        order.setProductIds(productIds);
+        order.setTotalPrice(total.setScale(2, RoundingMode.HALF_UP).doubleValue());
+    }
+
+    public Map<Long, Double> getPrices(List<Long> productIds) {
+        return priceCache.getAll(productIds, this::fetchPrices);
+    }
+
+    private Map<Long, Double> fetchPrices(Set<? extends Long> productIds) {
+        Timer.Sample sample = Timer.start();
+        List<ProductDTO> products = productClient.getProductsByIds(new ArrayList<>(productIds))
+                .timeout(callTimeout)
+                .block();
+        sample.stop(priceFetchTimer);
+
+        Map<Long, Double> prices = new HashMap<>();
+        if (products != null) {
+            products.stream()
+                    .filter(product -> product.getPrice() != null)
+                    .forEach(product -> prices.put(product.getId(), product.getPrice()));
+        }
+        return prices;
+    }
+
+    private List<OrderLine> mergeLines(Order order) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        if (order.getLines() != null && !order.getLines().isEmpty()) {
+            for (OrderLine line : order.getLines()) {
+                if (line.getProductId() == null || line.getQuantity() == null || line.getQuantity() <= 0) {
+                    throw new IllegalArgumentException("Order line needs a product and a positive quantity");
+                }
+                quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+            }
+        } else if (order.getProductIds() != null) {
+            order.getProductIds().forEach(productId -> quantities.merge(productId, 1, Integer::sum));
+        }
+        return quantities.entrySet().stream()
+                .map(entry -> new OrderLine(entry.getKey(), entry.getValue(), null))
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+}
@@ -1,79 +1,220 @@
 package com.example.orderservice.service;
 
+import com.example.orderservice.cache.IdBloomFilter;
+import com.example.orderservice.client.InventoryClient;
+import com.example.orderservice.client.UserClient;
 import com.example.orderservice.dto.UserDTO;
 import com.example.orderservice.entity.Order;
+import com.example.orderservice.notification.OrderStatusNotifier;
+import com.example.orderservice.outbox.OutboxService;
 import com.example.orderservice.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
 
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class OrderService {
+    public static final String ORDER_AGGREGATE = "Order";
+    public static final String ORDER_CREATED = "OrderCreated";
+    public static final String ORDER_STATUS_CHANGED = "OrderStatusChanged";
+    public static final String PENDING_STATUS = "PENDING";
+    public static final String USER_ORDERS_CACHE = "user-orders";
+
     private final OrderRepository orderRepository;
-    private final WebClient.Builder webClientBuilder;
-    @Value("${user-service.url}")
-    private String userServiceUrl;
-    @Value("${inventory-service.url}")
-    private String inventoryServiceUrl;
+    private final UserClient userClient;
+    private final InventoryClient inventoryClient;
+    private final IdBloomFilter orderIdFilter;
+    private final EntityManager entityManager;
+    private final OutboxService outboxService;
+    private final OrderStatusNotifier orderStatusNotifier;
+    private final OrderPricingService orderPricingService;
+    private final CacheManager cacheManager;
+    @Value("${order-service.fan-out.concurrent:false}")
+    private boolean concurrentFanOut;
+    @Value("${order-service.fan-out.call-timeout:2s}")
+    private Duration callTimeout;
+    @Value("${order-service.fan-out.inventory-batch-size:100}")
+    private int inventoryBatchSize;
+    @Value("${order-service.fan-out.max-concurrency:4}")
+    private int maxConcurrency;
+    @Value("${order-history.first-page-size:20}")
+    private int firstPageSize;
 
 
     @Autowired
-    public OrderService(OrderRepository orderRepository, WebClient.Builder webClientBuilder) {
+    public OrderService(OrderRepository orderRepository, UserClient userClient, InventoryClient inventoryClient,
+                        IdBloomFilter orderIdFilter, EntityManager entityManager, OutboxService outboxService,
+                        OrderStatusNotifier orderStatusNotifier, OrderPricingService orderPricingService,
+                        CacheManager cacheManager) {
         this.orderRepository = orderRepository;
-        this.webClientBuilder = webClientBuilder;
+        this.userClient = userClient;
+        this.inventoryClient = inventoryClient;
+        this.orderIdFilter = orderIdFilter;
+        this.entityManager = entityManager;
+        this.outboxService = outboxService;
+        this.orderStatusNotifier = orderStatusNotifier;
+        this.orderPricingService = orderPricingService;
+        this.cacheManager = cacheManager;
     }
 
     public List<Order> getAllOrders() {
         return orderRepository.findAll();
     }
 
+    public List<Order> getOrdersAfter(long after, int limit) {
+        return orderRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit));
+    }
+
+    @Cacheable(value = USER_ORDERS_CACHE, key = "#userId", sync = true)
+    public List<Order> getFirstUserOrdersPage(Long userId) {
+        return orderRepository.findByUserIdAndIdLessThanOrderByIdDesc(userId, Long.MAX_VALUE, Limit.of(firstPageSize));
+    }
+
+    public List<Order> getUserOrdersBefore(Long userId, long before, int limit) {
+        return orderRepository.findByUserIdAndIdLessThanOrderByIdDesc(userId, before, Limit.of(limit));
+    }
+
+    public List<Order> getOrdersByProductId(long productId, long after, int limit) {
+        return orderRepository.findByProductIdAfter(productId, after, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllOrders(Consumer<Order> consumer) {
+        try (Stream<Order> orderStream = orderRepository.streamAll()) {
+            orderStream.forEach(order -> {
+                consumer.accept(order);
+                entityManager.detach(order);
+            });
+        }
+    }
+
+    @Transactional
     public void createOrder(Order order) {
-        UserDTO userDTO = webClientBuilder.build().get()
-                .uri(userServiceUrl + "/{id}", order.getUserId())
-                .retrieve()
-                .bodyToMono(UserDTO.class)
-                .block();
+        order.setStatus(PENDING_STATUS);
+        orderRepository.save(order);
+        outboxService.record(ORDER_AGGREGATE, order.getId(), ORDER_CREATED, order);
+        orderIdFilter.put(order.getId());
+        orderStatusNotifier.notifyAfterCommit(order);
+        evictUserOrdersAfterCommit(order.getUserId());
+    }
+
+    public void priceOrder(Order order) {
+        orderPricingService.price(order);
+    }
+
+    public String validateOrder(Order order) {
+        UserDTO userDTO;
+        Map<Long, Boolean> stock;
+        if (concurrentFanOut) {
+            Tuple2<Optional<UserDTO>, Map<Long, Boolean>> result = Mono.zip(
+                    fetchUser(order.getUserId()).map(Optional::of).defaultIfEmpty(Optional.empty()),
+                    fetchStockInBatches(order.getProductIds())
+            ).block();
+            userDTO = result.getT1().orElse(null);
+            stock = result.getT2();
+        } else {
+            userDTO = fetchUser(order.getUserId()).block();
+            stock = fetchStock(order.getProductIds()).block();
+        }
 
         if (userDTO == null) {
-            System.err.println("User not found");
+            return "User not found";
         }
 
         for (Long productId : order.getProductIds()) {
-            Boolean inStock = webClientBuilder.build().get()
-                    .uri(inventoryServiceUrl + "/product/{productId}/in-stock", productId)
-                    .retrieve()
-                    .bodyToMono(Boolean.class)
-                    .block();
-
-            if (inStock == null) {
-                System.err.println("Product out of stock");
+            if (stock == null || !Boolean.TRUE.equals(stock.get(productId))) {
+                return "Product " + productId + " out of stock";
             }
         }
+        return null;
+    }
 
-        order.setStatus("CREATED");
-        orderRepository.save(order);
+    private Mono<UserDTO> fetchUser(Long userId) {
+        return userClient.getUserById(userId)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty())
+                .timeout(callTimeout);
+    }
+
+    private Mono<Map<Long, Boolean>> fetchStock(List<Long> productIds) {
+        return inventoryClient.getStockByProductIds(productIds).timeout(callTimeout);
     }
 
-    @Cacheable(value = "orders", key = "#id")
+    private Mono<Map<Long, Boolean>> fetchStockInBatches(List<Long> productIds) {
+        return Flux.fromIterable(productIds)
+                .buffer(inventoryBatchSize)
+                .flatMap(this::fetchStock, maxConcurrency)
+                .<Map<Long, Boolean>>reduceWith(HashMap::new, (stock, batch) -> {
+                    stock.putAll(batch);
+                    return stock;
+                });
+    }
+
+    @Cacheable(value = "orders", key = "#id", sync = true)
     public Order getOrderById(Long id) {
+        if (orderIdFilter.rejects(id)) {
+            return null;
+        }
         return orderRepository.findById(id).orElse(null);
     }
 
+    @Transactional
     @CachePut(value = "orders", key = "#id")
     public Order updateOrderStatus(Long id, String status) {
         Order order = getOrderById(id);
         order.setStatus(status);
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        outboxService.record(ORDER_AGGREGATE, id, ORDER_STATUS_CHANGED, savedOrder);
+        orderStatusNotifier.notifyAfterCommit(savedOrder);
+        evictUserOrdersAfterCommit(savedOrder.getUserId());
+        return savedOrder;
     }
 
     @CacheEvict(value = "orders", key = "#id")
-    public void deleteOrderById(Long id) {
+    public Order deleteOrderById(Long id) {
+        Order order = orderRepository.findById(id).orElse(null);
         orderRepository.deleteById(id);
+        if (order != null) {
+            evictUserOrdersAfterCommit(order.getUserId());
+        }
+        return order;
+    }
+
+    private void evictUserOrdersAfterCommit(Long userId) {
+        Cache userOrders = cacheManager.getCache(USER_ORDERS_CACHE);
+        if (userOrders == null || userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userOrders.evict(userId);
+                }
+            });
+        } else {
+            userOrders.evict(userId);
+        }
     }
 }
@@ -0,0 +1,33 @@
+package com.example.orderservice.cache;
+
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.entity.OrderLine;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderCodecTest {
+    private final CompactRedisSerializer serializer = new CompactRedisSerializer(List.of(new OrderCodec()));
+
+    @Test
+    void serialize_ShouldRoundTripOrderWithLines() {
+        Order order = new Order();
+        order.setId(1L);
+        order.setUserId(111L);
+        order.setProductIds(List.of(11L, 22L));
+        order.setLines(List.of(new OrderLine(11L, 2, 10.1), new OrderLine(22L, 1, null)));
+        order.setTotalPrice(20.2);
+        order.setStatus("PENDING");
+
+        assertThat(serializer.deserialize(serializer.serialize(order))).isEqualTo(order);
+    }
+
+    @Test
+    void deserialize_WhenEntryUsesPreviousOrderLayout_ShouldTreatItAsMiss() {
+        byte[] previousLayout = {CompactRedisSerializer.FORMAT_VERSION, 4, 2, 1};
+
+        assertThat(serializer.deserialize(previousLayout)).isNull();
+    }
+}
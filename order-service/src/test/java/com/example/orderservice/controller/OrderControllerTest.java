@@ -1,7 +1,15 @@
 package com.example.orderservice.controller;
 
+import com.example.orderservice.dto.OrderDetailsDTO;
+import com.example.orderservice.dto.OrderStatusDTO;
 import com.example.orderservice.dto.UserDTO;
 import com.example.orderservice.entity.Order;
+import com.example.orderservice.idempotency.IdempotencyMismatchException;
+import com.example.orderservice.idempotency.IdempotencyStore;
+import com.example.orderservice.notification.OrderStatusSubscriptions;
+import com.example.orderservice.saga.OrderSagaOrchestrator;
+import com.example.orderservice.saga.SagaStep;
+import com.example.orderservice.service.OrderDetailsService;
 import com.example.orderservice.service.OrderService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,12 +19,17 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = OrderController.class)
@@ -27,6 +40,14 @@ class OrderControllerTest {
     private ObjectMapper objectMapper;
     @MockitoBean
     private OrderService orderService;
+    @MockitoBean
+    private OrderDetailsService orderDetailsService;
+    @MockitoBean
+    private OrderSagaOrchestrator orderSagaOrchestrator;
+    @MockitoBean
+    private OrderStatusSubscriptions orderStatusSubscriptions;
+    @MockitoBean
+    private IdempotencyStore idempotencyStore;
 
     private Order order1;
     private Order order2;
@@ -69,6 +90,19 @@ class OrderControllerTest {
         verify(orderService, times(1)).getAllOrders();
     }
 
+    @Test
+    void getOrdersPage_WithAfterButNoLimit_ShouldReturnDefaultPage() throws Exception {
+        when(orderService.getOrdersAfter(1L, 100)).thenReturn(List.of(order2));
+
+        mockMvc.perform(get("/api/orders")
+                        .param("after", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(order2.getId()));
+
+        verify(orderService, times(1)).getOrdersAfter(1L, 100);
+        verify(orderService, never()).getAllOrders();
+    }
+
     @Test
     void getOrderById_ShouldReturnOrderByIdAnd200Status() throws Exception {
         when(orderService.getOrderById(order1.getId())).thenReturn(order1);
@@ -83,16 +117,159 @@ class OrderControllerTest {
     }
 
     @Test
-    void createOrder_ShouldCreateOrderAndReturn201Status() throws Exception {
-        doNothing().when(orderService).createOrder(order1);
+    void getOrdersByProductId_ShouldClampLimitAndReturnMatchingOrders() throws Exception {
+        when(orderService.getOrdersByProductId(11L, 0L, 1000)).thenReturn(List.of(order1));
+
+        mockMvc.perform(get("/api/orders/by-product/{productId}", 11L)
+                        .param("limit", "5000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(order1.getId()));
+
+        verify(orderService, times(1)).getOrdersByProductId(11L, 0L, 1000);
+    }
+
+    @Test
+    void getUserOrders_WhenFirstPage_ShouldServeCachedPage() throws Exception {
+        when(orderService.getFirstUserOrdersPage(1L)).thenReturn(List.of(order2, order1));
 
+        mockMvc.perform(get("/api/orders/user/{userId}", 1L)
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(order2.getId()));
+
+        verify(orderService, never()).getUserOrdersBefore(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    void getUserOrders_WhenCursorGiven_ShouldQueryOlderOrders() throws Exception {
+        when(orderService.getUserOrdersBefore(1L, 2L, 20)).thenReturn(List.of(order1));
+
+        mockMvc.perform(get("/api/orders/user/{userId}", 1L)
+                        .param("after", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(order1.getId()));
+
+        verify(orderService, never()).getFirstUserOrdersPage(anyLong());
+    }
+
+    @Test
+    void createOrder_ShouldStartSagaAndReturn202WithStatusLocation() throws Exception {
         mockMvc.perform(post("/api/orders")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(order1)))
-                .andExpect(status().isCreated())
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/api/orders/1/status"))
                 .andExpect(jsonPath("$.id").value(order1.getId()));
 
-        verify(orderService, times(1)).createOrder(order1);
+        verify(orderSagaOrchestrator, times(1)).start(order1);
+        verify(orderService, never()).createOrder(any());
+    }
+
+    @Test
+    void createOrder_WithIdempotencyKey_ShouldStartSagaThroughIdempotencyStore() throws Exception {
+        when(idempotencyStore.execute(eq("client-1"), eq("key-1"), eq(order1), eq(Order.class), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get());
+
+        mockMvc.perform(post("/api/orders")
+                        .header(IdempotencyStore.IDEMPOTENCY_KEY_HEADER, "key-1")
+                        .header(IdempotencyStore.CLIENT_ID_HEADER, "client-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order1)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/api/orders/1/status"));
+
+        verify(orderSagaOrchestrator, times(1)).start(order1);
+    }
+
+    @Test
+    void createOrder_WhenKeyWasUsedForAnotherBody_ShouldReturn422Status() throws Exception {
+        when(idempotencyStore.execute(eq("client-1"), eq("key-1"), eq(order1), eq(Order.class), any()))
+                .thenThrow(new IdempotencyMismatchException("key-1"));
+
+        mockMvc.perform(post("/api/orders")
+                        .header(IdempotencyStore.IDEMPOTENCY_KEY_HEADER, "key-1")
+                        .header(IdempotencyStore.CLIENT_ID_HEADER, "client-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order1)))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(orderSagaOrchestrator, never()).start(any());
+    }
+
+    @Test
+    void getOrderDetails_ShouldReturnAggregatedDetailsAnd200Status() throws Exception {
+        when(orderDetailsService.getOrderDetails(1L)).thenReturn(new OrderDetailsDTO(order1, user, List.of(),
+                Map.of(11L, true), List.of(), List.of(OrderDetailsService.PAYMENTS_PART)));
+
+        mockMvc.perform(get("/api/orders/{id}/details", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.order.id").value(order1.getId()))
+                .andExpect(jsonPath("$.user.name").value(user.getName()))
+                .andExpect(jsonPath("$.stock.11").value(true))
+                .andExpect(jsonPath("$.unavailable[0]").value("payments"));
+    }
+
+    @Test
+    void getOrderDetails_WhenOrderIsUnknown_ShouldReturn404Status() throws Exception {
+        when(orderDetailsService.getOrderDetails(1L)).thenReturn(null);
+
+        mockMvc.perform(get("/api/orders/{id}/details", 1L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getOrderStatus_ShouldReturnSagaProgressAnd200Status() throws Exception {
+        when(orderSagaOrchestrator.getStatus(1L))
+                .thenReturn(new OrderStatusDTO(1L, "REJECTED", SagaStep.FAILED.name(), "Insufficient stock"));
+
+        mockMvc.perform(get("/api/orders/{id}/status", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("REJECTED"))
+                .andExpect(jsonPath("$.sagaStep").value("FAILED"))
+                .andExpect(jsonPath("$.failureReason").value("Insufficient stock"));
+    }
+
+    @Test
+    void getOrderStatus_WhenOrderIsUnknown_ShouldReturn404Status() throws Exception {
+        when(orderSagaOrchestrator.getStatus(1L)).thenReturn(null);
+
+        mockMvc.perform(get("/api/orders/{id}/status", 1L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void streamOrderEvents_ShouldOpenEventStream() throws Exception {
+        when(orderService.getOrderById(1L)).thenReturn(order1);
+        when(orderStatusSubscriptions.subscribeToOrder(order1)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/orders/{id}/events", 1L)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(orderStatusSubscriptions, times(1)).subscribeToOrder(order1);
+    }
+
+    @Test
+    void streamOrderEvents_WhenOrderIsUnknown_ShouldReturn404Status() throws Exception {
+        when(orderService.getOrderById(1L)).thenReturn(null);
+
+        mockMvc.perform(get("/api/orders/{id}/events", 1L)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isNotFound());
+
+        verify(orderStatusSubscriptions, never()).subscribeToOrder(any());
+    }
+
+    @Test
+    void streamUserOrderEvents_ShouldOpenEventStream() throws Exception {
+        when(orderStatusSubscriptions.subscribeToUser(111L)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/orders/user/{userId}/events", 111L)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(orderStatusSubscriptions, times(1)).subscribeToUser(111L);
     }
 
     @Test
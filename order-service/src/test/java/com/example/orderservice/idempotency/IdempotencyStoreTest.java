@@ -0,0 +1,205 @@
+package com.example.orderservice.idempotency;
+
+import com.example.orderservice.entity.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyStoreTest {
+    private static final String REDIS_KEY = "idempotency::client-1:key-1";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private SimpleMeterRegistry meterRegistry;
+    private IdempotencyStore idempotencyStore;
+    private Order order;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        lenient().doReturn(valueOperations).when(redisTemplate).opsForValue();
+        meterRegistry = new SimpleMeterRegistry();
+        idempotencyStore = new IdempotencyStore(redisTemplate, objectMapper, meterRegistry, Duration.ofHours(24),
+                Duration.ofSeconds(30), Duration.ofMillis(200), Duration.ofMillis(10), 1000, 3);
+        order = new Order();
+        order.setId(1L);
+        order.setStatus("PENDING");
+        executions = new AtomicInteger();
+    }
+
+    @Test
+    void execute_FirstRequest_ShouldRunActionAndStoreResponse() {
+        stubClaim(true);
+
+        ResponseEntity<Order> response = idempotencyStore.execute("client-1", "key-1", order, Order.class, action());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(executions).hasValue(1);
+        verify(valueOperations, times(1)).set(eq(REDIS_KEY), contains("\"status\":202"), eq(Duration.ofHours(24)));
+        assertThat(meterRegistry.counter("idempotency.requests", "result", "executed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_SameKeyTwice_ShouldReplayLocallyWithoutRunningActionAgain() {
+        stubClaim(true);
+
+        idempotencyStore.execute("client-1", "key-1", order, Order.class, action());
+        ResponseEntity<Order> replayed = idempotencyStore.execute("client-1", "key-1", order, Order.class, action());
+
+        assertThat(executions).hasValue(1);
+        assertThat(replayed.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(replayed.getBody()).isEqualTo(order);
+        assertThat(replayed.getHeaders().getFirst("Location")).isEqualTo("/api/orders/1/status");
+        assertThat(replayed.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+        verify(valueOperations, times(1)).setIfAbsent(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void execute_WhenAnotherInstanceStoredResponse_ShouldReplayFromRedis() throws Exception {
+        StoredResponse stored = new StoredResponse(202, Map.of("Location", List.of("/api/orders/1/status")),
+                objectMapper.writeValueAsString(order), null);
+        stubClaim(false);
+        doReturn(objectMapper.writeValueAsString(stored)).when(valueOperations).get(REDIS_KEY);
+
+        ResponseEntity<Order> replayed = idempotencyStore.execute("client-1", "key-1", order, Order.class, action());
+
+        assertThat(executions).hasValue(0);
+        assertThat(replayed.getBody()).isEqualTo(order);
+        assertThat(meterRegistry.counter("idempotency.requests", "result", "replayed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_ConcurrentDuplicates_ShouldWaitForInFlightResult() throws Exception {
+        stubClaim(true);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<ResponseEntity<Order>> slowAction = () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return action().get();
+        };
+
+        CompletableFuture<ResponseEntity<Order>> first = CompletableFuture.supplyAsync(
+                () -> idempotencyStore.execute("client-1", "key-1", order, Order.class, slowAction));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<ResponseEntity<Order>> duplicate = CompletableFuture.supplyAsync(
+                () -> idempotencyStore.execute("client-1", "key-1", order, Order.class, action()));
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getBody()).isEqualTo(order);
+        assertThat(duplicate.get(5, TimeUnit.SECONDS).getBody()).isEqualTo(order);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void execute_WhenActionFails_ShouldReleaseKeySoRetryRuns() {
+        stubClaim(true);
+
+        assertThatThrownBy(() -> idempotencyStore.execute("client-1", "key-1", order, Order.class, () -> {
+            throw new IllegalArgumentException("Product 33 not found");
+        })).isInstanceOf(IllegalArgumentException.class);
+        ResponseEntity<Order> retried = idempotencyStore.execute("client-1", "key-1", order, Order.class, action());
+
+        verify(redisTemplate, times(1)).delete(REDIS_KEY);
+        assertThat(executions).hasValue(1);
+        assertThat(retried.getBody()).isEqualTo(order);
+    }
+
+    @Test
+    void execute_WhenOtherInstanceStaysInFlight_ShouldThrowConflict() {
+        stubClaim(false);
+        doReturn(IdempotencyStore.IN_FLIGHT).when(valueOperations).get(REDIS_KEY);
+
+        assertThatThrownBy(() -> idempotencyStore.execute("client-1", "key-1", order, Order.class, action()))
+                .isInstanceOf(IdempotencyConflictException.class);
+        assertThat(executions).hasValue(0);
+    }
+
+    @Test
+    void execute_SameKeyWithDifferentBody_ShouldRejectWithoutRunningAction() {
+        stubClaim(true);
+        Order otherOrder = new Order();
+        otherOrder.setId(2L);
+
+        idempotencyStore.execute("client-1", "key-1", order, Order.class, action());
+
+        assertThatThrownBy(() -> idempotencyStore.execute("client-1", "key-1", otherOrder, Order.class, action()))
+                .isInstanceOf(IdempotencyMismatchException.class);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void execute_WhenOtherInstanceRunsSameKeyWithDifferentBody_ShouldRejectImmediately() {
+        stubClaim(false);
+        doReturn(IdempotencyStore.inFlight("other-fingerprint")).when(valueOperations).get(REDIS_KEY);
+
+        assertThatThrownBy(() -> idempotencyStore.execute("client-1", "key-1", order, Order.class, action()))
+                .isInstanceOf(IdempotencyMismatchException.class);
+        verify(valueOperations, times(1)).get(REDIS_KEY);
+        assertThat(executions).hasValue(0);
+    }
+
+    @Test
+    void execute_WithoutClientId_ShouldRejectRequest() {
+        assertThatThrownBy(() -> idempotencyStore.execute(null, "key-1", order, Order.class, action()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(executions).hasValue(0);
+        verifyNoInteractions(valueOperations);
+    }
+
+    @Test
+    void execute_WhenStoringResponseKeepsFailing_ShouldRetryThenHoldKeyInFlight() {
+        stubClaim(true);
+        doThrow(new IllegalStateException("redis down")).when(valueOperations)
+                .set(eq(REDIS_KEY), anyString(), eq(Duration.ofHours(24)));
+
+        ResponseEntity<Order> response = idempotencyStore.execute("client-1", "key-1", order, Order.class, action());
+
+        assertThat(response.getBody()).isEqualTo(order);
+        verify(valueOperations, times(3)).set(eq(REDIS_KEY), anyString(), eq(Duration.ofHours(24)));
+        verify(redisTemplate, times(1)).expire(REDIS_KEY, Duration.ofHours(24));
+        assertThat(meterRegistry.counter("idempotency.store.failures").count()).isEqualTo(1);
+    }
+
+    private void stubClaim(boolean acquired) {
+        doReturn(acquired).when(valueOperations)
+                .setIfAbsent(eq(REDIS_KEY), startsWith(IdempotencyStore.IN_FLIGHT + ":"), eq(Duration.ofSeconds(30)));
+    }
+
+    private Supplier<ResponseEntity<Order>> action() {
+        return () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.accepted().header("Location", "/api/orders/1/status").body(order);
+        };
+    }
+}
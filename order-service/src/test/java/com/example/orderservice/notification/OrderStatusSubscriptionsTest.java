@@ -0,0 +1,186 @@
+package com.example.orderservice.notification;
+
+import com.example.orderservice.dto.OrderStatusEventDTO;
+import com.example.orderservice.entity.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderStatusSubscriptionsTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+    private OrderStatusSubscriptions subscriptions;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        subscriptions = new OrderStatusSubscriptions(objectMapper, new SimpleMeterRegistry(), List.of(Runnable::run)) {
+            @Override
+            SseEmitter createEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        ReflectionTestUtils.setField(subscriptions, "writeDeadline", Duration.ofSeconds(5));
+        order = new Order();
+        order.setId(1L);
+        order.setUserId(111L);
+        order.setStatus("PENDING");
+    }
+
+    @Test
+    void subscribeToOrder_ShouldSendCurrentStatusFirst() {
+        subscriptions.subscribeToOrder(order);
+
+        assertThat(emitters).hasSize(1);
+        assertThat(emitters.get(0).sent).containsExactly("PENDING");
+    }
+
+    @Test
+    void onMessage_ShouldDeliverToOrderAndUserSubscribers() throws Exception {
+        subscriptions.subscribeToOrder(order);
+        subscriptions.subscribeToUser(111L);
+        subscriptions.subscribeToUser(222L);
+
+        subscriptions.onMessage(message(new OrderStatusEventDTO(1L, 111L, "PAID", Instant.now())), null);
+
+        assertThat(emitters.get(0).sent).containsExactly("PENDING", "PAID");
+        assertThat(emitters.get(1).sent).containsExactly("PAID");
+        assertThat(emitters.get(2).sent).isEmpty();
+    }
+
+    @Test
+    void onMessage_WhenClientIsGone_ShouldDropSubscriber() throws Exception {
+        subscriptions.subscribeToUser(111L);
+        emitters.get(0).failing = true;
+
+        subscriptions.onMessage(message(new OrderStatusEventDTO(1L, 111L, "PAID", Instant.now())), null);
+        subscriptions.onMessage(message(new OrderStatusEventDTO(1L, 111L, "CONFIRMED", Instant.now())), null);
+
+        assertThat(subscriptions.getConnections()).isZero();
+        assertThat(emitters.get(0).attempts).isEqualTo(1);
+    }
+
+    @Test
+    void onMessage_WithManyIdleSubscribers_ShouldOnlyTouchMatchingStreams() throws Exception {
+        int idleSubscribers = 50_000;
+        for (long userId = 1; userId <= idleSubscribers; userId++) {
+            subscriptions.subscribeToUser(userId);
+        }
+
+        subscriptions.onMessage(message(new OrderStatusEventDTO(1L, 42L, "PAID", Instant.now())), null);
+
+        assertThat(subscriptions.getConnections()).isEqualTo(idleSubscribers);
+        assertThat(emitters.stream().filter(emitter -> emitter.attempts > 0)).containsExactly(emitters.get(41));
+    }
+
+    @Test
+    void onMessage_WhenSendQueueIsFull_ShouldDropSubscriberInsteadOfBlocking() throws Exception {
+        subscriptions = new OrderStatusSubscriptions(objectMapper, new SimpleMeterRegistry(), List.of(task -> {
+            throw new RejectedExecutionException("queue full");
+        })) {
+            @Override
+            SseEmitter createEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        subscriptions.subscribeToUser(111L);
+
+        subscriptions.onMessage(message(new OrderStatusEventDTO(1L, 111L, "PAID", Instant.now())), null);
+
+        assertThat(subscriptions.getConnections()).isZero();
+        assertThat(emitters.get(0).attempts).isZero();
+    }
+
+    @Test
+    void sendHeartbeats_WhenWriteExceedsDeadline_ShouldDropStalledSubscriber() throws Exception {
+        ExecutorService lane = Executors.newSingleThreadExecutor();
+        subscriptions = new OrderStatusSubscriptions(objectMapper, new SimpleMeterRegistry(), List.of(lane)) {
+            @Override
+            SseEmitter createEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        ReflectionTestUtils.setField(subscriptions, "writeDeadline", Duration.ZERO);
+        try {
+            subscriptions.subscribeToUser(111L);
+            RecordingEmitter stalled = emitters.get(0);
+            stalled.stall = new CountDownLatch(1);
+            subscriptions.onMessage(message(new OrderStatusEventDTO(1L, 111L, "PAID", Instant.now())), null);
+            assertThat(stalled.sending.await(5, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(5);
+
+            subscriptions.sendHeartbeats();
+
+            assertThat(subscriptions.getConnections()).isZero();
+            stalled.stall.countDown();
+        } finally {
+            lane.shutdownNow();
+        }
+    }
+
+    private DefaultMessage message(OrderStatusEventDTO event) throws Exception {
+        return new DefaultMessage("order-status".getBytes(StandardCharsets.UTF_8),
+                objectMapper.writeValueAsBytes(event));
+    }
+
+    private class RecordingEmitter extends SseEmitter {
+        private final List<String> sent = new ArrayList<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private boolean failing;
+        private int attempts;
+        private CountDownLatch stall;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            attempts++;
+            sending.countDown();
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            if (stall != null) {
+                try {
+                    stall.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            builder.build().stream()
+                    .map(data -> data.getData().toString())
+                    .filter(data -> data.startsWith("{"))
+                    .forEach(data -> sent.add(readStatus(data)));
+        }
+
+        private String readStatus(String json) {
+            try {
+                return objectMapper.readValue(json, OrderStatusEventDTO.class).getStatus();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
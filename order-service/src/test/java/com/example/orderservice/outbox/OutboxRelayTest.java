@@ -0,0 +1,105 @@
+package com.example.orderservice.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        outboxRelay = new OutboxRelay(outboxEventRepository, redisTemplate, transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(outboxRelay, "source", "order-service");
+        ReflectionTestUtils.setField(outboxRelay, "stream", "events.order");
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 2);
+        ReflectionTestUtils.setField(outboxRelay, "maxStreamLength", 1000L);
+        ReflectionTestUtils.setField(outboxRelay, "claimTimeout", Duration.ofSeconds(30));
+    }
+
+    @Test
+    void relay_ShouldPublishPendingEventsInBatchesAndMarkThemPublished() {
+        when(outboxEventRepository.lockNextBatch(eq(2), any(Instant.class)))
+                .thenReturn(List.of(newEvent(1L), newEvent(2L)))
+                .thenReturn(List.of(newEvent(3L)));
+
+        outboxRelay.relay();
+
+        verify(redisTemplate, times(2)).executePipelined(any(RedisCallback.class));
+        verify(outboxEventRepository, times(1)).claim(eq(List.of(1L, 2L)), any(Instant.class));
+        verify(outboxEventRepository, times(1)).markPublished(eq(List.of(1L, 2L)), any(Instant.class));
+        verify(outboxEventRepository, times(1)).markPublished(eq(List.of(3L)), any(Instant.class));
+        verify(transactionManager, times(4)).commit(any());
+        assertThat(meterRegistry.counter("outbox.relay.published").count()).isEqualTo(3.0);
+        assertThat(meterRegistry.summary("outbox.relay.batch.size").count()).isEqualTo(2);
+        assertThat(meterRegistry.timer("outbox.relay.lag").count()).isEqualTo(3);
+    }
+
+    @Test
+    void relay_WhenNothingIsPending_ShouldNotPublish() {
+        when(outboxEventRepository.lockNextBatch(eq(2), any(Instant.class))).thenReturn(List.of());
+
+        outboxRelay.relay();
+
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+        verify(outboxEventRepository, never()).markPublished(anyCollection(), any());
+        assertThat(meterRegistry.get("outbox.relay.oldest.pending.age").gauge().value()).isZero();
+    }
+
+    @Test
+    void relayBatch_ShouldPublishOnlyAfterClaimTransactionReleasedRowLocks() {
+        when(outboxEventRepository.lockNextBatch(eq(2), any(Instant.class))).thenReturn(List.of(newEvent(1L)));
+
+        outboxRelay.relayBatch();
+
+        InOrder inOrder = inOrder(outboxEventRepository, transactionManager, redisTemplate);
+        inOrder.verify(outboxEventRepository).claim(eq(List.of(1L)), any(Instant.class));
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(redisTemplate).executePipelined(any(RedisCallback.class));
+        inOrder.verify(outboxEventRepository).markPublished(eq(List.of(1L)), any(Instant.class));
+    }
+
+    @Test
+    void relayBatch_WhenPublishFails_ShouldLeaveClaimedEventsUnpublishedForRetry() {
+        when(outboxEventRepository.lockNextBatch(eq(2), any(Instant.class))).thenReturn(List.of(newEvent(1L)));
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        assertThatThrownBy(() -> outboxRelay.relayBatch()).isInstanceOf(RedisConnectionFailureException.class);
+
+        verify(outboxEventRepository, times(1)).claim(eq(List.of(1L)), any(Instant.class));
+        verify(outboxEventRepository, never()).markPublished(anyCollection(), any());
+    }
+
+    private OutboxEvent newEvent(Long id) {
+        return new OutboxEvent(id, "Order", String.valueOf(id), "OrderCreated", "{}",
+                Instant.now().minusMillis(50), null, null);
+    }
+}
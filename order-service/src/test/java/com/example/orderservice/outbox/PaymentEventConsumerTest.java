@@ -0,0 +1,113 @@
+package com.example.orderservice.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStreamCommands.XClaimOptions;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentEventConsumerTest {
+    @Mock
+    private PaymentEventHandler paymentEventHandler;
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private StreamOperations<String, Object, Object> streamOperations;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentEventConsumer paymentEventConsumer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        paymentEventConsumer = new PaymentEventConsumer(paymentEventHandler, redisTemplate, meterRegistry);
+        ReflectionTestUtils.setField(paymentEventConsumer, "stream", "events.payment");
+        ReflectionTestUtils.setField(paymentEventConsumer, "group", "order-service");
+        ReflectionTestUtils.setField(paymentEventConsumer, "consumerName", "order-service-1");
+        ReflectionTestUtils.setField(paymentEventConsumer, "batchSize", 100);
+        ReflectionTestUtils.setField(paymentEventConsumer, "retryMinIdle", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(paymentEventConsumer, "maxDeliveries", 10L);
+        ReflectionTestUtils.setField(paymentEventConsumer, "deadLetterStream", "events.payment.dead-letter");
+        doReturn(streamOperations).when(redisTemplate).opsForStream();
+    }
+
+    @Test
+    void retryPending_WhenEntryIsIdle_ShouldClaimAndReprocessIt() {
+        RecordId recordId = RecordId.of("1-0");
+        doReturn(pending(new PendingMessage(recordId, Consumer.from("order-service", "order-service-2"),
+                Duration.ofMinutes(5), 2))).when(streamOperations)
+                .pending("events.payment", "order-service", Range.unbounded(), 100L);
+        doReturn(List.of(record(recordId))).when(streamOperations)
+                .claim(eq("events.payment"), eq("order-service"), eq("order-service-1"), any(XClaimOptions.class));
+
+        paymentEventConsumer.retryPending();
+
+        verify(paymentEventHandler).handle("payment-service:1", "PaymentCompleted", "{}");
+        verify(streamOperations).acknowledge("events.payment", "order-service", recordId);
+        verify(streamOperations, never()).add(any(MapRecord.class));
+        assertThat(meterRegistry.counter("outbox.consumer.retried").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void retryPending_WhenEntryWasDeliveredTooOften_ShouldMoveItToDeadLetterStream() {
+        RecordId recordId = RecordId.of("1-0");
+        doReturn(pending(new PendingMessage(recordId, Consumer.from("order-service", "order-service-2"),
+                Duration.ofMinutes(5), 10))).when(streamOperations)
+                .pending("events.payment", "order-service", Range.unbounded(), 100L);
+        doReturn(List.of(record(recordId))).when(streamOperations)
+                .claim(eq("events.payment"), eq("order-service"), eq("order-service-1"), any(XClaimOptions.class));
+
+        paymentEventConsumer.retryPending();
+
+        ArgumentCaptor<MapRecord> deadLetter = ArgumentCaptor.forClass(MapRecord.class);
+        verify(streamOperations).add(deadLetter.capture());
+        assertThat(deadLetter.getValue().getStream()).isEqualTo("events.payment.dead-letter");
+        assertThat(deadLetter.getValue().getValue()).containsEntry("sourceRecordId", "1-0");
+        verify(streamOperations).acknowledge("events.payment", "order-service", recordId);
+        verifyNoInteractions(paymentEventHandler);
+        assertThat(meterRegistry.counter("outbox.consumer.dead.lettered").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void retryPending_WhenEntryIsStillBeingProcessed_ShouldLeaveIt() {
+        doReturn(pending(new PendingMessage(RecordId.of("1-0"), Consumer.from("order-service", "order-service-2"),
+                Duration.ofSeconds(5), 1))).when(streamOperations)
+                .pending("events.payment", "order-service", Range.unbounded(), 100L);
+
+        paymentEventConsumer.retryPending();
+
+        verify(streamOperations, never()).claim(anyString(), anyString(), anyString(), any(XClaimOptions.class));
+        verifyNoInteractions(paymentEventHandler);
+    }
+
+    private PendingMessages pending(PendingMessage message) {
+        return new PendingMessages("order-service", List.of(message));
+    }
+
+    private MapRecord<String, Object, Object> record(RecordId recordId) {
+        Map<Object, Object> fields = Map.of("eventId", "payment-service:1", "type", "PaymentCompleted",
+                "payload", "{}");
+        return StreamRecords.newRecord().in("events.payment").withId(recordId).ofMap(fields);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.orderservice.outbox;
+
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.saga.OrderSagaOrchestrator;
+import com.example.orderservice.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentEventHandlerTest {
+    private static final String PAYLOAD = "{\"id\":5,\"orderId\":7,\"amount\":10.0,\"status\":\"COMPLETED\"}";
+
+    @Mock
+    private ProcessedEventRepository processedEventRepository;
+    @Mock
+    private OrderService orderService;
+    @Mock
+    private OrderSagaOrchestrator orderSagaOrchestrator;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+    @InjectMocks
+    private PaymentEventHandler paymentEventHandler;
+
+    @Test
+    void handle_PaymentCompletedForSagaOrder_ShouldResumeSaga() {
+        when(processedEventRepository.markProcessed("payment-service:5")).thenReturn(1);
+        when(orderSagaOrchestrator.onPaymentCompleted(7L)).thenReturn(true);
+
+        boolean handled = paymentEventHandler.handle("payment-service:5", PaymentEventHandler.PAYMENT_COMPLETED,
+                PAYLOAD);
+
+        assertThat(handled).isTrue();
+        verify(orderService, never()).updateOrderStatus(anyLong(), anyString());
+    }
+
+    @Test
+    void handle_PaymentCompleted_ShouldMarkOrderPaid() {
+        when(processedEventRepository.markProcessed("payment-service:5")).thenReturn(1);
+        when(orderService.getOrderById(7L)).thenReturn(new Order());
+
+        boolean handled = paymentEventHandler.handle("payment-service:5", PaymentEventHandler.PAYMENT_COMPLETED,
+                PAYLOAD);
+
+        assertThat(handled).isTrue();
+        verify(orderService, times(1)).updateOrderStatus(7L, PaymentEventHandler.PAID_STATUS);
+    }
+
+    @Test
+    void handle_WhenEventWasAlreadyProcessed_ShouldSkipIt() {
+        when(processedEventRepository.markProcessed("payment-service:5")).thenReturn(0);
+
+        boolean handled = paymentEventHandler.handle("payment-service:5", PaymentEventHandler.PAYMENT_COMPLETED,
+                PAYLOAD);
+
+        assertThat(handled).isFalse();
+        verify(orderService, never()).updateOrderStatus(anyLong(), anyString());
+    }
+
+    @Test
+    void handle_WhenOrderIsUnknown_ShouldFailSoTheEventIsRetried() {
+        when(processedEventRepository.markProcessed("payment-service:5")).thenReturn(1);
+        when(orderService.getOrderById(7L)).thenReturn(null);
+
+        assertThatThrownBy(() -> paymentEventHandler.handle("payment-service:5",
+                PaymentEventHandler.PAYMENT_COMPLETED, PAYLOAD))
+                .isInstanceOf(IllegalStateException.class);
+        verify(orderService, never()).updateOrderStatus(anyLong(), anyString());
+    }
+}
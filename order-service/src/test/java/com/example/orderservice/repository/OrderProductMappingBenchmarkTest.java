@@ -0,0 +1,134 @@
+package com.example.orderservice.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.Array;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_JDBC_URL", matches = ".+")
+class OrderProductMappingBenchmarkTest {
+    private static final int ORDERS = 10_000;
+    private static final int PRODUCTS_PER_ORDER = 5;
+    private static final int BATCH_SIZE = 100;
+    private static final int ROUNDS = 5;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private String suffix;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getenv("BENCHMARK_JDBC_URL"));
+        dataSource.setUsername(System.getenv().getOrDefault("BENCHMARK_JDBC_USERNAME", "postgres"));
+        dataSource.setPassword(System.getenv().getOrDefault("BENCHMARK_JDBC_PASSWORD", "postgres"));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        suffix = "_bench_" + Long.toHexString(System.nanoTime());
+
+        jdbcTemplate.execute("create table orders_array" + suffix + " (id bigint primary key, product_ids bigint[])");
+        jdbcTemplate.execute("create table orders_table" + suffix + " (id bigint primary key)");
+        jdbcTemplate.execute("create table order_products" + suffix + " (order_id bigint, product_id bigint)");
+        jdbcTemplate.batchUpdate("insert into orders_array" + suffix + " values (?, ?::bigint[])",
+                LongStream.rangeClosed(1, ORDERS).mapToObj(id -> new Object[]{id, productIdsLiteral(id)}).toList());
+        jdbcTemplate.batchUpdate("insert into orders_table" + suffix + " values (?)",
+                LongStream.rangeClosed(1, ORDERS).mapToObj(id -> new Object[]{id}).toList());
+        jdbcTemplate.batchUpdate("insert into order_products" + suffix + " values (?, ?)",
+                LongStream.rangeClosed(1, ORDERS).boxed()
+                        .flatMap(id -> productIds(id).stream().map(productId -> new Object[]{id, productId}))
+                        .toList());
+        jdbcTemplate.execute("create index on orders_array" + suffix + " using gin (product_ids)");
+        jdbcTemplate.execute("create index on order_products" + suffix + " (order_id)");
+        jdbcTemplate.execute("create index on order_products" + suffix + " (product_id)");
+        jdbcTemplate.execute("analyze orders_array" + suffix);
+        jdbcTemplate.execute("analyze order_products" + suffix);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("drop table if exists orders_array" + suffix);
+        jdbcTemplate.execute("drop table if exists orders_table" + suffix);
+        jdbcTemplate.execute("drop table if exists order_products" + suffix);
+        dataSource.close();
+    }
+
+    @Test
+    void loadAllOrders_ArrayColumnVersusBatchFetchedElementCollection() {
+        Map<Long, List<Long>> fromArray = measure("bigint[] column", this::loadFromArrayColumn);
+        Map<Long, List<Long>> fromTable = measure("element collection, batch " + BATCH_SIZE,
+                this::loadFromElementCollection);
+
+        assertThat(fromArray).hasSize(ORDERS);
+        assertThat(fromTable).isEqualTo(fromArray);
+    }
+
+    @Test
+    void findOrdersContainingProduct_ArrayGinIndexVersusCollectionTableIndex() {
+        List<Long> fromArray = measure("bigint[] @> lookup", () -> jdbcTemplate.queryForList(
+                "select id from orders_array" + suffix + " where product_ids @> array[?]::bigint[] order by id",
+                Long.class, 7L));
+        List<Long> fromTable = measure("collection table lookup", () -> jdbcTemplate.queryForList(
+                "select distinct order_id from order_products" + suffix + " where product_id = ? order by order_id",
+                Long.class, 7L));
+
+        assertThat(fromArray).isNotEmpty().isEqualTo(fromTable);
+    }
+
+    private Map<Long, List<Long>> loadFromArrayColumn() {
+        Map<Long, List<Long>> orders = new HashMap<>();
+        jdbcTemplate.query("select id, product_ids from orders_array" + suffix, rs -> {
+            Array array = rs.getArray("product_ids");
+            orders.put(rs.getLong("id"), Arrays.asList((Long[]) array.getArray()));
+        });
+        return orders;
+    }
+
+    private Map<Long, List<Long>> loadFromElementCollection() {
+        List<Long> ids = jdbcTemplate.queryForList("select id from orders_table" + suffix, Long.class);
+        Map<Long, List<Long>> orders = new HashMap<>();
+        ids.forEach(id -> orders.put(id, new ArrayList<>()));
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            String placeholders = batch.stream().map(id -> "?").collect(Collectors.joining(","));
+            jdbcTemplate.query("select order_id, product_id from order_products" + suffix +
+                            " where order_id in (" + placeholders + ") order by order_id, product_id",
+                    (RowCallbackHandler) rs -> orders.get(rs.getLong("order_id")).add(rs.getLong("product_id")),
+                    batch.toArray());
+        }
+        return orders;
+    }
+
+    private <T> T measure(String mapping, Supplier<T> load) {
+        T result = load.get();
+        long startedAt = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            result = load.get();
+        }
+        Duration elapsed = Duration.ofNanos((System.nanoTime() - startedAt) / ROUNDS);
+        System.out.printf("%s over %d orders: %d ms%n", mapping, ORDERS, elapsed.toMillis());
+        return result;
+    }
+
+    private static List<Long> productIds(long orderId) {
+        return LongStream.range(0, PRODUCTS_PER_ORDER).map(i -> orderId % 997 + i * 1000).boxed().toList();
+    }
+
+    private static String productIdsLiteral(long orderId) {
+        return productIds(orderId).stream().map(String::valueOf).collect(Collectors.joining(",", "{", "}"));
+    }
+}
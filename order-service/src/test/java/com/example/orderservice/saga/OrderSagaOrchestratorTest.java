@@ -0,0 +1,322 @@
+package com.example.orderservice.saga;
+
+import com.example.orderservice.client.InventoryClient;
+import com.example.orderservice.client.PaymentClient;
+import com.example.orderservice.dto.PaymentDTO;
+import com.example.orderservice.dto.StockItemDTO;
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.entity.OrderLine;
+import com.example.orderservice.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderSagaOrchestratorTest {
+    private static final List<StockItemDTO> STOCK_ITEMS = List.of(new StockItemDTO(11L, 2), new StockItemDTO(22L, 1));
+
+    @Mock
+    private OrderSagaRepository orderSagaRepository;
+    @Mock
+    private OrderService orderService;
+    @Mock
+    private InventoryClient inventoryClient;
+    @Mock
+    private PaymentClient paymentClient;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ExecutorService sagaExecutor;
+
+    private OrderSagaOrchestrator orderSagaOrchestrator;
+    private Order order;
+    private OrderSaga saga;
+
+    @BeforeEach
+    void setUp() {
+        orderSagaOrchestrator = new OrderSagaOrchestrator(orderSagaRepository, orderService, inventoryClient,
+                paymentClient, transactionManager, new SimpleMeterRegistry(), sagaExecutor);
+        ReflectionTestUtils.setField(orderSagaOrchestrator, "stepTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(orderSagaOrchestrator, "paymentTimeout", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(orderSagaOrchestrator, "retryBackoff", Duration.ofSeconds(1));
+        order = new Order();
+        order.setId(1L);
+        order.setUserId(111L);
+        order.setProductIds(List.of(11L, 22L, 11L));
+        order.setTotalPrice(30.0);
+        saga = new OrderSaga();
+        saga.setOrderId(1L);
+        saga.setStep(SagaStep.VALIDATE);
+        saga.setStepDeadline(Instant.now().plusSeconds(5));
+        saga.setNextAttemptAt(Instant.now());
+    }
+
+    @Test
+    void start_ShouldPriceOrderBeforeTransactionThenPersistOrderAndSagaAndDispatch() {
+        doReturn(saga).when(orderSagaRepository).save(any(OrderSaga.class));
+
+        orderSagaOrchestrator.start(order);
+
+        ArgumentCaptor<OrderSaga> sagaCaptor = ArgumentCaptor.forClass(OrderSaga.class);
+        InOrder inOrder = inOrder(orderService, transactionManager);
+        inOrder.verify(orderService).priceOrder(order);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(orderService).createOrder(order);
+        verify(orderSagaRepository, times(1)).save(sagaCaptor.capture());
+        assertThat(sagaCaptor.getValue().getOrderId()).isEqualTo(1L);
+        assertThat(sagaCaptor.getValue().getStep()).isEqualTo(SagaStep.VALIDATE);
+        verify(sagaExecutor, times(1)).execute(any(Runnable.class));
+    }
+
+    @Test
+    void advance_ShouldRunStepsUntilPaymentIsAwaited() {
+        givenClaimedSaga();
+        PaymentDTO payment = new PaymentDTO();
+        payment.setId(9L);
+        doReturn(null).when(orderService).validateOrder(order);
+        doReturn(Mono.empty()).when(inventoryClient).reserveStock(1L, STOCK_ITEMS);
+        doReturn(Mono.just(payment)).when(paymentClient).createPayment(any(PaymentDTO.class), eq("order-1-payment"));
+
+        orderSagaOrchestrator.advance(1L);
+
+        assertThat(saga.getStep()).isEqualTo(SagaStep.AWAIT_PAYMENT);
+        assertThat(saga.getPaymentId()).isEqualTo(9L);
+        assertThat(saga.getNextAttemptAt()).isEqualTo(saga.getStepDeadline());
+        assertThat(saga.getLockedUntil()).isNull();
+        verify(orderSagaRepository, times(4)).save(saga);
+        verify(orderService, never()).updateOrderStatus(anyLong(), anyString());
+    }
+
+    @Test
+    void advance_WhenOrderHasLines_ShouldReserveLineQuantities() {
+        givenClaimedSaga();
+        saga.setStep(SagaStep.RESERVE_INVENTORY);
+        order.setLines(List.of(new OrderLine(22L, 1, 10.0), new OrderLine(11L, 2, 5.0)));
+        doReturn(Mono.empty()).when(inventoryClient).reserveStock(1L, STOCK_ITEMS);
+        doReturn(Mono.error(new IllegalStateException("payment-service down")))
+                .when(paymentClient).createPayment(any(PaymentDTO.class), eq("order-1-payment"));
+
+        orderSagaOrchestrator.advance(1L);
+
+        verify(inventoryClient, times(1)).reserveStock(1L, STOCK_ITEMS);
+    }
+
+    @Test
+    void advance_WhenPaymentCompleted_ShouldCommitStockAndConfirmOrder() {
+        givenClaimedSaga();
+        saga.setStep(SagaStep.AWAIT_PAYMENT);
+        saga.setPaymentCompletedAt(Instant.now());
+        doReturn(Mono.empty()).when(inventoryClient).commitStock(1L);
+
+        orderSagaOrchestrator.advance(1L);
+
+        assertThat(saga.getStep()).isEqualTo(SagaStep.COMPLETED);
+        InOrder inOrder = inOrder(orderService);
+        inOrder.verify(orderService).updateOrderStatus(1L, OrderSagaOrchestrator.PAID_STATUS);
+        inOrder.verify(orderService).updateOrderStatus(1L, OrderSagaOrchestrator.CONFIRMED_STATUS);
+    }
+
+    @Test
+    void advance_WhenValidationFails_ShouldRejectOrder() {
+        givenClaimedSaga();
+        doReturn("User not found").when(orderService).validateOrder(order);
+
+        orderSagaOrchestrator.advance(1L);
+
+        assertThat(saga.getStep()).isEqualTo(SagaStep.FAILED);
+        assertThat(saga.getFailureReason()).isEqualTo("User not found");
+        verify(orderService, times(1)).updateOrderStatus(1L, OrderSagaOrchestrator.REJECTED_STATUS);
+        verifyNoInteractions(inventoryClient, paymentClient);
+    }
+
+    @Test
+    void advance_WhenStockIsShort_ShouldRejectWithoutCompensation() {
+        givenClaimedSaga();
+        saga.setStep(SagaStep.RESERVE_INVENTORY);
+        doReturn(Mono.error(WebClientResponseException.create(409, "Conflict", HttpHeaders.EMPTY, new byte[0], null)))
+                .when(inventoryClient).reserveStock(1L, STOCK_ITEMS);
+
+        orderSagaOrchestrator.advance(1L);
+
+        assertThat(saga.getStep()).isEqualTo(SagaStep.FAILED);
+        assertThat(saga.getFailureReason()).isEqualTo("Insufficient stock");
+        verify(inventoryClient, never()).releaseStock(anyLong());
+    }
+
+    @Test
+    void advance_WhenPaymentIsRejected_ShouldRefundAndReleaseInventoryThenReject() {
+        givenClaimedSaga();
+        saga.setStep(SagaStep.CREATE_PAYMENT);
+        doReturn(Mono.error(WebClientResponseException.create(422, "Unprocessable Entity", HttpHeaders.EMPTY,
+                new byte[0], null))).when(paymentClient).createPayment(any(PaymentDTO.class), eq("order-1-payment"));
+        doReturn(Mono.just(List.of())).when(paymentClient).refundPaymentsByOrderId(1L);
+        doReturn(Mono.empty()).when(inventoryClient).releaseStock(1L);
+
+        orderSagaOrchestrator.advance(1L);
+
+        assertThat(saga.getStep()).isEqualTo(SagaStep.FAILED);
+        assertThat(saga.getFailureReason()).isEqualTo("Payment failed");
+        InOrder inOrder = inOrder(paymentClient, inventoryClient);
+        inOrder.verify(paymentClient).refundPaymentsByOrderId(1L);
+        inOrder.verify(inventoryClient).releaseStock(1L);
+        verify(orderService, times(1)).updateOrderStatus(1L, OrderSagaOrchestrator.REJECTED_STATUS);
+    }
+
+    @Test
+    void advance_WhenPaymentErrorsBeforeDeadline_ShouldRetryWithSameIdempotencyKey() {
+        givenClaimedSaga();
+        saga.setStep(SagaStep.CREATE_PAYMENT);
+        doReturn(Mono.error(new IllegalStateException("timeout")))
+                .when(paymentClient).createPayment(any(PaymentDTO.class), eq("order-1-payment"));
+
+        orderSagaOrchestrator.advance(1L);
+
+        assertThat(saga.getStep()).isEqualTo(SagaStep.CREATE_PAYMENT);
+        assertThat(saga.getAttempts()).isEqualTo(1);
+        verify(paymentClient, never()).refundPaymentsByOrderId(anyLong());
+        verify(inventoryClient, never()).releaseStock(anyLong());
+    }
+
+    @Test
+    void advance_WhenPaymentTimesOut_ShouldRefundAndReleaseInventory() {
+        givenClaimedSaga();
+        saga.setStep(SagaStep.AWAIT_PAYMENT);
+        saga.setStepDeadline(Instant.now().minusSeconds(1));
+        doReturn(Mono.just(List.of())).when(paymentClient).refundPaymentsByOrderId(1L);
+        doReturn(Mono.empty()).when(inventoryClient).releaseStock(1L);
+
+        orderSagaOrchestrator.advance(1L);
+
+        assertThat(saga.getStep()).isEqualTo(SagaStep.FAILED);
+        assertThat(saga.getFailureReason()).isEqualTo("Payment timed out");
+        verify(paymentClient, times(1)).refundPaymentsByOrderId(1L);
+    }
+
+    @Test
+    void advance_WhenRefundFails_ShouldRetryRefundBeforeReleasingInventory() {
+        givenClaimedSaga();
+        saga.setStep(SagaStep.REFUND_PAYMENT);
+        doReturn(Mono.error(new IllegalStateException("payment-service down")))
+                .when(paymentClient).refundPaymentsByOrderId(1L);
+
+        orderSagaOrchestrator.advance(1L);
+
+        assertThat(saga.getStep()).isEqualTo(SagaStep.REFUND_PAYMENT);
+        verify(inventoryClient, never()).releaseStock(anyLong());
+    }
+
+    @Test
+    void advance_WhenReservationErrorsBeforeDeadline_ShouldRetryWithoutReleasing() {
+        givenClaimedSaga();
+        saga.setStep(SagaStep.RESERVE_INVENTORY);
+        doReturn(Mono.error(WebClientResponseException.create(503, "Service Unavailable", HttpHeaders.EMPTY,
+                new byte[0], null))).when(inventoryClient).reserveStock(1L, STOCK_ITEMS);
+
+        orderSagaOrchestrator.advance(1L);
+
+        assertThat(saga.getStep()).isEqualTo(SagaStep.RESERVE_INVENTORY);
+        assertThat(saga.getAttempts()).isEqualTo(1);
+        verify(inventoryClient, never()).releaseStock(anyLong());
+    }
+
+    @Test
+    void advance_WhenReservationErrorsPastDeadline_ShouldReleaseOnlyThisOrdersReservation() {
+        givenClaimedSaga();
+        saga.setStep(SagaStep.RESERVE_INVENTORY);
+        saga.setStepDeadline(Instant.now().minusSeconds(1));
+        doReturn(Mono.error(new IllegalStateException("timeout"))).when(inventoryClient).reserveStock(1L, STOCK_ITEMS);
+        doReturn(Mono.empty()).when(inventoryClient).releaseStock(1L);
+
+        orderSagaOrchestrator.advance(1L);
+
+        assertThat(saga.getStep()).isEqualTo(SagaStep.FAILED);
+        assertThat(saga.getFailureReason()).isEqualTo("Inventory reservation failed");
+        verify(inventoryClient, times(1)).releaseStock(1L);
+        verifyNoInteractions(paymentClient);
+    }
+
+    @Test
+    void advance_WhenReservedStockWasLostAtConfirmation_ShouldRefundPayment() {
+        givenClaimedSaga();
+        saga.setStep(SagaStep.CONFIRM);
+        doReturn(Mono.error(WebClientResponseException.create(409, "Conflict", HttpHeaders.EMPTY, new byte[0], null)))
+                .when(inventoryClient).commitStock(1L);
+        doReturn(Mono.just(List.of())).when(paymentClient).refundPaymentsByOrderId(1L);
+        doReturn(Mono.empty()).when(inventoryClient).releaseStock(1L);
+
+        orderSagaOrchestrator.advance(1L);
+
+        assertThat(saga.getStep()).isEqualTo(SagaStep.FAILED);
+        verify(paymentClient, times(1)).refundPaymentsByOrderId(1L);
+    }
+
+    @Test
+    void advance_WhenValidationErrorsBeforeDeadline_ShouldScheduleRetry() {
+        givenClaimedSaga();
+        doThrow(new IllegalStateException("timeout")).when(orderService).validateOrder(order);
+
+        orderSagaOrchestrator.advance(1L);
+
+        assertThat(saga.getStep()).isEqualTo(SagaStep.VALIDATE);
+        assertThat(saga.getAttempts()).isEqualTo(1);
+        assertThat(saga.getNextAttemptAt()).isAfter(Instant.now());
+        verify(orderSagaRepository, times(1)).save(saga);
+    }
+
+    @Test
+    void advance_WhenSagaIsNotClaimed_ShouldDoNothing() {
+        doReturn(0).when(orderSagaRepository).claim(eq(1L), anyCollection(), any(Instant.class), any(Instant.class));
+
+        orderSagaOrchestrator.advance(1L);
+
+        verify(orderSagaRepository, never()).findById(anyLong());
+        verifyNoInteractions(orderService, inventoryClient, paymentClient);
+    }
+
+    @Test
+    void onPaymentCompleted_ShouldMarkSagaAndWakeItUp() {
+        doReturn(true).when(orderSagaRepository).existsById(1L);
+        doReturn(1).when(orderSagaRepository).wakeUp(eq(1L), eq(SagaStep.AWAIT_PAYMENT), any(Instant.class));
+
+        boolean handled = orderSagaOrchestrator.onPaymentCompleted(1L);
+
+        assertThat(handled).isTrue();
+        verify(orderSagaRepository, times(1)).markPaymentCompleted(eq(1L), any(Instant.class));
+        verify(sagaExecutor, times(1)).execute(any(Runnable.class));
+    }
+
+    @Test
+    void onPaymentCompleted_WhenOrderHasNoSaga_ShouldReturnFalse() {
+        doReturn(false).when(orderSagaRepository).existsById(1L);
+
+        boolean handled = orderSagaOrchestrator.onPaymentCompleted(1L);
+
+        assertThat(handled).isFalse();
+        verify(orderSagaRepository, never()).markPaymentCompleted(anyLong(), any());
+    }
+
+    private void givenClaimedSaga() {
+        doReturn(1).when(orderSagaRepository).claim(eq(1L), anyCollection(), any(Instant.class), any(Instant.class));
+        doReturn(Optional.of(saga)).when(orderSagaRepository).findById(1L);
+        doReturn(order).when(orderService).getOrderById(1L);
+    }
+}
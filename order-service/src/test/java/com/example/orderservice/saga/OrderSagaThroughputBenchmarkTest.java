@@ -0,0 +1,274 @@
+package com.example.orderservice.saga;
+
+import com.example.orderservice.cache.IdBloomFilter;
+import com.example.orderservice.client.InventoryClient;
+import com.example.orderservice.client.PaymentClient;
+import com.example.orderservice.client.UserClient;
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.notification.OrderStatusNotifier;
+import com.example.orderservice.outbox.OutboxService;
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.service.OrderPricingService;
+import com.example.orderservice.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@EnabledIfEnvironmentVariable(named = "BENCHMARK", matches = "true")
+class OrderSagaThroughputBenchmarkTest {
+    private static final int SAGAS = 500;
+    private static final int WORKER_THREADS = 32;
+    private static final long DOWNSTREAM_DELAY_MS = 2;
+    private static final Duration MAX_RUN_TIME = Duration.ofMinutes(1);
+
+    private final ExecutorService stubExecutor = Executors.newCachedThreadPool();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Long, Order> orders = new ConcurrentHashMap<>();
+    private final Map<Long, OrderSaga> sagas = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HttpServer userServer;
+    private HttpServer inventoryServer;
+    private HttpServer paymentServer;
+    private OrderSagaOrchestrator orderSagaOrchestrator;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        userServer = startStub("/api/users/", body -> "{\"id\":1,\"name\":\"Test User\",\"year\":2024}");
+        inventoryServer = startStub("/api/inventory/",
+                body -> body.startsWith("[{") ? "[]" : "{\"11\":true,\"22\":true}");
+        paymentServer = startStub("/api/payments", this::completePayment);
+
+        OrderService orderService = new OrderService(inMemoryOrderRepository(),
+                new UserClient(webClient(userServer, "/api/users")),
+                new InventoryClient(webClient(inventoryServer, "/api/inventory")),
+                new IdBloomFilter("orders", 1000, 0.01), mock(EntityManager.class), mock(OutboxService.class),
+                mock(OrderStatusNotifier.class, withSettings().stubOnly()),
+                mock(OrderPricingService.class, withSettings().stubOnly()),
+                new ConcurrentMapCacheManager());
+        ReflectionTestUtils.setField(orderService, "callTimeout", Duration.ofSeconds(2));
+        orderSagaOrchestrator = new OrderSagaOrchestrator(inMemorySagaRepository(), orderService,
+                new InventoryClient(webClient(inventoryServer, "/api/inventory")),
+                new PaymentClient(webClient(paymentServer, "/api/payments"), "order-service"),
+                mock(PlatformTransactionManager.class, withSettings().stubOnly()), meterRegistry,
+                WORKER_THREADS, 10_000);
+        ReflectionTestUtils.setField(orderSagaOrchestrator, "stepTimeout", Duration.ofMillis(500));
+        ReflectionTestUtils.setField(orderSagaOrchestrator, "paymentTimeout", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(orderSagaOrchestrator, "retryBackoff", Duration.ofMillis(50));
+        ReflectionTestUtils.setField(orderSagaOrchestrator, "pollBatchSize", 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderSagaOrchestrator.shutdown();
+        userServer.stop(0);
+        inventoryServer.stop(0);
+        paymentServer.stop(0);
+        stubExecutor.shutdownNow();
+    }
+
+    @Test
+    void sagaSteps_WithStubbedDownstreams_ShouldCompleteEveryOrder() throws InterruptedException {
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < SAGAS; i++) {
+            orderSagaOrchestrator.start(newOrder());
+        }
+        Instant giveUpAt = Instant.now().plus(MAX_RUN_TIME);
+        while (!allSagasTerminal() && Instant.now().isBefore(giveUpAt)) {
+            TimeUnit.MILLISECONDS.sleep(50);
+            orderSagaOrchestrator.resumeDueSagas();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startedAt);
+
+        long steps = meterRegistry.find("order.saga.step").timers().stream().mapToLong(Timer::count).sum();
+        System.out.printf("order saga: %d sagas, %d steps, %d ms, %.0f steps/s, %.0f sagas/s%n", SAGAS, steps,
+                elapsed.toMillis(), steps * 1000.0 / Math.max(1, elapsed.toMillis()),
+                SAGAS * 1000.0 / Math.max(1, elapsed.toMillis()));
+        assertThat(sagas.values()).allMatch(saga -> saga.getStep() == SagaStep.COMPLETED);
+        assertThat(orders.values()).allMatch(order -> OrderSagaOrchestrator.CONFIRMED_STATUS.equals(order.getStatus()));
+        assertThat(steps).isGreaterThanOrEqualTo(5L * SAGAS);
+    }
+
+    private boolean allSagasTerminal() {
+        return sagas.size() == SAGAS && sagas.values().stream().allMatch(saga -> saga.getStep().isTerminal());
+    }
+
+    private String completePayment(String body) {
+        try {
+            long orderId = objectMapper.readTree(body).get("orderId").asLong();
+            stubExecutor.execute(() -> orderSagaOrchestrator.onPaymentCompleted(orderId));
+            return "{\"id\":" + orderId + ",\"orderId\":" + orderId + ",\"status\":\"COMPLETED\"}";
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Order newOrder() {
+        Order order = new Order();
+        order.setUserId(1L);
+        order.setProductIds(List.of(11L, 22L));
+        order.setTotalPrice(100.0);
+        return order;
+    }
+
+    private OrderRepository inMemoryOrderRepository() {
+        OrderRepository orderRepository = mock(OrderRepository.class, withSettings().stubOnly());
+        doAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            if (order.getId() == null) {
+                order.setId(ids.incrementAndGet());
+            }
+            orders.put(order.getId(), order);
+            return order;
+        }).when(orderRepository).save(any(Order.class));
+        doAnswer(invocation -> Optional.ofNullable(orders.get(invocation.<Long>getArgument(0))))
+                .when(orderRepository).findById(anyLong());
+        return orderRepository;
+    }
+
+    private OrderSagaRepository inMemorySagaRepository() {
+        OrderSagaRepository orderSagaRepository = mock(OrderSagaRepository.class, withSettings().stubOnly());
+        doAnswer(invocation -> {
+            OrderSaga saga = invocation.getArgument(0);
+            OrderSaga stored = sagas.get(saga.getOrderId());
+            if (stored == null) {
+                saga.setVersion(0L);
+                sagas.put(saga.getOrderId(), copy(saga));
+                return saga;
+            }
+            synchronized (stored) {
+                if (!stored.getVersion().equals(saga.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(OrderSaga.class, saga.getOrderId());
+                }
+                OrderSaga updated = copy(saga);
+                updated.setPaymentCompletedAt(stored.getPaymentCompletedAt());
+                updated.setVersion(stored.getVersion() + 1);
+                sagas.put(saga.getOrderId(), updated);
+                return updated;
+            }
+        }).when(orderSagaRepository).save(any(OrderSaga.class));
+        doAnswer(invocation -> Optional.ofNullable(sagas.get(invocation.<Long>getArgument(0))).map(saga -> {
+            synchronized (saga) {
+                return copy(saga);
+            }
+        })).when(orderSagaRepository).findById(anyLong());
+        doAnswer(invocation -> sagas.containsKey(invocation.<Long>getArgument(0)))
+                .when(orderSagaRepository).existsById(anyLong());
+        doAnswer(invocation -> {
+            Collection<SagaStep> terminal = invocation.getArgument(0);
+            Instant now = invocation.getArgument(1);
+            Limit limit = invocation.getArgument(2);
+            return sagas.values().stream()
+                    .filter(saga -> !terminal.contains(saga.getStep()) && !saga.getNextAttemptAt().isAfter(now)
+                            && (saga.getLockedUntil() == null || saga.getLockedUntil().isBefore(now)))
+                    .limit(limit.max())
+                    .map(OrderSaga::getOrderId)
+                    .toList();
+        }).when(orderSagaRepository).findDueOrderIds(anyCollection(), any(Instant.class), any(Limit.class));
+        doAnswer(invocation -> update(invocation.getArgument(0), saga -> {
+            Collection<SagaStep> terminal = invocation.getArgument(1);
+            Instant now = invocation.getArgument(2);
+            if (terminal.contains(saga.getStep()) || saga.getNextAttemptAt().isAfter(now)
+                    || (saga.getLockedUntil() != null && !saga.getLockedUntil().isBefore(now))) {
+                return 0;
+            }
+            saga.setLockedUntil(invocation.getArgument(3));
+            saga.setVersion(saga.getVersion() + 1);
+            return 1;
+        })).when(orderSagaRepository).claim(anyLong(), anyCollection(), any(Instant.class), any(Instant.class));
+        doAnswer(invocation -> update(invocation.getArgument(0), saga -> {
+            if (saga.getPaymentCompletedAt() != null) {
+                return 0;
+            }
+            saga.setPaymentCompletedAt(invocation.getArgument(1));
+            return 1;
+        })).when(orderSagaRepository).markPaymentCompleted(anyLong(), any(Instant.class));
+        doAnswer(invocation -> update(invocation.getArgument(0), saga -> {
+            if (saga.getStep() != invocation.getArgument(1)) {
+                return 0;
+            }
+            saga.setNextAttemptAt(invocation.getArgument(2));
+            saga.setVersion(saga.getVersion() + 1);
+            return 1;
+        })).when(orderSagaRepository).wakeUp(anyLong(), any(SagaStep.class), any(Instant.class));
+        return orderSagaRepository;
+    }
+
+    private int update(Long orderId, Function<OrderSaga, Integer> change) {
+        OrderSaga stored = sagas.get(orderId);
+        if (stored == null) {
+            return 0;
+        }
+        synchronized (stored) {
+            return sagas.get(orderId) == stored ? change.apply(stored) : update(orderId, change);
+        }
+    }
+
+    private OrderSaga copy(OrderSaga saga) {
+        return new OrderSaga(saga.getOrderId(), saga.getStep(), saga.getAttempts(), saga.getStepDeadline(),
+                saga.getNextAttemptAt(), saga.getLockedUntil(), saga.getPaymentCompletedAt(), saga.getPaymentId(),
+                saga.getFailureReason(), saga.getCreatedAt(), saga.getUpdatedAt(), saga.getVersion());
+    }
+
+    private WebClient webClient(HttpServer server, String basePath) {
+        return WebClient.builder()
+                .baseUrl("http://localhost:" + server.getAddress().getPort() + basePath)
+                .build();
+    }
+
+    private HttpServer startStub(String path, Function<String, String> responder) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(stubExecutor);
+        server.createContext(path, exchange -> respond(exchange, responder));
+        server.start();
+        return server;
+    }
+
+    private void respond(HttpExchange exchange, Function<String, String> responder) throws IOException {
+        try {
+            Thread.sleep(DOWNSTREAM_DELAY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        byte[] response = responder.apply(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.client.InventoryClient;
+import com.example.orderservice.client.PaymentClient;
+import com.example.orderservice.client.ProductClient;
+import com.example.orderservice.client.UserClient;
+import com.example.orderservice.dto.OrderDetailsDTO;
+import com.example.orderservice.dto.PaymentDTO;
+import com.example.orderservice.dto.ProductDTO;
+import com.example.orderservice.dto.UserDTO;
+import com.example.orderservice.entity.Order;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderDetailsServiceTest {
+    @Mock
+    private OrderService orderService;
+    @Mock
+    private UserClient userClient;
+    @Mock
+    private ProductClient productClient;
+    @Mock
+    private InventoryClient inventoryClient;
+    @Mock
+    private PaymentClient paymentClient;
+
+    private OrderDetailsService orderDetailsService;
+    private Order order;
+    private UserDTO user;
+    private ProductDTO product1;
+    private ProductDTO product2;
+    private PaymentDTO payment;
+
+    @BeforeEach
+    void setUp() {
+        orderDetailsService = new OrderDetailsService(orderService, userClient, productClient, inventoryClient,
+                paymentClient, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(orderDetailsService, "deadline", Duration.ofMillis(200));
+        ReflectionTestUtils.setField(orderDetailsService, "batchSize", 100);
+        order = new Order();
+        order.setId(1L);
+        order.setUserId(111L);
+        order.setProductIds(List.of(11L, 22L, 11L));
+        user = new UserDTO();
+        user.setId(111L);
+        product1 = new ProductDTO();
+        product1.setId(11L);
+        product2 = new ProductDTO();
+        product2.setId(22L);
+        payment = new PaymentDTO();
+        payment.setId(9L);
+        payment.setOrderId(1L);
+    }
+
+    @Test
+    void getOrderDetails_ShouldFetchEachDependencyOnceByDistinctIds() {
+        doReturn(order).when(orderService).getOrderById(1L);
+        doReturn(Mono.just(user)).when(userClient).getUserById(111L);
+        doReturn(Mono.just(List.of(product1, product2))).when(productClient).getProductsByIds(List.of(11L, 22L));
+        doReturn(Mono.just(Map.of(11L, true, 22L, false)))
+                .when(inventoryClient).getStockByProductIds(List.of(11L, 22L));
+        doReturn(Mono.just(List.of(payment))).when(paymentClient).getPaymentsByOrderId(1L);
+
+        OrderDetailsDTO details = orderDetailsService.getOrderDetails(1L);
+
+        assertThat(details.getOrder()).isEqualTo(order);
+        assertThat(details.getUser()).isEqualTo(user);
+        assertThat(details.getProducts()).containsExactly(product1, product2);
+        assertThat(details.getStock()).containsEntry(11L, true).containsEntry(22L, false);
+        assertThat(details.getPayments()).containsExactly(payment);
+        assertThat(details.getUnavailable()).isEmpty();
+    }
+
+    @Test
+    void getOrderDetails_WhenDependencyIsSlow_ShouldReturnPartialResultAtDeadline() {
+        doReturn(order).when(orderService).getOrderById(1L);
+        doReturn(Mono.just(user)).when(userClient).getUserById(111L);
+        doReturn(Mono.just(List.of(product1, product2))).when(productClient).getProductsByIds(List.of(11L, 22L));
+        doReturn(Mono.just(Map.of(11L, true, 22L, true))).when(inventoryClient).getStockByProductIds(List.of(11L, 22L));
+        doReturn(Mono.never()).when(paymentClient).getPaymentsByOrderId(1L);
+
+        long startedAt = System.nanoTime();
+        OrderDetailsDTO details = orderDetailsService.getOrderDetails(1L);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startedAt);
+
+        assertThat(elapsed).isLessThan(Duration.ofSeconds(2));
+        assertThat(details.getUser()).isEqualTo(user);
+        assertThat(details.getProducts()).hasSize(2);
+        assertThat(details.getPayments()).isEmpty();
+        assertThat(details.getUnavailable()).containsExactly(OrderDetailsService.PAYMENTS_PART);
+    }
+
+    @Test
+    void getOrderDetails_WhenDependencyFails_ShouldMarkItUnavailable() {
+        doReturn(order).when(orderService).getOrderById(1L);
+        doReturn(Mono.just(user)).when(userClient).getUserById(111L);
+        doReturn(Mono.just(List.of(product1, product2))).when(productClient).getProductsByIds(List.of(11L, 22L));
+        doReturn(Mono.error(new IllegalStateException("inventory-service down")))
+                .when(inventoryClient).getStockByProductIds(List.of(11L, 22L));
+        doReturn(Mono.just(List.of(payment))).when(paymentClient).getPaymentsByOrderId(1L);
+
+        OrderDetailsDTO details = orderDetailsService.getOrderDetails(1L);
+
+        assertThat(details.getStock()).isEmpty();
+        assertThat(details.getPayments()).containsExactly(payment);
+        assertThat(details.getUnavailable()).containsExactly(OrderDetailsService.STOCK_PART);
+    }
+
+    @Test
+    void getOrderDetails_WhenUserIsMissing_ShouldReturnNullUserWithoutMarkingItUnavailable() {
+        doReturn(order).when(orderService).getOrderById(1L);
+        doReturn(Mono.error(WebClientResponseException.create(404, "Not Found", HttpHeaders.EMPTY, new byte[0], null)))
+                .when(userClient).getUserById(111L);
+        doReturn(Mono.just(List.of(product1, product2))).when(productClient).getProductsByIds(List.of(11L, 22L));
+        doReturn(Mono.just(Map.of(11L, true, 22L, true))).when(inventoryClient).getStockByProductIds(List.of(11L, 22L));
+        doReturn(Mono.just(List.of())).when(paymentClient).getPaymentsByOrderId(1L);
+
+        OrderDetailsDTO details = orderDetailsService.getOrderDetails(1L);
+
+        assertThat(details.getUser()).isNull();
+        assertThat(details.getUnavailable()).isEmpty();
+    }
+
+    @Test
+    void getOrderDetails_ShouldSplitProductLookupsIntoBatches() {
+        ReflectionTestUtils.setField(orderDetailsService, "batchSize", 1);
+        doReturn(order).when(orderService).getOrderById(1L);
+        doReturn(Mono.just(user)).when(userClient).getUserById(111L);
+        doReturn(Mono.just(List.of(product1))).when(productClient).getProductsByIds(List.of(11L));
+        doReturn(Mono.just(List.of(product2))).when(productClient).getProductsByIds(List.of(22L));
+        doReturn(Mono.just(Map.of(11L, true))).when(inventoryClient).getStockByProductIds(List.of(11L));
+        doReturn(Mono.just(Map.of(22L, true))).when(inventoryClient).getStockByProductIds(List.of(22L));
+        doReturn(Mono.just(List.of())).when(paymentClient).getPaymentsByOrderId(1L);
+
+        OrderDetailsDTO details = orderDetailsService.getOrderDetails(1L);
+
+        assertThat(details.getProducts()).containsExactlyInAnyOrder(product1, product2);
+        assertThat(details.getStock()).containsOnlyKeys(11L, 22L);
+    }
+
+    @Test
+    void getOrderDetails_WhenOrderDoesNotExist_ShouldReturnNull() {
+        doReturn(null).when(orderService).getOrderById(1L);
+
+        OrderDetailsDTO details = orderDetailsService.getOrderDetails(1L);
+
+        assertThat(details).isNull();
+        verifyNoInteractions(userClient, productClient, inventoryClient, paymentClient);
+    }
+}
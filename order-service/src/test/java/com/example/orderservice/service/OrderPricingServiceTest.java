@@ -0,0 +1,111 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.client.ProductClient;
+import com.example.orderservice.dto.ProductDTO;
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.entity.OrderLine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderPricingServiceTest {
+    @Mock
+    private ProductClient productClient;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderPricingService orderPricingService;
+    private ProductDTO product1;
+    private ProductDTO product2;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        orderPricingService = new OrderPricingService(productClient, meterRegistry, Duration.ofSeconds(10), 1000);
+        ReflectionTestUtils.setField(orderPricingService, "callTimeout", Duration.ofSeconds(2));
+        product1 = new ProductDTO();
+        product1.setId(11L);
+        product1.setPrice(10.10);
+        product2 = new ProductDTO();
+        product2.setId(22L);
+        product2.setPrice(0.2);
+    }
+
+    @Test
+    void price_ShouldSnapshotUnitPricesAndComputeTotal() {
+        doReturn(Mono.just(List.of(product1, product2))).when(productClient).getProductsByIds(anyList());
+        Order order = new Order();
+        order.setLines(List.of(new OrderLine(11L, 2, 999.0), new OrderLine(22L, 3, null)));
+        order.setTotalPrice(1.0);
+
+        orderPricingService.price(order);
+
+        assertThat(order.getLines()).containsExactly(new OrderLine(11L, 2, 10.10), new OrderLine(22L, 3, 0.2));
+        assertThat(order.getProductIds()).containsExactly(11L, 22L);
+        assertThat(order.getTotalPrice()).isEqualTo(20.80);
+        verify(productClient, times(1)).getProductsByIds(anyList());
+    }
+
+    @Test
+    void price_WhenOnlyProductIdsAreGiven_ShouldTurnDuplicatesIntoQuantities() {
+        doReturn(Mono.just(List.of(product1, product2))).when(productClient).getProductsByIds(anyList());
+        Order order = new Order();
+        order.setProductIds(List.of(11L, 22L, 11L));
+
+        orderPricingService.price(order);
+
+        assertThat(order.getLines()).containsExactly(new OrderLine(11L, 2, 10.10), new OrderLine(22L, 1, 0.2));
+        assertThat(order.getTotalPrice()).isEqualTo(20.40);
+    }
+
+    @Test
+    void price_ShouldServeRepeatedLookupsFromPriceCache() {
+        doReturn(Mono.just(List.of(product1))).when(productClient).getProductsByIds(List.of(11L));
+        Order first = new Order();
+        first.setProductIds(List.of(11L));
+        Order second = new Order();
+        second.setProductIds(List.of(11L));
+
+        orderPricingService.price(first);
+        orderPricingService.price(second);
+
+        assertThat(second.getTotalPrice()).isEqualTo(10.10);
+        verify(productClient, times(1)).getProductsByIds(List.of(11L));
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "product-prices").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("order.pricing.fetch").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void price_WhenProductIsUnknown_ShouldRejectOrder() {
+        doReturn(Mono.just(List.of(product1))).when(productClient).getProductsByIds(anyList());
+        Order order = new Order();
+        order.setProductIds(List.of(11L, 33L));
+
+        assertThatThrownBy(() -> orderPricingService.price(order))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Product 33 not found");
+    }
+
+    @Test
+    void price_WhenQuantityIsNotPositive_ShouldRejectOrderWithoutFetchingPrices() {
+        Order order = new Order();
+        order.setLines(List.of(new OrderLine(11L, 0, null)));
+
+        assertThatThrownBy(() -> orderPricingService.price(order))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(productClient);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.cache.IdBloomFilter;
+import com.example.orderservice.client.InventoryClient;
+import com.example.orderservice.client.UserClient;
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.notification.OrderStatusNotifier;
+import com.example.orderservice.outbox.OutboxService;
+import com.example.orderservice.repository.OrderRepository;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@EnabledIfEnvironmentVariable(named = "BENCHMARK", matches = "true")
+class OrderServiceFanOutBenchmarkTest {
+    private static final long DOWNSTREAM_DELAY_MS = 150;
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final int ITERATIONS = 5;
+
+    private final ExecutorService stubExecutor = Executors.newCachedThreadPool();
+    private HttpServer userServer;
+    private HttpServer inventoryServer;
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        userServer = startStub("/api/users/", "{\"id\":1,\"name\":\"Test User\",\"year\":2024}");
+        inventoryServer = startStub("/api/inventory/in-stock", "{\"11\":true,\"22\":true,\"33\":true}");
+
+        UserClient userClient = new UserClient(WebClient.builder()
+                .baseUrl("http://localhost:" + userServer.getAddress().getPort() + "/api/users")
+                .build());
+        InventoryClient inventoryClient = new InventoryClient(WebClient.builder()
+                .baseUrl("http://localhost:" + inventoryServer.getAddress().getPort() + "/api/inventory")
+                .build());
+        orderService = new OrderService(mock(OrderRepository.class), userClient, inventoryClient,
+                new IdBloomFilter("orders", 1000, 0.01), mock(EntityManager.class), mock(OutboxService.class),
+                mock(OrderStatusNotifier.class), mock(OrderPricingService.class),
+                new ConcurrentMapCacheManager());
+        ReflectionTestUtils.setField(orderService, "callTimeout", Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(orderService, "inventoryBatchSize", 100);
+        ReflectionTestUtils.setField(orderService, "maxConcurrency", 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userServer.stop(0);
+        inventoryServer.stop(0);
+        stubExecutor.shutdownNow();
+    }
+
+    @Test
+    void validateOrder_ConcurrentFanOutShouldBeCloseToSlowestDependency() {
+        long sequentialMs = measure(false);
+        long concurrentMs = measure(true);
+
+        System.out.printf("validateOrder fan-out: sequential=%d ms/op, concurrent=%d ms/op%n",
+                sequentialMs, concurrentMs);
+        assertThat(sequentialMs).isGreaterThanOrEqualTo(2 * DOWNSTREAM_DELAY_MS);
+        assertThat(concurrentMs).isLessThan(sequentialMs);
+        assertThat(concurrentMs).isLessThan(2 * DOWNSTREAM_DELAY_MS);
+    }
+
+    private long measure(boolean concurrent) {
+        ReflectionTestUtils.setField(orderService, "concurrentFanOut", concurrent);
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            assertThat(orderService.validateOrder(newOrder())).isNull();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertThat(orderService.validateOrder(newOrder())).isNull();
+        }
+        return Duration.ofNanos(System.nanoTime() - start).toMillis() / ITERATIONS;
+    }
+
+    private Order newOrder() {
+        Order order = new Order();
+        order.setUserId(1L);
+        order.setProductIds(List.of(11L, 22L, 33L));
+        order.setTotalPrice(100.0);
+        return order;
+    }
+
+    private HttpServer startStub(String path, String body) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(stubExecutor);
+        server.createContext(path, exchange -> {
+            try {
+                Thread.sleep(DOWNSTREAM_DELAY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getRequestBody().readAllBytes();
+            byte[] response = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.start();
+        return server;
+    }
+}
@@ -1,23 +1,37 @@
 package com.example.orderservice.service;
 
+import com.example.orderservice.cache.IdBloomFilter;
+import com.example.orderservice.client.InventoryClient;
+import com.example.orderservice.client.UserClient;
 import com.example.orderservice.dto.UserDTO;
 import com.example.orderservice.entity.Order;
+import com.example.orderservice.notification.OrderStatusNotifier;
+import com.example.orderservice.outbox.OutboxService;
 import com.example.orderservice.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(
@@ -26,18 +40,26 @@ import static org.mockito.Mockito.*;
 class OrderServiceTest {
     @Mock
     private OrderRepository orderRepository;
-    @InjectMocks
-    private OrderService orderService;
+    @Spy
+    private IdBloomFilter orderIdFilter = new IdBloomFilter("orders", 1000, 0.01);
+    @Mock
+    private EntityManager entityManager;
     @Mock
-    private WebClient.Builder webClientBuilder;
+    private OutboxService outboxService;
     @Mock
-    private WebClient webClient;
+    private OrderStatusNotifier orderStatusNotifier;
     @Mock
-    private WebClient.RequestHeadersUriSpec requestHeadersUriSpec;
+    private OrderPricingService orderPricingService;
     @Mock
-    private WebClient.RequestHeadersSpec requestHeadersSpec;
+    private CacheManager cacheManager;
     @Mock
-    private WebClient.ResponseSpec responseSpec;
+    private Cache userOrdersCache;
+    @InjectMocks
+    private OrderService orderService;
+    @Mock
+    private UserClient userClient;
+    @Mock
+    private InventoryClient inventoryClient;
 
     private Order order1;
     private Order order2;
@@ -46,6 +68,9 @@ class OrderServiceTest {
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(orderService, "callTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(orderService, "inventoryBatchSize", 100);
+        ReflectionTestUtils.setField(orderService, "maxConcurrency", 4);
         order1 = new Order();
         order1.setId(1L);
         order1.setStatus("INIT");
@@ -78,18 +103,131 @@ class OrderServiceTest {
     }
 
     @Test
-    void createOrder_ShouldCreateOrder() {
-        when(webClientBuilder.build()).thenReturn(webClient);
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString(), anyLong())).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(UserDTO.class)).thenReturn(Mono.just(user));
-        when(responseSpec.bodyToMono(Boolean.class)).thenReturn(Mono.just(true));
-        when(orderRepository.save(any(Order.class))).thenReturn(order1);
+    void getOrdersAfter_ShouldQueryNextPageByKey() {
+        List<Order> page = List.of(order1, order2);
+        doReturn(page).when(orderRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2));
+
+        List<Order> result = orderService.getOrdersAfter(0L, 2);
+
+        assertThat(result).isEqualTo(page);
+        verify(orderRepository, times(1)).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2));
+    }
+
+    @Test
+    void getOrdersByProductId_ShouldQueryProductIndexFromCursor() {
+        doReturn(List.of(order1)).when(orderRepository).findByProductIdAfter(11L, 0L, 50);
+
+        List<Order> result = orderService.getOrdersByProductId(11L, 0L, 50);
+
+        assertThat(result).containsExactly(order1);
+        verify(orderRepository, times(1)).findByProductIdAfter(11L, 0L, 50);
+    }
+
+    @Test
+    void getFirstUserOrdersPage_ShouldQueryNewestOrdersUpToFirstPageSize() {
+        ReflectionTestUtils.setField(orderService, "firstPageSize", 20);
+        doReturn(List.of(order2, order1)).when(orderRepository)
+                .findByUserIdAndIdLessThanOrderByIdDesc(1L, Long.MAX_VALUE, Limit.of(20));
+
+        List<Order> result = orderService.getFirstUserOrdersPage(1L);
+
+        assertThat(result).containsExactly(order2, order1);
+    }
+
+    @Test
+    void getUserOrdersBefore_ShouldQueryOrdersOlderThanCursor() {
+        doReturn(List.of(order1)).when(orderRepository).findByUserIdAndIdLessThanOrderByIdDesc(1L, 2L, Limit.of(10));
+
+        List<Order> result = orderService.getUserOrdersBefore(1L, 2L, 10);
+
+        assertThat(result).containsExactly(order1);
+    }
 
+    @Test
+    void streamAllOrders_ShouldPassEachRowAndDetachIt() {
+        List<Order> rows = List.of(order1, order2);
+        doReturn(rows.stream()).when(orderRepository).streamAll();
+        List<Order> received = new ArrayList<>();
+
+        orderService.streamAllOrders(received::add);
+
+        assertThat(received).isEqualTo(rows);
+        verify(entityManager, times(rows.size())).detach(any(Order.class));
+    }
+
+    @Test
+    void createOrder_ShouldSaveItAsPendingAndRecordEventWithoutPricing() {
         orderService.createOrder(order1);
 
-        verify(orderRepository, times(1)).save(any(Order.class));
+        assertThat(order1.getStatus()).isEqualTo(OrderService.PENDING_STATUS);
+        verify(orderRepository, times(1)).save(order1);
+        verify(outboxService, times(1)).record(OrderService.ORDER_AGGREGATE, 1L, OrderService.ORDER_CREATED, order1);
+        verify(orderStatusNotifier, times(1)).notifyAfterCommit(order1);
+        verifyNoInteractions(orderPricingService, userClient, inventoryClient);
+    }
+
+    @Test
+    void createOrder_InsideTransaction_ShouldEvictUserOrdersOnlyAfterCommit() {
+        doReturn(userOrdersCache).when(cacheManager).getCache(OrderService.USER_ORDERS_CACHE);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            orderService.createOrder(order1);
+
+            verify(userOrdersCache, never()).evict(any());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(userOrdersCache, times(1)).evict(111L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void priceOrder_ShouldDelegateToPricingService() {
+        orderService.priceOrder(order1);
+
+        verify(orderPricingService, times(1)).price(order1);
+        verifyNoInteractions(orderRepository, outboxService);
+    }
+
+    @Test
+    void validateOrder_WhenUserAndStockExist_ShouldPass() {
+        when(userClient.getUserById(anyLong())).thenReturn(Mono.just(user));
+        when(inventoryClient.getStockByProductIds(anyList())).thenReturn(Mono.just(Map.of(11L, true)));
+
+        String failure = orderService.validateOrder(order1);
+
+        assertThat(failure).isNull();
+    }
+
+    @Test
+    void validateOrder_WhenFanOutIsConcurrent_ShouldPass() {
+        ReflectionTestUtils.setField(orderService, "concurrentFanOut", true);
+        when(userClient.getUserById(anyLong())).thenReturn(Mono.just(user));
+        when(inventoryClient.getStockByProductIds(anyList())).thenReturn(Mono.just(Map.of(11L, true)));
+
+        String failure = orderService.validateOrder(order1);
+
+        assertThat(failure).isNull();
+    }
+
+    @Test
+    void validateOrder_WhenUserIsMissing_ShouldReturnReason() {
+        when(userClient.getUserById(anyLong())).thenReturn(Mono.empty());
+        when(inventoryClient.getStockByProductIds(anyList())).thenReturn(Mono.just(Map.of(11L, true)));
+
+        String failure = orderService.validateOrder(order1);
+
+        assertThat(failure).isEqualTo("User not found");
+    }
+
+    @Test
+    void validateOrder_WhenProductIsOutOfStock_ShouldReturnReason() {
+        when(userClient.getUserById(anyLong())).thenReturn(Mono.just(user));
+        when(inventoryClient.getStockByProductIds(anyList())).thenReturn(Mono.just(Map.of(11L, false)));
+
+        String failure = orderService.validateOrder(order1);
+
+        assertThat(failure).isEqualTo("Product 11 out of stock");
     }
 
     @Test
@@ -125,12 +263,29 @@ class OrderServiceTest {
         assertThat(order1.getStatus()).isEqualTo("CHANGED");
         verify(orderRepository, times(1)).findById(anyLong());
         verify(orderRepository, times(1)).save(any(Order.class));
+        verify(outboxService, times(1))
+                .record(OrderService.ORDER_AGGREGATE, 1L, OrderService.ORDER_STATUS_CHANGED, order1);
+        verify(orderStatusNotifier, times(1)).notifyAfterCommit(order1);
+    }
+
+    @Test
+    void updateOrderStatus_OutsideTransaction_ShouldEvictUserOrdersImmediately() {
+        doReturn(userOrdersCache).when(cacheManager).getCache(OrderService.USER_ORDERS_CACHE);
+        doReturn(Optional.of(order1)).when(orderRepository).findById(1L);
+        doReturn(order1).when(orderRepository).save(order1);
+
+        orderService.updateOrderStatus(1L, "CHANGED");
+
+        verify(userOrdersCache, times(1)).evict(111L);
     }
 
     @Test
-    void deleteOrderById_ShouldDeleteOrder() {
-        orderService.deleteOrderById(order1.getId());
+    void deleteOrderById_ShouldDeleteOrderAndReturnIt() {
+        doReturn(Optional.of(order1)).when(orderRepository).findById(order1.getId());
 
+        Order result = orderService.deleteOrderById(order1.getId());
+
+        assertThat(result).isEqualTo(order1);
         verify(orderRepository, times(1)).deleteById(anyLong());
     }
 }
\ No newline at end of file
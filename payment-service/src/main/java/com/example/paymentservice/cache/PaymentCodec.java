@@ -0,0 +1,47 @@
+package com.example.paymentservice.cache;
+
+import com.example.paymentservice.entity.Payment;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+public class PaymentCodec implements EntityCodec<Payment> {
+    public static final int TAG = 5;
+
+    @Override
+    public int tag() {
+        return TAG;
+    }
+
+    @Override
+    public Class<Payment> type() {
+        return Payment.class;
+    }
+
+    @Override
+    public void write(BinaryWriter out, Payment payment) {
+        out.writeNullableLong(payment.getId());
+        out.writeNullableLong(payment.getOrderId());
+        out.writeNullableDouble(payment.getAmount());
+        out.writeString(payment.getStatus());
+        LocalDateTime paymentDate = payment.getPaymentDate();
+        out.writeByte(paymentDate == null ? 0 : 1);
+        if (paymentDate != null) {
+            out.writeVarLong(paymentDate.toEpochSecond(ZoneOffset.UTC));
+            out.writeVarLong(paymentDate.getNano());
+        }
+    }
+
+    @Override
+    public Payment read(BinaryReader in) {
+        Payment payment = new Payment();
+        payment.setId(in.readNullableLong());
+        payment.setOrderId(in.readNullableLong());
+        payment.setAmount(in.readNullableDouble());
+        payment.setStatus(in.readString());
+        if (in.readByte() != 0) {
+            payment.setPaymentDate(LocalDateTime.ofEpochSecond(in.readVarLong(), (int) in.readVarLong(), ZoneOffset.UTC));
+        }
+        return payment;
+    }
+}
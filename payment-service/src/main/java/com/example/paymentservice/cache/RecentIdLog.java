@@ -0,0 +1,57 @@
+package com.example.paymentservice.cache;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class RecentIdLog {
+    private final StringRedisTemplate redisTemplate;
+    private final String key;
+    private final Duration retention;
+
+    public RecentIdLog(StringRedisTemplate redisTemplate, String name, Duration retention) {
+        this.redisTemplate = redisTemplate;
+        this.key = "bloom-filter:" + name + ":recent";
+        this.retention = retention;
+    }
+
+    public void record(Long id) {
+        try {
+            redisTemplate.opsForZSet().add(key, id.toString(), System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            System.err.println("Could not record id " + id + " in " + key + ": " + e.getMessage());
+        }
+    }
+
+    public Collection<Long> findAll(Collection<Long> ids) {
+        List<Long> candidates = new ArrayList<>(ids);
+        try {
+            List<Double> scores = redisTemplate.opsForZSet().score(key,
+                    candidates.stream().map(String::valueOf).toArray());
+            if (scores == null) {
+                return candidates;
+            }
+            List<Long> found = new ArrayList<>();
+            for (int i = 0; i < candidates.size(); i++) {
+                if (scores.get(i) != null) {
+                    found.add(candidates.get(i));
+                }
+            }
+            return found;
+        } catch (RuntimeException e) {
+            System.err.println("Could not look up ids in " + key + ": " + e.getMessage());
+            return candidates;
+        }
+    }
+
+    public void trim() {
+        try {
+            redisTemplate.opsForZSet().removeRangeByScore(key, 0, System.currentTimeMillis() - retention.toMillis());
+        } catch (RuntimeException e) {
+            System.err.println("Could not trim " + key + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.paymentservice.config;
+
+import com.example.paymentservice.cache.IdBloomFilter;
+import com.example.paymentservice.cache.RecentIdLog;
+import com.example.paymentservice.repository.PaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.stream.Stream;
+
+@Configuration
+public class BloomFilterConfig {
+    @Value("${bloom-filter.expected-insertions:1000000}")
+    private long expectedInsertions;
+    @Value("${bloom-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+    @Value("${bloom-filter.reload-interval:10m}")
+    private Duration reloadInterval;
+    @Value("${bloom-filter.recent-id-retention:1h}")
+    private Duration recentIdRetention;
+
+    @Bean
+    public RecentIdLog paymentIdLog(StringRedisTemplate redisTemplate) {
+        if (recentIdRetention.compareTo(reloadInterval.multipliedBy(2)) < 0) {
+            throw new IllegalArgumentException("bloom-filter.recent-id-retention must be at least twice the reload interval");
+        }
+        return new RecentIdLog(redisTemplate, "payments", recentIdRetention);
+    }
+
+    @Bean
+    public IdBloomFilter paymentIdFilter(RecentIdLog paymentIdLog, MeterRegistry meterRegistry) {
+        IdBloomFilter filter = new IdBloomFilter("payments", expectedInsertions, falsePositiveRate);
+        filter.share(paymentIdLog::record, paymentIdLog::findAll);
+        filter.registerMetrics(meterRegistry);
+        return filter;
+    }
+
+    @Bean
+    public ApplicationRunner paymentIdFilterLoader(IdBloomFilter paymentIdFilter, PaymentRepository paymentRepository,
+            TransactionTemplate transactionTemplate) {
+        return args -> load(paymentIdFilter, paymentRepository, transactionTemplate);
+    }
+
+    @Bean
+    public SchedulingConfigurer paymentIdFilterReloader(IdBloomFilter paymentIdFilter, RecentIdLog paymentIdLog,
+            PaymentRepository paymentRepository, TransactionTemplate transactionTemplate) {
+        return registrar -> registrar.addFixedDelayTask(new FixedDelayTask(() -> {
+            try {
+                load(paymentIdFilter, paymentRepository, transactionTemplate);
+                paymentIdLog.trim();
+            } catch (RuntimeException e) {
+                System.err.println("Could not reload payment id filter: " + e.getMessage());
+            }
+        }, reloadInterval, reloadInterval));
+    }
+
+    private static void load(IdBloomFilter filter, PaymentRepository paymentRepository,
+            TransactionTemplate transactionTemplate) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Long> ids = paymentRepository.streamAllIds()) {
+                filter.load(ids);
+            }
+        });
+    }
+}
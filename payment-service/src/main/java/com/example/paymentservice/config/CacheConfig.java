@@ -0,0 +1,58 @@
+package com.example.paymentservice.config;
+
+import com.example.paymentservice.cache.CompactRedisSerializer;
+import com.example.paymentservice.cache.NearCacheManager;
+import com.example.paymentservice.cache.PaymentCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.support.NullValue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class CacheConfig {
+    @Value("${spring.cache.redis.time-to-live}")
+    private Duration timeToLive;
+    @Value("${near-cache.negative-time-to-live:30s}")
+    private Duration negativeTimeToLive;
+    @Value("${near-cache.maximum-size:10000}")
+    private long nearCacheMaximumSize;
+    @Value("${near-cache.expire-after-write:30s}")
+    private Duration nearCacheExpireAfterWrite;
+    @Value("${near-cache.invalidation-channel:cache-invalidation}")
+    private String invalidationChannel;
+
+    @Bean
+    public NearCacheManager cacheManager(RedisConnectionFactory connectionFactory, StringRedisTemplate redisTemplate,
+                                         MeterRegistry meterRegistry) {
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig()
+                        .entryTtl((key, value) -> value == null || value instanceof NullValue
+                                ? negativeTimeToLive : timeToLive)
+                        .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                                new CompactRedisSerializer(List.of(new PaymentCodec())))))
+                .build();
+        redisCacheManager.afterPropertiesSet();
+        return new NearCacheManager(redisCacheManager, redisTemplate, meterRegistry,
+                invalidationChannel, nearCacheMaximumSize, nearCacheExpireAfterWrite, negativeTimeToLive);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            NearCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(invalidationChannel));
+        return container;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.paymentservice.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class IdSequenceConfig {
+
+    @Bean
+    public SmartInitializingSingleton paymentIdSequenceAligner(JdbcTemplate jdbcTemplate) {
+        return () -> jdbcTemplate.execute("select setval('payments_seq', (select max(id) from payments)) " +
+                "where (select max(id) from payments) > (select last_value from payments_seq)");
+    }
+}
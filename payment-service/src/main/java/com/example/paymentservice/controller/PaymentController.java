@@ -1,11 +1,18 @@
 package com.example.paymentservice.controller;
 
 import com.example.paymentservice.entity.Payment;
+import com.example.paymentservice.idempotency.IdempotencyConflictException;
+import com.example.paymentservice.idempotency.IdempotencyMismatchException;
+import com.example.paymentservice.idempotency.IdempotencyStore;
 import com.example.paymentservice.service.PaymentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -13,15 +20,35 @@ import java.util.List;
 @RequestMapping("/api/payments")
 public class PaymentController {
     private final PaymentService paymentService;
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+    @Value("${pagination.default-limit:100}")
+    private int defaultPageLimit;
+    @Value("${pagination.max-limit:1000}")
+    private int maxPageLimit;
 
     @Autowired
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, IdempotencyStore idempotencyStore,
+                             ObjectMapper objectMapper) {
         this.paymentService = paymentService;
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    public List<Payment> getAllPayments() {
-        return paymentService.getAllPayments();
+    public List<Payment> getAllPayments(@RequestParam(required = false) Long after,
+                                        @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return paymentService.getAllPayments();
+        }
+        long pageAfter = after == null ? 0 : after;
+        int pageLimit = limit == null ? defaultPageLimit : limit;
+        return paymentService.getPaymentsAfter(pageAfter, Math.max(1, Math.min(pageLimit, maxPageLimit)));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllPayments() {
+        return NdjsonResponses.stream(objectMapper, paymentService::streamAllPayments);
     }
 
     @GetMapping("/{id}")
@@ -29,12 +56,31 @@ public class PaymentController {
         return paymentService.getPaymentById(id);
     }
 
+    @GetMapping("/order/{orderId}")
+    public List<Payment> getPaymentsByOrderId(@PathVariable Long orderId) {
+        return paymentService.getPaymentsByOrderId(orderId);
+    }
+
     @PostMapping
-    public ResponseEntity<Payment> createPayment(@RequestBody Payment payment) {
+    public ResponseEntity<Payment> createPayment(@RequestBody Payment payment,
+            @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = IdempotencyStore.CLIENT_ID_HEADER, required = false) String clientId) {
+        if (idempotencyKey == null) {
+            return savePayment(payment);
+        }
+        return idempotencyStore.execute(clientId, idempotencyKey, payment, Payment.class, () -> savePayment(payment));
+    }
+
+    private ResponseEntity<Payment> savePayment(Payment payment) {
         paymentService.createPayment(payment);
         return new ResponseEntity<>(payment, HttpStatus.CREATED);
     }
 
+    @PostMapping("/order/{orderId}/refund")
+    public List<Payment> refundPaymentsByOrderId(@PathVariable Long orderId) {
+        return paymentService.refundPaymentsByOrderId(orderId);
+    }
+
     @PutMapping
     public ResponseEntity<Payment> updatePayment(@RequestBody Payment payment) {
         paymentService.updatePayment(payment);
@@ -46,4 +92,19 @@ public class PaymentController {
         paymentService.deletePaymentById(id);
         return new ResponseEntity<>(HttpStatus.OK);
     }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleInvalidRequest(IllegalArgumentException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<String> handleIdempotencyConflict(IdempotencyConflictException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(IdempotencyMismatchException.class)
+    public ResponseEntity<String> handleIdempotencyMismatch(IdempotencyMismatchException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
+    }
 }
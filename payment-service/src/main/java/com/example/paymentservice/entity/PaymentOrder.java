@@ -0,0 +1,20 @@
+package com.example.paymentservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "payment_orders")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaymentOrder {
+    @Id
+    private Long orderId;
+    private String status;
+    private Instant updatedAt;
+}
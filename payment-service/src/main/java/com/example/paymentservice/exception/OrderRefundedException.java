@@ -0,0 +1,11 @@
+package com.example.paymentservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GONE)
+public class OrderRefundedException extends RuntimeException {
+    public OrderRefundedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.paymentservice.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+@Component
+public class IdempotencyStore {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final String IN_FLIGHT = "in-flight";
+    private static final String KEY_PREFIX = "idempotency::";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, CompletableFuture<StoredResponse>> localResponses;
+    private final Timer lookupTimer;
+    private final Counter executedCounter;
+    private final Counter replayedCounter;
+    private final Counter storeFailureCounter;
+    private final Duration timeToLive;
+    private final Duration lockTimeout;
+    private final Duration waitTimeout;
+    private final Duration pollInterval;
+    private final int storeAttempts;
+
+    @Autowired
+    public IdempotencyStore(StringRedisTemplate redisTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                            @Value("${idempotency.time-to-live:24h}") Duration timeToLive,
+                            @Value("${idempotency.lock-timeout:30s}") Duration lockTimeout,
+                            @Value("${idempotency.wait-timeout:10s}") Duration waitTimeout,
+                            @Value("${idempotency.poll-interval:20ms}") Duration pollInterval,
+                            @Value("${idempotency.local-maximum-size:100000}") long localMaximumSize,
+                            @Value("${idempotency.store-attempts:3}") int storeAttempts) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.localResponses = Caffeine.newBuilder()
+                .expireAfterWrite(timeToLive)
+                .maximumSize(localMaximumSize)
+                .build();
+        this.lookupTimer = Timer.builder("idempotency.lookup")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.executedCounter = meterRegistry.counter("idempotency.requests", "result", "executed");
+        this.replayedCounter = meterRegistry.counter("idempotency.requests", "result", "replayed");
+        this.storeFailureCounter = meterRegistry.counter("idempotency.store.failures");
+        this.timeToLive = timeToLive;
+        this.lockTimeout = lockTimeout;
+        this.waitTimeout = waitTimeout;
+        this.pollInterval = pollInterval;
+        this.storeAttempts = storeAttempts;
+    }
+
+    public <T> ResponseEntity<T> execute(String clientId, String idempotencyKey, Object request, Class<T> bodyType,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (clientId == null || clientId.isBlank()) {
+            throw new IllegalArgumentException(CLIENT_ID_HEADER + " header is required with " + IDEMPOTENCY_KEY_HEADER);
+        }
+        return execute(clientId + ":" + idempotencyKey, idempotencyKey, fingerprint(request), bodyType, action);
+    }
+
+    private <T> ResponseEntity<T> execute(String key, String idempotencyKey, String fingerprint, Class<T> bodyType,
+                                          Supplier<ResponseEntity<T>> action) {
+        CompletableFuture<StoredResponse> pending = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> existing = localResponses.asMap().putIfAbsent(key, pending);
+        if (existing != null) {
+            StoredResponse stored = awaitLocal(existing, idempotencyKey);
+            if (stored == null) {
+                return execute(key, idempotencyKey, fingerprint, bodyType, action);
+            }
+            return replay(stored, idempotencyKey, fingerprint, bodyType);
+        }
+
+        String redisKey = KEY_PREFIX + key;
+        StoredResponse stored;
+        try {
+            stored = claimOrAwaitRemote(redisKey, idempotencyKey, fingerprint);
+        } catch (RuntimeException e) {
+            release(key, pending, e);
+            throw e;
+        }
+        if (stored != null) {
+            pending.complete(stored);
+            return replay(stored, idempotencyKey, fingerprint, bodyType);
+        }
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+            stored = toStoredResponse(response, fingerprint);
+        } catch (RuntimeException e) {
+            release(key, pending, e);
+            redisTemplate.delete(redisKey);
+            throw e;
+        }
+        pending.complete(stored);
+        executedCounter.increment();
+        store(redisKey, idempotencyKey, stored);
+        return response;
+    }
+
+    private void store(String redisKey, String idempotencyKey, StoredResponse stored) {
+        String value = write(stored);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                redisTemplate.opsForValue().set(redisKey, value, timeToLive);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= storeAttempts) {
+                    storeFailureCounter.increment();
+                    System.err.println("Failed to store response for Idempotency-Key " + idempotencyKey
+                            + ", holding the key as in flight: " + e.getMessage());
+                    break;
+                }
+                sleep(pollInterval);
+            }
+        }
+        try {
+            redisTemplate.expire(redisKey, timeToLive);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to hold Idempotency-Key " + idempotencyKey + ": " + e.getMessage());
+        }
+    }
+
+    private void release(String key, CompletableFuture<StoredResponse> pending, RuntimeException cause) {
+        localResponses.asMap().remove(key, pending);
+        pending.completeExceptionally(cause);
+    }
+
+    private StoredResponse awaitLocal(CompletableFuture<StoredResponse> existing, String idempotencyKey) {
+        try {
+            return existing.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            return null;
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException(idempotencyKey);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException(idempotencyKey);
+        }
+    }
+
+    private StoredResponse claimOrAwaitRemote(String redisKey, String idempotencyKey, String fingerprint) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        String inFlight = inFlight(fingerprint);
+        while (true) {
+            String value = lookupTimer.record(() -> tryClaim(redisKey, inFlight));
+            if (value == null) {
+                return null;
+            }
+            if (!value.startsWith(IN_FLIGHT)) {
+                return read(value);
+            }
+            if (!value.equals(inFlight) && !value.equals(IN_FLIGHT)) {
+                throw new IdempotencyMismatchException(idempotencyKey);
+            }
+            if (System.nanoTime() >= deadline) {
+                throw new IdempotencyConflictException(idempotencyKey);
+            }
+            try {
+                Thread.sleep(pollInterval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IdempotencyConflictException(idempotencyKey);
+            }
+        }
+    }
+
+    private String tryClaim(String redisKey, String inFlight) {
+        if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(redisKey, inFlight, lockTimeout))) {
+            return null;
+        }
+        return Objects.requireNonNullElse(redisTemplate.opsForValue().get(redisKey), IN_FLIGHT);
+    }
+
+    private <T> ResponseEntity<T> replay(StoredResponse stored, String idempotencyKey, String fingerprint,
+                                         Class<T> bodyType) {
+        if (stored.getFingerprint() != null && !stored.getFingerprint().equals(fingerprint)) {
+            throw new IdempotencyMismatchException(idempotencyKey);
+        }
+        replayedCounter.increment();
+        HttpHeaders headers = new HttpHeaders();
+        if (stored.getHeaders() != null) {
+            headers.putAll(stored.getHeaders());
+        }
+        headers.set(REPLAYED_HEADER, "true");
+        try {
+            T body = stored.getBody() == null ? null : objectMapper.readValue(stored.getBody(), bodyType);
+            return new ResponseEntity<>(body, headers, HttpStatusCode.valueOf(stored.getStatus()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read stored response", e);
+        }
+    }
+
+    private StoredResponse toStoredResponse(ResponseEntity<?> response, String fingerprint) {
+        try {
+            String body = response.getBody() == null ? null : objectMapper.writeValueAsString(response.getBody());
+            return new StoredResponse(response.getStatusCode().value(), new LinkedHashMap<>(response.getHeaders()),
+                    body, fingerprint);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize response", e);
+        }
+    }
+
+    static String inFlight(String fingerprint) {
+        return IN_FLIGHT + ":" + fingerprint;
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] body = request == null ? new byte[0] : objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize request", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String write(StoredResponse stored) {
+        try {
+            return objectMapper.writeValueAsString(stored);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize stored response", e);
+        }
+    }
+
+    private StoredResponse read(String value) {
+        try {
+            return objectMapper.readValue(value, StoredResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read stored response", e);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.paymentservice.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class OutboxRelay {
+    private final OutboxEventRepository outboxEventRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter publishedCounter;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer batchTimer;
+    private final Timer lagTimer;
+    private final AtomicLong oldestPendingAgeMillis = new AtomicLong();
+    @Value("${spring.application.name}")
+    private String source;
+    @Value("${outbox.stream}")
+    private String stream;
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+    @Value("${outbox.relay.max-stream-length:100000}")
+    private long maxStreamLength;
+    @Value("${outbox.retention:24h}")
+    private Duration retention;
+    @Value("${outbox.relay.claim-timeout:30s}")
+    private Duration claimTimeout;
+
+    @Autowired
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, StringRedisTemplate redisTemplate,
+                       PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.redisTemplate = redisTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.publishedCounter = meterRegistry.counter("outbox.relay.published");
+        this.batchSizeSummary = DistributionSummary.builder("outbox.relay.batch.size").register(meterRegistry);
+        this.batchTimer = Timer.builder("outbox.relay.batch.duration").register(meterRegistry);
+        this.lagTimer = Timer.builder("outbox.relay.lag").publishPercentiles(0.5, 0.99).register(meterRegistry);
+        Gauge.builder("outbox.relay.oldest.pending.age", oldestPendingAgeMillis, AtomicLong::get)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    public void relay() {
+        int published;
+        do {
+            published = relayBatch();
+        } while (published == batchSize);
+    }
+
+    public int relayBatch() {
+        long startedAt = System.nanoTime();
+        Instant claimedAt = Instant.now();
+        List<OutboxEvent> events = transactionTemplate.execute(status -> {
+            List<OutboxEvent> batch = outboxEventRepository.lockNextBatch(batchSize, claimedAt);
+            if (!batch.isEmpty()) {
+                outboxEventRepository.claim(ids(batch), claimedAt.plus(claimTimeout));
+            }
+            return batch;
+        });
+        if (events == null || events.isEmpty()) {
+            oldestPendingAgeMillis.set(0);
+            return 0;
+        }
+        oldestPendingAgeMillis.set(Duration.between(events.get(0).getCreatedAt(), claimedAt).toMillis());
+        publish(events);
+        Instant publishedAt = Instant.now();
+        transactionTemplate.executeWithoutResult(status ->
+                outboxEventRepository.markPublished(ids(events), publishedAt));
+
+        batchTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        batchSizeSummary.record(events.size());
+        publishedCounter.increment(events.size());
+        events.forEach(event -> lagTimer.record(Duration.between(event.getCreatedAt(), publishedAt)));
+        return events.size();
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.cleanup-interval-ms:3600000}")
+    public void purgePublished() {
+        transactionTemplate.executeWithoutResult(status ->
+                outboxEventRepository.deletePublishedBefore(Instant.now().minus(retention)));
+    }
+
+    private void publish(List<OutboxEvent> events) {
+        byte[] streamKey = stream.getBytes(StandardCharsets.UTF_8);
+        RedisStreamCommands.XAddOptions options = RedisStreamCommands.XAddOptions.maxlen(maxStreamLength)
+                .approximateTrimming(true);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (OutboxEvent event : events) {
+                connection.streamCommands().xAdd(StreamRecords.rawBytes(toFields(event)).withStreamKey(streamKey),
+                        options);
+            }
+            return null;
+        });
+    }
+
+    private List<Long> ids(List<OutboxEvent> events) {
+        return events.stream().map(OutboxEvent::getId).toList();
+    }
+
+    private Map<byte[], byte[]> toFields(OutboxEvent event) {
+        Map<byte[], byte[]> fields = new LinkedHashMap<>();
+        fields.put(bytes("eventId"), bytes(source + ":" + event.getId()));
+        fields.put(bytes("aggregateType"), bytes(event.getAggregateType()));
+        fields.put(bytes("aggregateId"), bytes(event.getAggregateId()));
+        fields.put(bytes("type"), bytes(event.getEventType()));
+        fields.put(bytes("payload"), bytes(event.getPayload()));
+        fields.put(bytes("createdAt"), bytes(event.getCreatedAt().toString()));
+        return fields;
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.paymentservice.repository;
+
+import com.example.paymentservice.entity.PaymentOrder;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface PaymentOrderRepository extends JpaRepository<PaymentOrder, Long> {
+    @Modifying
+    @Query(value = "insert into payment_orders (order_id, status, updated_at) values (:orderId, :status, :now) " +
+            "on conflict (order_id) do nothing", nativeQuery = true)
+    int insertIfAbsent(@Param("orderId") Long orderId, @Param("status") String status, @Param("now") Instant now);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from PaymentOrder o where o.orderId = :orderId")
+    Optional<PaymentOrder> findForUpdate(@Param("orderId") Long orderId);
+
+    @Modifying
+    @Query("update PaymentOrder o set o.status = :status, o.updatedAt = :now where o.orderId = :orderId")
+    int updateStatus(@Param("orderId") Long orderId, @Param("status") String status, @Param("now") Instant now);
+}
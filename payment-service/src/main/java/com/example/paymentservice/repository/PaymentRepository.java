@@ -1,9 +1,38 @@
 package com.example.paymentservice.repository;
 
 import com.example.paymentservice.entity.Payment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select p.id from Payment p")
+    Stream<Long> streamAllIds();
+
+    List<Payment> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    List<Payment> findByOrderId(Long orderId);
+
+    @Modifying
+    @Query("update Payment p set p.status = :status where p.id = :id and p.status = :expectedStatus")
+    int updateStatus(@Param("id") Long id, @Param("expectedStatus") String expectedStatus,
+                     @Param("status") String status);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Payment p order by p.id")
+    Stream<Payment> streamAll();
 }
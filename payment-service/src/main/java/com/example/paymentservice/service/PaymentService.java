@@ -1,44 +1,120 @@
 package com.example.paymentservice.service;
 
+import com.example.paymentservice.cache.IdBloomFilter;
 import com.example.paymentservice.entity.Payment;
+import com.example.paymentservice.entity.PaymentOrder;
+import com.example.paymentservice.exception.OrderRefundedException;
+import com.example.paymentservice.outbox.OutboxService;
+import com.example.paymentservice.repository.PaymentOrderRepository;
 import com.example.paymentservice.repository.PaymentRepository;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class PaymentService {
+    public static final String PAYMENT_AGGREGATE = "Payment";
+    public static final String PAYMENT_COMPLETED = "PaymentCompleted";
+    public static final String PAYMENT_REFUNDED = "PaymentRefunded";
+    public static final String COMPLETED_STATUS = "COMPLETED";
+    public static final String REFUNDED_STATUS = "REFUNDED";
+    public static final String OPEN_STATUS = "OPEN";
+    public static final String PAYMENTS_CACHE = "payments";
+
     private final PaymentRepository paymentRepository;
-    @Value("${order-service.url}")
-    private String orderServiceUrl;
+    private final IdBloomFilter paymentIdFilter;
+    private final EntityManager entityManager;
+    private final OutboxService outboxService;
+    private final CacheManager cacheManager;
+    private final PaymentOrderRepository paymentOrderRepository;
 
     @Autowired
-    public PaymentService(PaymentRepository paymentRepository) {
+    public PaymentService(PaymentRepository paymentRepository, IdBloomFilter paymentIdFilter,
+                          EntityManager entityManager, OutboxService outboxService, CacheManager cacheManager,
+                          PaymentOrderRepository paymentOrderRepository) {
         this.paymentRepository = paymentRepository;
+        this.paymentIdFilter = paymentIdFilter;
+        this.entityManager = entityManager;
+        this.outboxService = outboxService;
+        this.cacheManager = cacheManager;
+        this.paymentOrderRepository = paymentOrderRepository;
     }
 
+    @Transactional
     public void createPayment(Payment payment) {
+        if (payment.getOrderId() != null
+                && REFUNDED_STATUS.equals(lockPaymentOrder(payment.getOrderId(), OPEN_STATUS).getStatus())) {
+            throw new OrderRefundedException("Payments for order " + payment.getOrderId() + " were already refunded");
+        }
         payment.setPaymentDate(LocalDateTime.now());
         payment.setStatus("PENDING");
         payment.setStatus("COMPLETED");
         paymentRepository.save(payment);
+        outboxService.record(PAYMENT_AGGREGATE, payment.getId(), PAYMENT_COMPLETED, payment);
+        paymentIdFilter.put(payment.getId());
     }
 
     public List<Payment> getAllPayments() {
         return paymentRepository.findAll();
     }
 
-    @Cacheable(value = "payments", key = "#id")
+    public List<Payment> getPaymentsAfter(long after, int limit) {
+        return paymentRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllPayments(Consumer<Payment> consumer) {
+        try (Stream<Payment> paymentStream = paymentRepository.streamAll()) {
+            paymentStream.forEach(payment -> {
+                consumer.accept(payment);
+                entityManager.detach(payment);
+            });
+        }
+    }
+
+    @Cacheable(value = "payments", key = "#id", sync = true)
     public Payment getPaymentById(Long id) {
+        if (paymentIdFilter.rejects(id)) {
+            return null;
+        }
         return paymentRepository.findById(id).orElse(null);
     }
 
+    public List<Payment> getPaymentsByOrderId(Long orderId) {
+        return paymentRepository.findByOrderId(orderId);
+    }
+
+    @Transactional
+    public List<Payment> refundPaymentsByOrderId(Long orderId) {
+        if (!REFUNDED_STATUS.equals(lockPaymentOrder(orderId, REFUNDED_STATUS).getStatus())) {
+            paymentOrderRepository.updateStatus(orderId, REFUNDED_STATUS, Instant.now());
+        }
+        List<Payment> payments = paymentRepository.findByOrderId(orderId);
+        for (Payment payment : payments) {
+            if (paymentRepository.updateStatus(payment.getId(), COMPLETED_STATUS, REFUNDED_STATUS) > 0) {
+                payment.setStatus(REFUNDED_STATUS);
+                outboxService.record(PAYMENT_AGGREGATE, payment.getId(), PAYMENT_REFUNDED, payment);
+            }
+        }
+        evictPaymentsAfterCommit(payments.stream().map(Payment::getId).toList());
+        return payments;
+    }
+
     @CacheEvict(value = "payments", key = "#id")
     public void deletePaymentById(Long id) {
         paymentRepository.deleteById(id);
@@ -46,6 +122,31 @@ public class PaymentService {
 
     @CachePut(value = "payments", key = "#payment.id")
     public Payment updatePayment(Payment payment) {
-        return paymentRepository.save(payment);
+        Payment savedPayment = paymentRepository.save(payment);
+        paymentIdFilter.put(savedPayment.getId());
+        return savedPayment;
+    }
+
+    private PaymentOrder lockPaymentOrder(Long orderId, String initialStatus) {
+        paymentOrderRepository.insertIfAbsent(orderId, initialStatus, Instant.now());
+        return paymentOrderRepository.findForUpdate(orderId)
+                .orElseThrow(() -> new IllegalStateException("Could not lock payments of order " + orderId));
+    }
+
+    private void evictPaymentsAfterCommit(List<Long> ids) {
+        Cache payments = cacheManager.getCache(PAYMENTS_CACHE);
+        if (payments == null || ids.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ids.forEach(payments::evict);
+                }
+            });
+        } else {
+            ids.forEach(payments::evict);
+        }
     }
 }
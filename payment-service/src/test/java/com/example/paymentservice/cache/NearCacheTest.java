@@ -0,0 +1,127 @@
+package com.example.paymentservice.cache;
+
+import com.example.paymentservice.entity.Payment;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class NearCacheTest {
+    private Cache remote;
+    private NearCache nearCache;
+    private List<String> invalidations;
+    private Payment payment;
+
+    @BeforeEach
+    void setUp() {
+        remote = spy(new ConcurrentMapCache("payments"));
+        invalidations = Collections.synchronizedList(new ArrayList<>());
+        nearCache = new NearCache(remote, Caffeine.newBuilder().maximumSize(100).build(),
+                (cacheName, key) -> invalidations.add(cacheName + ":" + key));
+
+        payment = new Payment();
+        payment.setId(1L);
+    }
+
+    @Test
+    void get_WhenValueIsOnlyInRemote_ShouldPromoteItToLocal() {
+        remote.put(1L, payment);
+
+        assertThat(nearCache.get(1L).get()).isEqualTo(payment);
+        assertThat(nearCache.get(1L).get()).isEqualTo(payment);
+
+        verify(remote, times(1)).get(1L);
+        assertThat(nearCache.getRemoteHits()).isEqualTo(1);
+        assertThat(nearCache.getLocalHits()).isEqualTo(1);
+    }
+
+    @Test
+    void get_WhenValueIsMissing_ShouldCountMiss() {
+        assertThat(nearCache.get(1L)).isNull();
+
+        assertThat(nearCache.getMisses()).isEqualTo(1);
+        assertThat(nearCache.getLocalHitRatio()).isZero();
+    }
+
+    @Test
+    void put_ShouldWriteBothLevelsAndBroadcastInvalidation() {
+        nearCache.put(1L, payment);
+
+        assertThat(remote.get(1L).get()).isEqualTo(payment);
+        assertThat(nearCache.get(1L).get()).isEqualTo(payment);
+        assertThat(invalidations).containsExactly("payments:1");
+    }
+
+    @Test
+    void evict_ShouldRemoveBothLevelsAndBroadcastInvalidation() {
+        nearCache.put(1L, payment);
+
+        nearCache.evict(1L);
+
+        assertThat(remote.get(1L)).isNull();
+        assertThat(nearCache.get(1L)).isNull();
+        assertThat(invalidations).containsExactly("payments:1", "payments:1");
+    }
+
+    @Test
+    void get_WhenLoaderFillsMiss_ShouldWriteBothLevelsWithoutBroadcasting() {
+        assertThat(nearCache.get(1L, () -> payment)).isEqualTo(payment);
+
+        assertThat(remote.get(1L).get()).isEqualTo(payment);
+        assertThat(nearCache.get(1L).get()).isEqualTo(payment);
+        assertThat(invalidations).isEmpty();
+    }
+
+    @Test
+    void get_WhenManyConcurrentCallersMiss_ShouldLoadOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Payment>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 100; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return nearCache.get(1L, () -> {
+                        loads.incrementAndGet();
+                        Thread.sleep(100);
+                        return payment;
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<Payment> result : results) {
+                assertThat(result.get()).isEqualTo(payment);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(nearCache.getLoads()).isEqualTo(1);
+    }
+
+    @Test
+    void get_WhenLoaderFails_ShouldPropagateAndAllowRetry() {
+        assertThatThrownBy(() -> nearCache.get(1L, () -> {
+            throw new IllegalStateException("database down");
+        })).isInstanceOf(Cache.ValueRetrievalException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+
+        assertThat(nearCache.get(1L, () -> payment)).isEqualTo(payment);
+    }
+}
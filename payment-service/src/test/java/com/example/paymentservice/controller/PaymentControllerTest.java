@@ -1,6 +1,10 @@
 package com.example.paymentservice.controller;
 
 import com.example.paymentservice.entity.Payment;
+import com.example.paymentservice.exception.OrderRefundedException;
+import com.example.paymentservice.idempotency.IdempotencyConflictException;
+import com.example.paymentservice.idempotency.IdempotencyMismatchException;
+import com.example.paymentservice.idempotency.IdempotencyStore;
 import com.example.paymentservice.service.PaymentService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +18,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -28,6 +33,8 @@ class PaymentControllerTest {
     private ObjectMapper objectMapper;
     @MockitoBean
     private PaymentService paymentService;
+    @MockitoBean
+    private IdempotencyStore idempotencyStore;
 
     private Payment payment1;
     private Payment payment2;
@@ -69,6 +76,19 @@ class PaymentControllerTest {
         verify(paymentService, times(1)).getAllPayments();
     }
 
+    @Test
+    void getPaymentsPage_WithAfterButNoLimit_ShouldReturnDefaultPage() throws Exception {
+        when(paymentService.getPaymentsAfter(1L, 100)).thenReturn(List.of(payment2));
+
+        mockMvc.perform(get("/api/payments")
+                        .param("after", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(payment2.getId()));
+
+        verify(paymentService, times(1)).getPaymentsAfter(1L, 100);
+        verify(paymentService, never()).getAllPayments();
+    }
+
     @Test
     void getPaymentById_ShouldReturnPaymentAnd200Status() throws Exception {
         when(paymentService.getPaymentById(1L)).thenReturn(payment1);
@@ -81,6 +101,30 @@ class PaymentControllerTest {
         verify(paymentService, times(1)).getPaymentById(1L);
     }
 
+    @Test
+    void getPaymentsByOrderId_ShouldReturnOrderPaymentsAnd200Status() throws Exception {
+        when(paymentService.getPaymentsByOrderId(1L)).thenReturn(List.of(payment1));
+
+        mockMvc.perform(get("/api/payments/order/{orderId}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(payment1.getId()))
+                .andExpect(jsonPath("$[0].orderId").value(payment1.getOrderId()));
+        verify(paymentService, times(1)).getPaymentsByOrderId(1L);
+    }
+
+    @Test
+    void refundPaymentsByOrderId_ShouldReturnRefundedPaymentsAnd200Status() throws Exception {
+        payment1.setStatus(PaymentService.REFUNDED_STATUS);
+        when(paymentService.refundPaymentsByOrderId(1L)).thenReturn(List.of(payment1));
+
+        mockMvc.perform(post("/api/payments/order/{orderId}/refund", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(payment1.getId()))
+                .andExpect(jsonPath("$[0].status").value(PaymentService.REFUNDED_STATUS));
+        verify(paymentService, times(1)).refundPaymentsByOrderId(1L);
+    }
+
     @Test
     void createPayment_ShouldCreatePaymentAndReturn201Status() throws Exception {
         mockMvc.perform(post("/api/payments")
@@ -90,6 +134,78 @@ class PaymentControllerTest {
                 .andExpect(jsonPath("$.id").value(payment1.getId()))
                 .andExpect(jsonPath("$.status").value(payment1.getStatus()));
         verify(paymentService, times(1)).createPayment(payment1);
+        verifyNoInteractions(idempotencyStore);
+    }
+
+    @Test
+    void createPayment_WhenOrderWasRefunded_ShouldReturn410Status() throws Exception {
+        doThrow(new OrderRefundedException("Payments for order 1 were already refunded"))
+                .when(paymentService).createPayment(payment1);
+
+        mockMvc.perform(post("/api/payments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(payment1)))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    void createPayment_WithIdempotencyKey_ShouldCreatePaymentThroughIdempotencyStore() throws Exception {
+        when(idempotencyStore.execute(eq("client-1"), eq("key-1"), eq(payment1), eq(Payment.class), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get());
+
+        mockMvc.perform(post("/api/payments")
+                        .header(IdempotencyStore.IDEMPOTENCY_KEY_HEADER, "key-1")
+                        .header(IdempotencyStore.CLIENT_ID_HEADER, "client-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(payment1)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(payment1.getId()));
+
+        verify(paymentService, times(1)).createPayment(payment1);
+    }
+
+    @Test
+    void createPayment_WhenSameKeyIsInFlight_ShouldReturn409Status() throws Exception {
+        when(idempotencyStore.execute(eq("client-1"), eq("key-1"), eq(payment1), eq(Payment.class), any()))
+                .thenThrow(new IdempotencyConflictException("key-1"));
+
+        mockMvc.perform(post("/api/payments")
+                        .header(IdempotencyStore.IDEMPOTENCY_KEY_HEADER, "key-1")
+                        .header(IdempotencyStore.CLIENT_ID_HEADER, "client-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(payment1)))
+                .andExpect(status().isConflict());
+
+        verify(paymentService, never()).createPayment(any());
+    }
+
+    @Test
+    void createPayment_WhenKeyWasUsedForAnotherBody_ShouldReturn422Status() throws Exception {
+        when(idempotencyStore.execute(eq("client-1"), eq("key-1"), eq(payment1), eq(Payment.class), any()))
+                .thenThrow(new IdempotencyMismatchException("key-1"));
+
+        mockMvc.perform(post("/api/payments")
+                        .header(IdempotencyStore.IDEMPOTENCY_KEY_HEADER, "key-1")
+                        .header(IdempotencyStore.CLIENT_ID_HEADER, "client-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(payment1)))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(paymentService, never()).createPayment(any());
+    }
+
+    @Test
+    void createPayment_WithIdempotencyKeyButNoClientId_ShouldReturn400Status() throws Exception {
+        when(idempotencyStore.execute(isNull(), eq("key-1"), eq(payment1), eq(Payment.class), any()))
+                .thenThrow(new IllegalArgumentException("X-Client-Id header is required with Idempotency-Key"));
+
+        mockMvc.perform(post("/api/payments")
+                        .header(IdempotencyStore.IDEMPOTENCY_KEY_HEADER, "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(payment1)))
+                .andExpect(status().isBadRequest());
+
+        verify(paymentService, never()).createPayment(any());
     }
 
     @Test
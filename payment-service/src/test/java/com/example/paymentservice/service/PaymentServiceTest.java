@@ -1,20 +1,33 @@
 package com.example.paymentservice.service;
 
+import com.example.paymentservice.cache.IdBloomFilter;
 import com.example.paymentservice.entity.Payment;
+import com.example.paymentservice.entity.PaymentOrder;
+import com.example.paymentservice.exception.OrderRefundedException;
+import com.example.paymentservice.outbox.OutboxService;
+import com.example.paymentservice.repository.PaymentOrderRepository;
 import com.example.paymentservice.repository.PaymentRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(
@@ -23,6 +36,18 @@ import static org.mockito.Mockito.*;
 class PaymentServiceTest {
     @Mock
     private PaymentRepository paymentRepository;
+    @Spy
+    private IdBloomFilter paymentIdFilter = new IdBloomFilter("payments", 1000, 0.01);
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private OutboxService outboxService;
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private Cache cache;
+    @Mock
+    private PaymentOrderRepository paymentOrderRepository;
     @InjectMocks
     private PaymentService paymentService;
 
@@ -49,9 +74,42 @@ class PaymentServiceTest {
 
     @Test
     void createPayment_ShouldCreatePayment() {
+        doReturn(Optional.of(paymentOrder(1L, PaymentService.OPEN_STATUS)))
+                .when(paymentOrderRepository).findForUpdate(1L);
+
         paymentService.createPayment(payment1);
 
+        verify(paymentOrderRepository, times(1)).insertIfAbsent(eq(1L), eq(PaymentService.OPEN_STATUS),
+                any(Instant.class));
         verify(paymentRepository, times(1)).save(payment1);
+        verify(outboxService, times(1)).record(PaymentService.PAYMENT_AGGREGATE, payment1.getId(),
+                PaymentService.PAYMENT_COMPLETED, payment1);
+    }
+
+    @Test
+    void createPayment_WhenOrderWasRefundedFirst_ShouldRefusePayment() {
+        doReturn(Optional.of(paymentOrder(1L, PaymentService.REFUNDED_STATUS)))
+                .when(paymentOrderRepository).findForUpdate(1L);
+
+        assertThatThrownBy(() -> paymentService.createPayment(payment1))
+                .isInstanceOf(OrderRefundedException.class);
+
+        verify(paymentRepository, never()).save(any());
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void refundPaymentsByOrderId_BeforePaymentIsCreated_ShouldRecordRefundedOrder() {
+        doReturn(Optional.of(paymentOrder(1L, PaymentService.REFUNDED_STATUS)))
+                .when(paymentOrderRepository).findForUpdate(1L);
+        doReturn(List.of()).when(paymentRepository).findByOrderId(1L);
+
+        List<Payment> result = paymentService.refundPaymentsByOrderId(1L);
+
+        assertThat(result).isEmpty();
+        verify(paymentOrderRepository, times(1)).insertIfAbsent(eq(1L), eq(PaymentService.REFUNDED_STATUS),
+                any(Instant.class));
+        verify(paymentOrderRepository, never()).updateStatus(anyLong(), anyString(), any());
     }
 
     @Test
@@ -66,6 +124,39 @@ class PaymentServiceTest {
         verify(paymentRepository, times(1)).findAll();
     }
 
+    @Test
+    void getPaymentsAfter_ShouldQueryNextPageByKey() {
+        List<Payment> page = List.of(payment1, payment2);
+        doReturn(page).when(paymentRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2));
+
+        List<Payment> result = paymentService.getPaymentsAfter(0L, 2);
+
+        assertThat(result).isEqualTo(page);
+        verify(paymentRepository, times(1)).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2));
+    }
+
+    @Test
+    void getPaymentsByOrderId_ShouldQueryByOrderId() {
+        when(paymentRepository.findByOrderId(1L)).thenReturn(List.of(payment1));
+
+        List<Payment> result = paymentService.getPaymentsByOrderId(1L);
+
+        assertThat(result).containsExactly(payment1);
+        verify(paymentRepository, times(1)).findByOrderId(1L);
+    }
+
+    @Test
+    void streamAllPayments_ShouldPassEachRowAndDetachIt() {
+        List<Payment> rows = List.of(payment1, payment2);
+        doReturn(rows.stream()).when(paymentRepository).streamAll();
+        List<Payment> received = new ArrayList<>();
+
+        paymentService.streamAllPayments(received::add);
+
+        assertThat(received).isEqualTo(rows);
+        verify(entityManager, times(rows.size())).detach(any(Payment.class));
+    }
+
     @Test
     void getPaymentById_WhenPaymentExists_ShouldReturnPayment() {
         when(paymentRepository.findById(1L)).thenReturn(Optional.of(payment1));
@@ -104,4 +195,55 @@ class PaymentServiceTest {
         assertThat(result).isEqualTo(payment1);
         verify(paymentRepository, times(1)).save(payment1);
     }
-}
\ No newline at end of file
+
+    @Test
+    void refundPaymentsByOrderId_ShouldRefundCompletedPaymentsOnce() {
+        payment1.setStatus(PaymentService.COMPLETED_STATUS);
+        doReturn(Optional.of(paymentOrder(1L, PaymentService.OPEN_STATUS)))
+                .when(paymentOrderRepository).findForUpdate(1L);
+        doReturn(List.of(payment1)).when(paymentRepository).findByOrderId(1L);
+        doReturn(1).when(paymentRepository).updateStatus(1L, PaymentService.COMPLETED_STATUS,
+                PaymentService.REFUNDED_STATUS);
+        doReturn(cache).when(cacheManager).getCache(PaymentService.PAYMENTS_CACHE);
+
+        List<Payment> result = paymentService.refundPaymentsByOrderId(1L);
+
+        assertThat(result).containsExactly(payment1);
+        assertThat(payment1.getStatus()).isEqualTo(PaymentService.REFUNDED_STATUS);
+        verify(paymentOrderRepository, times(1)).updateStatus(eq(1L), eq(PaymentService.REFUNDED_STATUS),
+                any(Instant.class));
+        verify(outboxService, times(1)).record(PaymentService.PAYMENT_AGGREGATE, 1L,
+                PaymentService.PAYMENT_REFUNDED, payment1);
+        verify(cache, times(1)).evict(1L);
+    }
+
+    @Test
+    void refundPaymentsByOrderId_WhenAlreadyRefunded_ShouldNotRecordAnotherRefund() {
+        payment1.setStatus(PaymentService.REFUNDED_STATUS);
+        doReturn(Optional.of(paymentOrder(1L, PaymentService.REFUNDED_STATUS)))
+                .when(paymentOrderRepository).findForUpdate(1L);
+        doReturn(List.of(payment1)).when(paymentRepository).findByOrderId(1L);
+        doReturn(0).when(paymentRepository).updateStatus(1L, PaymentService.COMPLETED_STATUS,
+                PaymentService.REFUNDED_STATUS);
+
+        paymentService.refundPaymentsByOrderId(1L);
+
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void refundPaymentsByOrderId_WhenOrderHasNoPayments_ShouldDoNothing() {
+        doReturn(Optional.of(paymentOrder(1L, PaymentService.REFUNDED_STATUS)))
+                .when(paymentOrderRepository).findForUpdate(1L);
+        doReturn(List.of()).when(paymentRepository).findByOrderId(1L);
+
+        List<Payment> result = paymentService.refundPaymentsByOrderId(1L);
+
+        assertThat(result).isEmpty();
+        verify(paymentRepository, never()).updateStatus(anyLong(), anyString(), anyString());
+    }
+
+    private PaymentOrder paymentOrder(Long orderId, String status) {
+        return new PaymentOrder(orderId, status, Instant.now());
+    }
+}
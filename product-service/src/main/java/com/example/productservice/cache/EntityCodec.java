@@ -0,0 +1,11 @@
+package com.example.productservice.cache;
+
+public interface EntityCodec<T> {
+    int tag();
+
+    Class<T> type();
+
+    void write(BinaryWriter out, T value);
+
+    T read(BinaryReader in);
+}
@@ -0,0 +1,39 @@
+package com.example.productservice.cache;
+
+import com.example.productservice.entity.Product;
+
+public class ProductCodec implements EntityCodec<Product> {
+    public static final int TAG = 2;
+
+    @Override
+    public int tag() {
+        return TAG;
+    }
+
+    @Override
+    public Class<Product> type() {
+        return Product.class;
+    }
+
+    @Override
+    public void write(BinaryWriter out, Product product) {
+        out.writeVarLong(product.getId());
+        out.writeString(product.getName());
+        out.writeString(product.getDescription());
+        out.writeDouble(product.getPrice());
+        out.writeString(product.getCategory());
+        out.writeVarLong(product.getStockQuantity());
+    }
+
+    @Override
+    public Product read(BinaryReader in) {
+        Product product = new Product();
+        product.setId(in.readVarLong());
+        product.setName(in.readString());
+        product.setDescription(in.readString());
+        product.setPrice(in.readDouble());
+        product.setCategory(in.readString());
+        product.setStockQuantity((int) in.readVarLong());
+        return product;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.productservice.cache;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class RecentIdLog {
+    private static final int RECORD_BATCH_SIZE = 1000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final String key;
+    private final Duration retention;
+
+    public RecentIdLog(StringRedisTemplate redisTemplate, String name, Duration retention) {
+        this.redisTemplate = redisTemplate;
+        this.key = "bloom-filter:" + name + ":recent";
+        this.retention = retention;
+    }
+
+    public void recordAll(Collection<Long> ids) {
+        double now = System.currentTimeMillis();
+        Set<ZSetOperations.TypedTuple<String>> batch = new HashSet<>();
+        try {
+            for (Long id : ids) {
+                batch.add(ZSetOperations.TypedTuple.of(id.toString(), now));
+                if (batch.size() == RECORD_BATCH_SIZE) {
+                    redisTemplate.opsForZSet().add(key, batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                redisTemplate.opsForZSet().add(key, batch);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Could not record " + ids.size() + " ids in " + key + ": " + e.getMessage());
+        }
+    }
+
+    public Collection<Long> findAll(Collection<Long> ids) {
+        List<Long> candidates = new ArrayList<>(ids);
+        try {
+            List<Double> scores = redisTemplate.opsForZSet().score(key,
+                    candidates.stream().map(String::valueOf).toArray());
+            if (scores == null) {
+                return candidates;
+            }
+            List<Long> found = new ArrayList<>();
+            for (int i = 0; i < candidates.size(); i++) {
+                if (scores.get(i) != null) {
+                    found.add(candidates.get(i));
+                }
+            }
+            return found;
+        } catch (RuntimeException e) {
+            System.err.println("Could not look up ids in " + key + ": " + e.getMessage());
+            return candidates;
+        }
+    }
+
+    public void trim() {
+        try {
+            redisTemplate.opsForZSet().removeRangeByScore(key, 0, System.currentTimeMillis() - retention.toMillis());
+        } catch (RuntimeException e) {
+            System.err.println("Could not trim " + key + ": " + e.getMessage());
+        }
+    }
+}
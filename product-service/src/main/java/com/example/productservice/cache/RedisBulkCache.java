@@ -0,0 +1,77 @@
+package com.example.productservice.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.cache.CacheKeyPrefix;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RedisBulkCache {
+    private static final byte[] BINARY_NULL_VALUE = RedisSerializer.java().serialize(NullValue.INSTANCE);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisSerializer<Object> valueSerializer;
+    private final Duration timeToLive;
+    private final Duration negativeTimeToLive;
+    private final Counter hits;
+    private final Counter misses;
+
+    public RedisBulkCache(StringRedisTemplate redisTemplate, RedisSerializer<Object> valueSerializer,
+                          Duration timeToLive, Duration negativeTimeToLive, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.valueSerializer = valueSerializer;
+        this.timeToLive = timeToLive;
+        this.negativeTimeToLive = negativeTimeToLive;
+        this.hits = meterRegistry.counter("cache.bulk.gets", "result", "hit");
+        this.misses = meterRegistry.counter("cache.bulk.gets", "result", "miss");
+    }
+
+    public <K> Map<K, Object> getAll(String cacheName, List<K> keys) {
+        Map<K, Object> result = new HashMap<>();
+        if (keys.isEmpty()) {
+            return result;
+        }
+        byte[][] rawKeys = keys.stream().map(key -> rawKey(cacheName, key)).toArray(byte[][]::new);
+        List<byte[]> values = redisTemplate.execute(
+                (RedisCallback<List<byte[]>>) connection -> connection.stringCommands().mGet(rawKeys));
+        for (int i = 0; i < keys.size(); i++) {
+            byte[] value = values != null ? values.get(i) : null;
+            if (value != null) {
+                result.put(keys.get(i), valueSerializer.deserialize(value));
+            }
+        }
+        hits.increment(result.size());
+        misses.increment(keys.size() - result.size());
+        return result;
+    }
+
+    public void putAll(String cacheName, Map<?, ?> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            entries.forEach((key, value) -> {
+                boolean negative = value == null || value instanceof NullValue;
+                connection.stringCommands().set(rawKey(cacheName, key),
+                        negative ? BINARY_NULL_VALUE : valueSerializer.serialize(value),
+                        Expiration.from(negative ? negativeTimeToLive : timeToLive),
+                        RedisStringCommands.SetOption.ifAbsent());
+            });
+            return null;
+        });
+    }
+
+    private static byte[] rawKey(String cacheName, Object key) {
+        return (CacheKeyPrefix.simple().compute(cacheName) + key).getBytes(StandardCharsets.UTF_8);
+    }
+}
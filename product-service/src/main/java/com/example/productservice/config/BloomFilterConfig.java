@@ -0,0 +1,73 @@
+package com.example.productservice.config;
+
+import com.example.productservice.cache.IdBloomFilter;
+import com.example.productservice.cache.RecentIdLog;
+import com.example.productservice.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.stream.Stream;
+
+@Configuration
+public class BloomFilterConfig {
+    @Value("${bloom-filter.expected-insertions:1000000}")
+    private long expectedInsertions;
+    @Value("${bloom-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+    @Value("${bloom-filter.reload-interval:10m}")
+    private Duration reloadInterval;
+    @Value("${bloom-filter.recent-id-retention:1h}")
+    private Duration recentIdRetention;
+
+    @Bean
+    public RecentIdLog productIdLog(StringRedisTemplate redisTemplate) {
+        if (recentIdRetention.compareTo(reloadInterval.multipliedBy(2)) < 0) {
+            throw new IllegalArgumentException("bloom-filter.recent-id-retention must be at least twice the reload interval");
+        }
+        return new RecentIdLog(redisTemplate, "products", recentIdRetention);
+    }
+
+    @Bean
+    public IdBloomFilter productIdFilter(RecentIdLog productIdLog, MeterRegistry meterRegistry) {
+        IdBloomFilter filter = new IdBloomFilter("products", expectedInsertions, falsePositiveRate);
+        filter.share(productIdLog::recordAll, productIdLog::findAll);
+        filter.registerMetrics(meterRegistry);
+        return filter;
+    }
+
+    @Bean
+    public ApplicationRunner productIdFilterLoader(IdBloomFilter productIdFilter, ProductRepository productRepository,
+            TransactionTemplate transactionTemplate) {
+        return args -> load(productIdFilter, productRepository, transactionTemplate);
+    }
+
+    @Bean
+    public SchedulingConfigurer productIdFilterReloader(IdBloomFilter productIdFilter, RecentIdLog productIdLog,
+            ProductRepository productRepository, TransactionTemplate transactionTemplate) {
+        return registrar -> registrar.addFixedDelayTask(new FixedDelayTask(() -> {
+            try {
+                load(productIdFilter, productRepository, transactionTemplate);
+                productIdLog.trim();
+            } catch (RuntimeException e) {
+                System.err.println("Could not reload product id filter: " + e.getMessage());
+            }
+        }, reloadInterval, reloadInterval));
+    }
+
+    private static void load(IdBloomFilter filter, ProductRepository productRepository,
+            TransactionTemplate transactionTemplate) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Long> ids = productRepository.streamAllIds()) {
+                filter.load(ids);
+            }
+        });
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.productservice.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class IdSequenceConfig {
+
+    @Bean
+    public SmartInitializingSingleton productIdSequenceAligner(JdbcTemplate jdbcTemplate) {
+        return () -> jdbcTemplate.execute("select setval('products_seq', (select max(id) from products)) " +
+                "where (select max(id) from products) > (select last_value from products_seq)");
+    }
+}
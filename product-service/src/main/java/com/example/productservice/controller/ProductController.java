@@ -2,10 +2,14 @@ package com.example.productservice.controller;
 
 import com.example.productservice.entity.Product;
 import com.example.productservice.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -13,15 +17,47 @@ import java.util.List;
 @RequestMapping("/api/products")
 public class ProductController {
     private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    @Value("${pagination.default-limit:100}")
+    private int defaultPageLimit;
+    @Value("${pagination.max-limit:1000}")
+    private int maxPageLimit;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ObjectMapper objectMapper) {
         this.productService = productService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    public List<Product> getAllProducts() {
-        return productService.getAllProducts();
+    public List<Product> getAllProducts(@RequestParam(required = false) Long after,
+                                        @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return productService.getAllProducts();
+        }
+        long pageAfter = after == null ? 0 : after;
+        int pageLimit = limit == null ? defaultPageLimit : limit;
+        return productService.getProductsAfter(pageAfter, Math.max(1, Math.min(pageLimit, maxPageLimit)));
+    }
+
+    @GetMapping(params = "ids")
+    public List<Product> getProductsByIds(@RequestParam List<Long> ids) {
+        return productService.getProductsByIds(ids);
+    }
+
+    @PostMapping("/by-ids")
+    public List<Product> getProductsByIdsInBody(@RequestBody List<Long> ids) {
+        return productService.getProductsByIds(ids);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllProducts() {
+        return NdjsonResponses.stream(objectMapper, productService::streamAllProducts);
+    }
+
+    @GetMapping(value = "/ids", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllProductIds() {
+        return NdjsonResponses.stream(objectMapper, productService::streamAllProductIds);
     }
 
     @GetMapping("/{id}")
@@ -40,6 +76,12 @@ public class ProductController {
         return new ResponseEntity<>(product, HttpStatus.CREATED);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<Product>> createProducts(@RequestBody List<Product> products) {
+        List<Product> savedProducts = productService.saveProducts(products);
+        return new ResponseEntity<>(savedProducts, HttpStatus.CREATED);
+    }
+
     @PutMapping
     public ResponseEntity<Product> updateProduct(@RequestBody Product product) {
         productService.updateProduct(product);
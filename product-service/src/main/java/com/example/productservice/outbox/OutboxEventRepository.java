@@ -0,0 +1,33 @@
+package com.example.productservice.outbox;
+
+import com.example.productservice.repository.BatchInsertRepository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long>, BatchInsertRepository<OutboxEvent> {
+
+    @Query(value = "select * from product_outbox where published_at is null " +
+            "and (claimed_until is null or claimed_until < :now) order by id limit :limit " +
+            "for update skip locked", nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(@Param("limit") int limit, @Param("now") Instant now);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.claimedUntil = :claimedUntil where e.id in :ids")
+    int claim(@Param("ids") Collection<Long> ids, @Param("claimedUntil") Instant claimedUntil);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.publishedAt = :publishedAt where e.id in :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") Instant publishedAt);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") Instant before);
+}
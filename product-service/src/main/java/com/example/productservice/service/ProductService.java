@@ -1,48 +1,135 @@
 package com.example.productservice.service;
 
+import com.example.productservice.cache.IdBloomFilter;
+import com.example.productservice.cache.RedisBulkCache;
 import com.example.productservice.entity.Product;
+import com.example.productservice.outbox.OutboxService;
 import com.example.productservice.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class ProductService {
+    public static final String PRODUCTS_CACHE = "products";
+    public static final String PRODUCT_AGGREGATE = "Product";
+    public static final String PRODUCT_CREATED = "ProductCreated";
+    public static final String PRODUCT_UPDATED = "ProductUpdated";
+    public static final String PRODUCT_DELETED = "ProductDeleted";
+
     private final ProductRepository productRepository;
+    private final IdBloomFilter productIdFilter;
+    private final EntityManager entityManager;
+    private final RedisBulkCache redisBulkCache;
+    private final OutboxService outboxService;
 
     @Autowired
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, IdBloomFilter productIdFilter,
+                          EntityManager entityManager, RedisBulkCache redisBulkCache, OutboxService outboxService) {
         this.productRepository = productRepository;
+        this.productIdFilter = productIdFilter;
+        this.entityManager = entityManager;
+        this.redisBulkCache = redisBulkCache;
+        this.outboxService = outboxService;
     }
 
+    @Transactional
     public void saveProduct(Product product) {
         productRepository.save(product);
+        productIdFilter.put(product.getId());
+        outboxService.record(PRODUCT_AGGREGATE, product.getId(), PRODUCT_CREATED, product);
+    }
+
+    @Transactional
+    public List<Product> saveProducts(List<Product> products) {
+        List<Product> savedProducts = productRepository.insertAll(products);
+        productIdFilter.putAll(savedProducts.stream().map(Product::getId).toList());
+        outboxService.recordAll(PRODUCT_AGGREGATE, Product::getId, PRODUCT_CREATED, savedProducts);
+        return savedProducts;
     }
 
+    @Transactional
     @CachePut(value = "products", key = "#product.id")
     public Product updateProduct(Product product) {
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        productIdFilter.put(savedProduct.getId());
+        outboxService.record(PRODUCT_AGGREGATE, savedProduct.getId(), PRODUCT_UPDATED, savedProduct);
+        return savedProduct;
     }
 
-    @Cacheable(value = "products", key = "#id")
+    @Cacheable(value = "products", key = "#id", sync = true)
     public Product getProductById(Long id) {
+        if (productIdFilter.rejects(id)) {
+            return null;
+        }
         return productRepository.findById(id).orElse(null);
     }
 
+    public List<Product> getProductsByIds(List<Long> ids) {
+        List<Long> candidateIds = productIdFilter.retainMightContain(ids.stream().distinct().toList());
+        Map<Long, Object> cached = redisBulkCache.getAll(PRODUCTS_CACHE, candidateIds);
+        List<Long> missingIds = candidateIds.stream()
+                .filter(id -> !cached.containsKey(id))
+                .toList();
+        if (!missingIds.isEmpty()) {
+            Map<Long, Object> loaded = new LinkedHashMap<>();
+            productRepository.findAllById(missingIds).forEach(product -> loaded.put(product.getId(), product));
+            missingIds.forEach(id -> loaded.putIfAbsent(id, NullValue.INSTANCE));
+            redisBulkCache.putAll(PRODUCTS_CACHE, loaded);
+            cached.putAll(loaded);
+        }
+        return candidateIds.stream()
+                .map(cached::get)
+                .filter(Product.class::isInstance)
+                .map(Product.class::cast)
+                .toList();
+    }
+
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
 
+    public List<Product> getProductsAfter(long after, int limit) {
+        return productRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllProducts(Consumer<Product> consumer) {
+        try (Stream<Product> productStream = productRepository.streamAll()) {
+            productStream.forEach(product -> {
+                consumer.accept(product);
+                entityManager.detach(product);
+            });
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllProductIds(Consumer<Long> consumer) {
+        try (Stream<Long> ids = productRepository.streamAllIds()) {
+            ids.forEach(consumer);
+        }
+    }
+
     public List<Product> getProductsByCategory(String category) {
         return productRepository.findByCategory(category);
     }
 
+    @Transactional
     @CacheEvict(value = "products", key = "#id")
     public void deleteProductById(Long id) {
         productRepository.deleteById(id);
+        outboxService.record(PRODUCT_AGGREGATE, id, PRODUCT_DELETED, id);
     }
 }
@@ -0,0 +1,79 @@
+package com.example.productservice.cache;
+
+import com.example.productservice.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactRedisSerializerTest {
+    private final CompactRedisSerializer serializer = new CompactRedisSerializer(List.of(new ProductCodec()));
+    private final JdkSerializationRedisSerializer jdkSerializer = new JdkSerializationRedisSerializer();
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        product = new Product();
+        product.setId(42L);
+        product.setName("Test Product");
+        product.setDescription("Описание товара");
+        product.setCategory("Electronics");
+        product.setPrice(999.99);
+        product.setStockQuantity(-3);
+    }
+
+    @Test
+    void serialize_ShouldRoundTripProduct() {
+        byte[] bytes = serializer.serialize(product);
+
+        assertThat(bytes[0]).isEqualTo(CompactRedisSerializer.FORMAT_VERSION);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(product);
+    }
+
+    @Test
+    void serialize_ShouldBeMuchSmallerThanJdkSerialization() {
+        byte[] compact = serializer.serialize(product);
+        byte[] jdk = jdkSerializer.serialize(product);
+
+        System.out.printf("Product cache entry: compact=%d bytes, jdk=%d bytes%n", compact.length, jdk.length);
+        assertThat(compact.length * 3).isLessThan(jdk.length);
+    }
+
+    @Test
+    void serialize_ShouldRoundTripNullsAndEmptyStrings() {
+        product.setName("");
+        product.setDescription(null);
+
+        Product result = (Product) serializer.deserialize(serializer.serialize(product));
+
+        assertThat(result.getName()).isEmpty();
+        assertThat(result.getDescription()).isNull();
+    }
+
+    @Test
+    void serialize_ShouldFallBackToJdkSerializationForUnknownTypes() {
+        Object result = serializer.deserialize(serializer.serialize(NullValue.INSTANCE));
+
+        assertThat(result).isEqualTo(NullValue.INSTANCE);
+    }
+
+    @Test
+    void deserialize_ShouldReadLegacyJdkSerializedEntries() {
+        byte[] legacy = jdkSerializer.serialize(product);
+
+        assertThat(serializer.deserialize(legacy)).isEqualTo(product);
+    }
+
+    @Test
+    void deserialize_WhenFormatVersionIsUnknown_ShouldReturnNullSoTheEntryIsReloaded() {
+        byte[] bytes = serializer.serialize(product);
+        bytes[0] = CompactRedisSerializer.FORMAT_VERSION + 1;
+
+        assertThat(serializer.deserialize(bytes)).isNull();
+    }
+}
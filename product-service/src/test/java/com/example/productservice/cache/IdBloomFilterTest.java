@@ -0,0 +1,111 @@
+package com.example.productservice.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdBloomFilterTest {
+
+    @Test
+    void mightContain_BeforeLoad_ShouldAllowEveryId() {
+        IdBloomFilter filter = new IdBloomFilter("products", 1000, 0.01);
+
+        assertThat(filter.isReady()).isFalse();
+        assertThat(filter.mightContain(42L)).isTrue();
+        assertThat(filter.rejects(42L)).isFalse();
+    }
+
+    @Test
+    void mightContain_AfterLoad_ShouldNeverMissInsertedIds() {
+        IdBloomFilter filter = new IdBloomFilter("products", 10_000, 0.01);
+
+        filter.load(LongStream.rangeClosed(1, 10_000).boxed());
+
+        assertThat(filter.isReady()).isTrue();
+        assertThat(LongStream.rangeClosed(1, 10_000).allMatch(filter::mightContain)).isTrue();
+    }
+
+    @Test
+    void mightContain_AfterLoad_ShouldKeepFalsePositivesNearConfiguredRate() {
+        IdBloomFilter filter = new IdBloomFilter("products", 10_000, 0.01);
+        filter.load(LongStream.rangeClosed(1, 10_000).boxed());
+
+        long falsePositives = LongStream.rangeClosed(1_000_001, 1_100_000).filter(filter::mightContain).count();
+
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(filter.getExpectedFalsePositiveRate()).isLessThan(0.02);
+    }
+
+    @Test
+    void put_AfterLoad_ShouldAdmitNewId() {
+        IdBloomFilter filter = new IdBloomFilter("products", 1000, 0.01);
+        filter.load(LongStream.rangeClosed(1, 10).boxed());
+
+        filter.put(5000L);
+
+        assertThat(filter.mightContain(5000L)).isTrue();
+    }
+
+    @Test
+    void put_ShouldPublishIdToOtherInstances() {
+        IdBloomFilter filter = new IdBloomFilter("products", 1000, 0.01);
+        List<Long> published = new ArrayList<>();
+        filter.share(published::addAll, ids -> List.of());
+
+        filter.put(5000L);
+
+        assertThat(published).containsExactly(5000L);
+    }
+
+    @Test
+    void putAll_ShouldPublishIdsInOneCall() {
+        IdBloomFilter filter = new IdBloomFilter("products", 1000, 0.01);
+        filter.load(LongStream.rangeClosed(1, 10).boxed());
+        List<List<Long>> published = new ArrayList<>();
+        filter.share(ids -> published.add(List.copyOf(ids)), ids -> List.of());
+
+        filter.putAll(List.of(5000L, 6000L));
+
+        assertThat(published).containsExactly(List.of(5000L, 6000L));
+        assertThat(filter.mightContain(5000L)).isTrue();
+        assertThat(filter.mightContain(6000L)).isTrue();
+    }
+
+    @Test
+    void mightContain_WhenIdWasCreatedOnAnotherInstance_ShouldAdmitItFromSharedLookupAndLearnIt() {
+        IdBloomFilter filter = new IdBloomFilter("products", 1000, 0.01);
+        AtomicInteger sharedLookups = new AtomicInteger();
+        filter.share(id -> {
+        }, ids -> {
+            sharedLookups.incrementAndGet();
+            return ids.contains(5000L) ? List.of(5000L) : List.of();
+        });
+        filter.load(LongStream.rangeClosed(1, 10).boxed());
+
+        assertThat(filter.rejects(5000L)).isFalse();
+        assertThat(filter.mightContain(5000L)).isTrue();
+        assertThat(sharedLookups).hasValue(1);
+    }
+
+    @Test
+    void retainMightContain_ShouldLookUpLocalMissesInOneSharedCall() {
+        IdBloomFilter filter = new IdBloomFilter("products", 1000, 0.01);
+        List<List<Long>> sharedLookups = new ArrayList<>();
+        filter.share(id -> {
+        }, ids -> {
+            sharedLookups.add(List.copyOf(ids));
+            return ids.contains(5000L) ? List.of(5000L) : List.of();
+        });
+        filter.load(LongStream.rangeClosed(1, 10).boxed());
+
+        List<Long> result = filter.retainMightContain(List.of(1L, 5000L, 6000L));
+
+        assertThat(result).contains(1L, 5000L);
+        assertThat(sharedLookups).hasSize(1);
+    }
+}
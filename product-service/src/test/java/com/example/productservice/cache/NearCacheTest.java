@@ -0,0 +1,142 @@
+package com.example.productservice.cache;
+
+import com.example.productservice.entity.Product;
+import com.example.productservice.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class NearCacheTest {
+    private Cache remote;
+    private NearCache nearCache;
+    private List<String> invalidations;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        remote = spy(new ConcurrentMapCache("products"));
+        invalidations = Collections.synchronizedList(new ArrayList<>());
+        nearCache = new NearCache(remote, Caffeine.newBuilder().maximumSize(100).build(),
+                (cacheName, key) -> invalidations.add(cacheName + ":" + key));
+
+        product = new Product();
+        product.setId(1L);
+        product.setName("Test Product");
+    }
+
+    @Test
+    void get_WhenValueIsOnlyInRemote_ShouldPromoteItToLocal() {
+        remote.put(1L, product);
+
+        assertThat(nearCache.get(1L).get()).isEqualTo(product);
+        assertThat(nearCache.get(1L).get()).isEqualTo(product);
+
+        verify(remote, times(1)).get(1L);
+        assertThat(nearCache.getRemoteHits()).isEqualTo(1);
+        assertThat(nearCache.getLocalHits()).isEqualTo(1);
+    }
+
+    @Test
+    void get_WhenValueIsMissing_ShouldCountMiss() {
+        assertThat(nearCache.get(1L)).isNull();
+
+        assertThat(nearCache.getMisses()).isEqualTo(1);
+        assertThat(nearCache.getLocalHitRatio()).isZero();
+    }
+
+    @Test
+    void put_ShouldWriteBothLevelsAndBroadcastInvalidation() {
+        nearCache.put(1L, product);
+
+        assertThat(remote.get(1L).get()).isEqualTo(product);
+        assertThat(nearCache.get(1L).get()).isEqualTo(product);
+        assertThat(nearCache.getLocalHits()).isEqualTo(1);
+        assertThat(invalidations).containsExactly("products:1");
+    }
+
+    @Test
+    void evict_ShouldRemoveBothLevelsAndBroadcastInvalidation() {
+        nearCache.put(1L, product);
+
+        nearCache.evict(1L);
+
+        assertThat(remote.get(1L)).isNull();
+        assertThat(nearCache.get(1L)).isNull();
+        assertThat(invalidations).containsExactly("products:1", "products:1");
+    }
+
+    @Test
+    void get_WhenLoaderFillsMiss_ShouldWriteBothLevelsWithoutBroadcasting() {
+        assertThat(nearCache.get(1L, () -> product)).isEqualTo(product);
+
+        assertThat(remote.get(1L).get()).isEqualTo(product);
+        assertThat(nearCache.get(1L).get()).isEqualTo(product);
+        assertThat(nearCache.getLocalHits()).isEqualTo(1);
+        assertThat(invalidations).isEmpty();
+    }
+
+    @Test
+    void invalidateLocal_ShouldDropOnlyTheLocalCopy() {
+        nearCache.put(1L, product);
+
+        nearCache.invalidateLocal("1");
+
+        assertThat(nearCache.get(1L).get()).isEqualTo(product);
+        assertThat(nearCache.getRemoteHits()).isEqualTo(1);
+    }
+
+    @Test
+    void get_WhenThousandConcurrentCallersMiss_ShouldQueryDatabaseOnce() throws Exception {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findById(1L)).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return Optional.of(product);
+        });
+        int callers = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Product>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return nearCache.get(1L, () -> productRepository.findById(1L).orElse(null));
+                }));
+            }
+            start.countDown();
+            for (Future<Product> result : results) {
+                assertThat(result.get()).isEqualTo(product);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(productRepository, times(1)).findById(1L);
+        assertThat(nearCache.getLoads()).isEqualTo(1);
+    }
+
+    @Test
+    void get_WhenLoaderFails_ShouldPropagateToAllWaitersAndAllowRetry() {
+        assertThatThrownBy(() -> nearCache.get(1L, () -> {
+            throw new IllegalStateException("database down");
+        })).isInstanceOf(Cache.ValueRetrievalException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+
+        assertThat(nearCache.get(1L, () -> product)).isEqualTo(product);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.productservice.cache;
+
+import com.example.productservice.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_REDIS_HOST", matches = ".+")
+class RedisBulkCacheBenchmarkTest {
+    private static final String CACHE_NAME = "products-benchmark";
+    private static final int ROUNDS = 50;
+
+    private final CompactRedisSerializer serializer = new CompactRedisSerializer(List.of(new ProductCodec()));
+    private LettuceConnectionFactory connectionFactory;
+    private Cache cache;
+    private RedisBulkCache redisBulkCache;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+                System.getenv("BENCHMARK_REDIS_HOST"),
+                Integer.parseInt(System.getenv().getOrDefault("BENCHMARK_REDIS_PORT", "6379"))));
+        connectionFactory.afterPropertiesSet();
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        RedisCacheManager cacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig()
+                        .entryTtl(Duration.ofMinutes(5))
+                        .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer)))
+                .build();
+        cacheManager.afterPropertiesSet();
+        cache = cacheManager.getCache(CACHE_NAME);
+        redisBulkCache = new RedisBulkCache(redisTemplate, serializer, Duration.ofMinutes(5), Duration.ofSeconds(30),
+                new SimpleMeterRegistry());
+
+        Map<Long, Object> products = new LinkedHashMap<>();
+        LongStream.rangeClosed(1, 1000).forEach(id -> products.put(id, newProduct(id)));
+        redisBulkCache.putAll(CACHE_NAME, products);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.clear();
+        connectionFactory.destroy();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100, 1000})
+    void getAll_ShouldTakeOneRoundTripInsteadOfN(int n) {
+        List<Long> ids = LongStream.rangeClosed(1, n).boxed().toList();
+
+        long singleStartedAt = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (Long id : ids) {
+                assertThat(cache.get(id)).isNotNull();
+            }
+        }
+        Duration single = Duration.ofNanos((System.nanoTime() - singleStartedAt) / ROUNDS);
+
+        long bulkStartedAt = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            assertThat(redisBulkCache.getAll(CACHE_NAME, ids)).hasSize(n);
+        }
+        Duration bulk = Duration.ofNanos((System.nanoTime() - bulkStartedAt) / ROUNDS);
+
+        System.out.printf("N=%d: %d single GETs %d us, one MGET %d us, %.1fx%n", n, n,
+                single.toNanos() / 1000, bulk.toNanos() / 1000, (double) single.toNanos() / bulk.toNanos());
+    }
+
+    private Product newProduct(long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setCategory("Benchmark");
+        product.setPrice(id);
+        return product;
+    }
+}
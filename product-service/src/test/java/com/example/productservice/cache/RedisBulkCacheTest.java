@@ -0,0 +1,100 @@
+package com.example.productservice.cache;
+
+import com.example.productservice.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class RedisBulkCacheTest {
+    private final CompactRedisSerializer serializer = new CompactRedisSerializer(List.of(new ProductCodec()));
+    private final byte[] nullValue = RedisSerializer.java().serialize(NullValue.INSTANCE);
+    private StringRedisTemplate redisTemplate;
+    private RedisStringCommands stringCommands;
+    private SimpleMeterRegistry meterRegistry;
+    private RedisBulkCache redisBulkCache;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        RedisConnection connection = mock(RedisConnection.class);
+        stringCommands = mock(RedisStringCommands.class);
+        doReturn(stringCommands).when(connection).stringCommands();
+        doAnswer(invocation -> ((RedisCallback<?>) invocation.getArgument(0)).doInRedis(connection))
+                .when(redisTemplate).execute(any(RedisCallback.class));
+        doAnswer(invocation -> {
+            ((RedisCallback<?>) invocation.getArgument(0)).doInRedis(connection);
+            return List.of();
+        }).when(redisTemplate).executePipelined(any(RedisCallback.class));
+        meterRegistry = new SimpleMeterRegistry();
+        redisBulkCache = new RedisBulkCache(redisTemplate, serializer, Duration.ofMinutes(5), Duration.ofSeconds(30),
+                meterRegistry);
+
+        product = new Product();
+        product.setId(1L);
+        product.setName("Test Product");
+    }
+
+    @Test
+    void getAll_ShouldReadAllKeysWithOneMget() {
+        doReturn(Arrays.asList(serializer.serialize(product), null, nullValue))
+                .when(stringCommands).mGet(key(1L), key(2L), key(3L));
+
+        Map<Long, Object> result = redisBulkCache.getAll("products", List.of(1L, 2L, 3L));
+
+        assertThat(result).containsOnlyKeys(1L, 3L);
+        assertThat(result.get(1L)).isEqualTo(product);
+        assertThat(result.get(3L)).isEqualTo(NullValue.INSTANCE);
+        verify(redisTemplate, times(1)).execute(any(RedisCallback.class));
+        assertThat(meterRegistry.counter("cache.bulk.gets", "result", "hit").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("cache.bulk.gets", "result", "miss").count()).isEqualTo(1);
+    }
+
+    @Test
+    void getAll_WhenNoKeys_ShouldNotCallRedis() {
+        assertThat(redisBulkCache.getAll("products", List.of())).isEmpty();
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void putAll_ShouldWriteAbsentEntriesInOnePipelineWithCacheTtls() {
+        Map<Long, Object> entries = new LinkedHashMap<>();
+        entries.put(1L, product);
+        entries.put(2L, NullValue.INSTANCE);
+
+        redisBulkCache.putAll("products", entries);
+
+        ArgumentCaptor<Expiration> expirations = ArgumentCaptor.forClass(Expiration.class);
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        verify(stringCommands).set(eq(key(1L)), eq(serializer.serialize(product)), expirations.capture(),
+                eq(RedisStringCommands.SetOption.ifAbsent()));
+        verify(stringCommands).set(eq(key(2L)), eq(nullValue), expirations.capture(),
+                eq(RedisStringCommands.SetOption.ifAbsent()));
+        assertThat(expirations.getAllValues())
+                .extracting(Expiration::getExpirationTimeInMilliseconds)
+                .containsExactly(Duration.ofMinutes(5).toMillis(), Duration.ofSeconds(30).toMillis());
+    }
+
+    private static byte[] key(long id) {
+        return ("products::" + id).getBytes(StandardCharsets.UTF_8);
+    }
+}
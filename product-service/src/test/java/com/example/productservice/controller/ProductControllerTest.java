@@ -10,13 +10,17 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ProductController.class)
@@ -59,7 +63,126 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$[0].name").value(testProduct1.getName()))
                 .andExpect(jsonPath("$[1].name").value(testProduct2.getName()));
 
-        verify(productService, times(1)).getAllProducts();
+        verify(productService, times(1)).getProductsAfter(0L, 100);
+    }
+
+    @Test
+    void createProducts_ShouldReturnCreatedProducts() throws Exception {
+        doReturn(testProducts).when(productService).saveProducts(anyList());
+
+        mockMvc.perform(post("/api/products/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(testProducts)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[0].name").value(testProduct1.getName()))
+                .andExpect(jsonPath("$[1].name").value(testProduct2.getName()));
+
+        verify(productService, times(1)).saveProducts(anyList());
+    }
+
+    @Test
+    void getProductsPage_ShouldClampLimitAndReturnPage() throws Exception {
+        doReturn(List.of(testProduct2)).when(productService).getProductsAfter(1L, 1000);
+
+        mockMvc.perform(get("/api/products")
+                        .param("after", "1")
+                        .param("limit", "5000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value(testProduct2.getName()));
+
+        verify(productService, times(1)).getProductsAfter(1L, 1000);
+        verify(productService, never()).getAllProducts();
+    }
+
+    @Test
+    void getProductsPage_WithAfterButNoLimit_ShouldReturnDefaultPage() throws Exception {
+        doReturn(List.of(testProduct2)).when(productService).getProductsAfter(1L, 100);
+
+        mockMvc.perform(get("/api/products")
+                        .param("after", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value(testProduct2.getName()));
+
+        verify(productService, times(1)).getProductsAfter(1L, 100);
+        verify(productService, never()).getAllProducts();
+    }
+
+    @Test
+    void getProductsByIds_ShouldReturnRequestedProducts() throws Exception {
+        doReturn(testProducts).when(productService).getProductsByIds(List.of(1L, 2L));
+
+        mockMvc.perform(get("/api/products")
+                        .param("ids", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(testProduct1.getId()))
+                .andExpect(jsonPath("$[1].id").value(testProduct2.getId()));
+
+        verify(productService, times(1)).getProductsByIds(List.of(1L, 2L));
+        verify(productService, never()).getAllProducts();
+    }
+
+    @Test
+    void getProductsByIds_WhenLimitIsAlsoGiven_ShouldStillResolveToIdLookup() throws Exception {
+        doReturn(testProducts).when(productService).getProductsByIds(List.of(1L, 2L));
+
+        mockMvc.perform(get("/api/products")
+                        .param("ids", "1,2")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+
+        verify(productService, never()).getProductsAfter(anyLong(), anyInt());
+    }
+
+    @Test
+    void getProductsByIdsInBody_ShouldReturnRequestedProducts() throws Exception {
+        doReturn(testProducts).when(productService).getProductsByIds(List.of(1L, 2L));
+
+        mockMvc.perform(post("/api/products/by-ids")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(List.of(1L, 2L))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(testProduct1.getId()))
+                .andExpect(jsonPath("$[1].id").value(testProduct2.getId()));
+
+        verify(productService, times(1)).getProductsByIds(List.of(1L, 2L));
+    }
+
+    @Test
+    void streamAllProducts_ShouldWriteOneJsonObjectPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Product> consumer = invocation.getArgument(0);
+            testProducts.forEach(consumer);
+            return null;
+        }).when(productService).streamAllProducts(any());
+
+        MvcResult result = mockMvc.perform(get("/api/products/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(mapper.writeValueAsString(testProduct1) + "\n"
+                        + mapper.writeValueAsString(testProduct2) + "\n"));
+    }
+
+    @Test
+    void streamAllProductIds_ShouldWriteOneIdPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Long> consumer = invocation.getArgument(0);
+            List.of(1L, 2L).forEach(consumer);
+            return null;
+        }).when(productService).streamAllProductIds(any());
+
+        MvcResult result = mockMvc.perform(get("/api/products/ids"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("1\n2\n"));
     }
 
     @Test
@@ -0,0 +1,77 @@
+package com.example.productservice.controller;
+
+import com.example.productservice.cache.IdBloomFilter;
+import com.example.productservice.cache.RedisBulkCache;
+import com.example.productservice.entity.Product;
+import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ProductStreamHeapCapTest {
+    private static final int ROWS = 1_000_000;
+    private static final long HEAP_CAP_BYTES = 64L * 1024 * 1024;
+
+    @Test
+    void streamAllProducts_ShouldWriteMillionRowsWithinHeapCap() throws IOException {
+        assertThat(Runtime.getRuntime().maxMemory())
+                .as("run with -Xmx64m (surefire heap-capped-test execution)")
+                .isLessThanOrEqualTo(HEAP_CAP_BYTES);
+
+        ProductRepository productRepository = mock(ProductRepository.class);
+        doReturn(LongStream.rangeClosed(1, ROWS).mapToObj(this::newProduct))
+                .when(productRepository).streamAll();
+        ProductService productService = new ProductService(productRepository,
+                new IdBloomFilter("products", 1000, 0.01), mock(EntityManager.class, withSettings().stubOnly()),
+                mock(RedisBulkCache.class));
+        ProductController productController = new ProductController(productService, new ObjectMapper());
+        LineCountingOutputStream out = new LineCountingOutputStream();
+
+        productController.streamAllProducts().getBody().writeTo(out);
+
+        assertThat(out.lines).isEqualTo(ROWS);
+        assertThat(out.bytes).isGreaterThan(HEAP_CAP_BYTES);
+    }
+
+    private Product newProduct(long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setDescription("Description of product " + id);
+        product.setCategory("Category " + id % 100);
+        product.setPrice(id % 1000 + 0.99);
+        product.setStockQuantity((int) (id % 50));
+        return product;
+    }
+
+    private static class LineCountingOutputStream extends OutputStream {
+        private long lines;
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            bytes += length;
+            for (int i = offset; i < offset + length; i++) {
+                if (buffer[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.entity.Product;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchInsertRepositoryImplTest {
+    @Mock
+    private EntityManager entityManager;
+
+    private BatchInsertRepositoryImpl<Product> batchInsertRepository;
+
+    @BeforeEach
+    void setUp() {
+        batchInsertRepository = new BatchInsertRepositoryImpl<>(entityManager);
+        ReflectionTestUtils.setField(batchInsertRepository, "batchSize", 2);
+    }
+
+    @Test
+    void insertAll_ShouldFlushAndClearEveryBatch() {
+        List<Product> products = IntStream.range(0, 5).mapToObj(i -> new Product()).toList();
+
+        List<Product> result = batchInsertRepository.insertAll(products);
+
+        assertThat(result).isEqualTo(products);
+        verify(entityManager, times(5)).persist(any(Product.class));
+        verify(entityManager, times(3)).flush();
+        verify(entityManager, times(3)).clear();
+        InOrder inOrder = inOrder(entityManager);
+        inOrder.verify(entityManager, times(2)).persist(any(Product.class));
+        inOrder.verify(entityManager).flush();
+        inOrder.verify(entityManager).clear();
+    }
+
+    @Test
+    void insertAll_WhenEmpty_ShouldNotPersist() {
+        List<Product> result = batchInsertRepository.insertAll(List.of());
+
+        assertThat(result).isEmpty();
+        verify(entityManager, never()).persist(any());
+    }
+}
@@ -1,16 +1,27 @@
 package com.example.productservice.service;
 
+import com.example.productservice.cache.IdBloomFilter;
+import com.example.productservice.cache.RedisBulkCache;
 import com.example.productservice.entity.Product;
+import com.example.productservice.outbox.OutboxService;
 import com.example.productservice.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.domain.Limit;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -19,6 +30,14 @@ import static org.mockito.Mockito.*;
 class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
+    @Spy
+    private IdBloomFilter productIdFilter = new IdBloomFilter("products", 1000, 0.01);
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private RedisBulkCache redisBulkCache;
+    @Mock
+    private OutboxService outboxService;
     @InjectMocks
     private ProductService productService;
 
@@ -40,6 +59,26 @@ class ProductServiceTest {
         productService.saveProduct(testProduct);
 
         verify(productRepository, times(1)).save(testProduct);
+        verify(outboxService, times(1))
+                .record(ProductService.PRODUCT_AGGREGATE, 1L, ProductService.PRODUCT_CREATED, testProduct);
+    }
+
+    @Test
+    void saveProducts_ShouldInsertInBatchAndRegisterIds() {
+        Product otherProduct = new Product();
+        otherProduct.setId(2L);
+        List<Product> products = List.of(testProduct, otherProduct);
+        doReturn(products).when(productRepository).insertAll(products);
+
+        List<Product> result = productService.saveProducts(products);
+
+        assertThat(result).isEqualTo(products);
+        verify(productRepository, times(1)).insertAll(products);
+        verify(productIdFilter, times(1)).putAll(List.of(1L, 2L));
+        verify(productIdFilter, never()).put(anyLong());
+        verify(outboxService, times(1)).recordAll(eq(ProductService.PRODUCT_AGGREGATE), any(),
+                eq(ProductService.PRODUCT_CREATED), eq(products));
+        verify(outboxService, never()).record(anyString(), any(), anyString(), any());
     }
 
     @Test
@@ -51,6 +90,8 @@ class ProductServiceTest {
         assertThat(updatedProduct).isNotNull();
         assertThat(updatedProduct).isEqualTo(testProduct);
         verify(productRepository, times(1)).save(testProduct);
+        verify(outboxService, times(1))
+                .record(ProductService.PRODUCT_AGGREGATE, 1L, ProductService.PRODUCT_UPDATED, testProduct);
     }
 
     @Test
@@ -74,6 +115,16 @@ class ProductServiceTest {
         verify(productRepository, times(1)).findById(1L);
     }
 
+    @Test
+    void getProductById_WhenFilterRejectsId_ShouldNotQueryRepository() {
+        productIdFilter.load(Stream.of(1L));
+
+        Product result = productService.getProductById(999_999L);
+
+        assertThat(result).isNull();
+        verify(productRepository, never()).findById(anyLong());
+    }
+
     @Test
     void getAllProducts_ShouldReturnAllProducts() {
         List<Product> products = List.of(testProduct);
@@ -87,6 +138,79 @@ class ProductServiceTest {
         verify(productRepository, times(1)).findAll();
     }
 
+    @Test
+    void getProductsByIds_ShouldLoadOnlyCacheMissesInOneQueryAndWriteThemBack() {
+        Product cachedProduct = new Product();
+        cachedProduct.setId(2L);
+        List.of(1L, 2L, 3L).forEach(productIdFilter::put);
+        doReturn(new HashMap<>(Map.of(2L, cachedProduct)))
+                .when(redisBulkCache).getAll(ProductService.PRODUCTS_CACHE, List.of(1L, 2L, 3L));
+        doReturn(List.of(testProduct)).when(productRepository).findAllById(List.of(1L, 3L));
+
+        List<Product> result = productService.getProductsByIds(List.of(1L, 2L, 3L, 1L));
+
+        assertThat(result).containsExactly(testProduct, cachedProduct);
+        verify(productRepository, times(1)).findAllById(List.of(1L, 3L));
+        verify(redisBulkCache, times(1))
+                .putAll(ProductService.PRODUCTS_CACHE, Map.of(1L, testProduct, 3L, NullValue.INSTANCE));
+    }
+
+    @Test
+    void getProductsByIds_WhenAllProductsAreCached_ShouldNotQueryRepository() {
+        productIdFilter.put(1L);
+        doReturn(new HashMap<>(Map.of(1L, testProduct)))
+                .when(redisBulkCache).getAll(ProductService.PRODUCTS_CACHE, List.of(1L));
+
+        List<Product> result = productService.getProductsByIds(List.of(1L));
+
+        assertThat(result).containsExactly(testProduct);
+        verifyNoInteractions(productRepository);
+        verify(redisBulkCache, never()).putAll(anyString(), anyMap());
+    }
+
+    @Test
+    void getProductsByIds_WhenFilterRejectsIds_ShouldSkipThem() {
+        doReturn(new HashMap<>()).when(redisBulkCache).getAll(ProductService.PRODUCTS_CACHE, List.of());
+
+        List<Product> result = productService.getProductsByIds(List.of(1L, 2L));
+
+        assertThat(result).isEmpty();
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getProductsAfter_ShouldQueryNextPageByKey() {
+        List<Product> page = List.of(testProduct);
+        doReturn(page).when(productRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2));
+
+        List<Product> result = productService.getProductsAfter(0L, 2);
+
+        assertThat(result).isEqualTo(page);
+        verify(productRepository, times(1)).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2));
+    }
+
+    @Test
+    void streamAllProducts_ShouldPassEachRowAndDetachIt() {
+        List<Product> rows = List.of(testProduct);
+        doReturn(rows.stream()).when(productRepository).streamAll();
+        List<Product> received = new ArrayList<>();
+
+        productService.streamAllProducts(received::add);
+
+        assertThat(received).isEqualTo(rows);
+        verify(entityManager, times(rows.size())).detach(any(Product.class));
+    }
+
+    @Test
+    void streamAllProductIds_ShouldPassEachId() {
+        doReturn(Stream.of(1L, 2L)).when(productRepository).streamAllIds();
+        List<Long> received = new ArrayList<>();
+
+        productService.streamAllProductIds(received::add);
+
+        assertThat(received).containsExactly(1L, 2L);
+    }
+
     @Test
     void getProductsByCategory_ShouldReturnProductsByCategory() {
         Product testProduct1 = new Product();
@@ -122,5 +246,7 @@ class ProductServiceTest {
         productService.deleteProductById(1L);
 
         verify(productRepository, times(1)).deleteById(1L);
+        verify(outboxService, times(1))
+                .record(ProductService.PRODUCT_AGGREGATE, 1L, ProductService.PRODUCT_DELETED, 1L);
     }
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.example.userservice.cache;
+
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+    public static final byte FORMAT_VERSION = 1;
+    private static final byte JDK_TAG = 0;
+    private static final int JDK_STREAM_MAGIC = 0xAC;
+
+    private final Map<Integer, EntityCodec<?>> codecsByTag = new HashMap<>();
+    private final Map<Class<?>, EntityCodec<?>> codecsByType = new HashMap<>();
+    private final JdkSerializationRedisSerializer jdkSerializer = new JdkSerializationRedisSerializer();
+
+    public CompactRedisSerializer(List<EntityCodec<?>> codecs) {
+        for (EntityCodec<?> codec : codecs) {
+            if (codec.tag() <= JDK_TAG || codec.tag() > 0xFF || codecsByTag.put(codec.tag(), codec) != null) {
+                throw new IllegalArgumentException("Duplicate or reserved codec tag " + codec.tag());
+            }
+            codecsByType.put(codec.type(), codec);
+        }
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        EntityCodec<?> codec = codecsByType.get(value.getClass());
+        if (codec == null) {
+            byte[] payload = jdkSerializer.serialize(value);
+            byte[] result = new byte[payload.length + 2];
+            result[0] = FORMAT_VERSION;
+            result[1] = JDK_TAG;
+            System.arraycopy(payload, 0, result, 2, payload.length);
+            return result;
+        }
+        BinaryWriter out = new BinaryWriter(64);
+        out.writeByte(FORMAT_VERSION);
+        out.writeByte(codec.tag());
+        write(out, codec, value);
+        return out.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if ((bytes[0] & 0xFF) == JDK_STREAM_MAGIC) {
+            return jdkSerializer.deserialize(bytes);
+        }
+        if (bytes[0] != FORMAT_VERSION || bytes.length < 2) {
+            return null;
+        }
+        int tag = bytes[1] & 0xFF;
+        if (tag == JDK_TAG) {
+            byte[] payload = new byte[bytes.length - 2];
+            System.arraycopy(bytes, 2, payload, 0, payload.length);
+            return jdkSerializer.deserialize(payload);
+        }
+        EntityCodec<?> codec = codecsByTag.get(tag);
+        return codec != null ? codec.read(new BinaryReader(bytes, 2)) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void write(BinaryWriter out, EntityCodec<T> codec, Object value) {
+        codec.write(out, (T) value);
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.userservice.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+public class IdBloomFilter {
+    private final String name;
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final LongAdder insertions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder sharedHits = new LongAdder();
+    private volatile Consumer<Long> insertPublisher = id -> {
+    };
+    private volatile Function<Collection<Long>, Collection<Long>> sharedLookup = ids -> List.of();
+    private volatile boolean ready;
+
+    public IdBloomFilter(String name, long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid bloom filter settings for " + name);
+        }
+        this.name = name;
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray((int) Math.max(1, (optimalBits + 63) / 64));
+        this.bitCount = bits.length() * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    public void share(Consumer<Long> insertPublisher, Function<Collection<Long>, Collection<Long>> sharedLookup) {
+        this.insertPublisher = insertPublisher;
+        this.sharedLookup = sharedLookup;
+    }
+
+    public void put(Long id) {
+        if (id == null) {
+            return;
+        }
+        add(id);
+        insertPublisher.accept(id);
+    }
+
+    public boolean mightContain(Long id) {
+        if (id == null) {
+            return false;
+        }
+        if (!ready || containsLocally(id)) {
+            return true;
+        }
+        return !findShared(List.of(id)).isEmpty();
+    }
+
+    public List<Long> retainMightContain(List<Long> ids) {
+        Set<Long> unknown = new HashSet<>();
+        for (Long id : ids) {
+            if (id != null && ready && !containsLocally(id)) {
+                unknown.add(id);
+            }
+        }
+        Set<Long> shared = unknown.isEmpty() ? Set.of() : findShared(unknown);
+        return ids.stream()
+                .filter(id -> id != null && (!unknown.contains(id) || shared.contains(id)))
+                .toList();
+    }
+
+    public boolean rejects(Long id) {
+        if (mightContain(id)) {
+            return false;
+        }
+        rejections.increment();
+        return true;
+    }
+
+    public void load(Stream<Long> ids) {
+        ids.forEach(this::add);
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long getMemoryBytes() {
+        return bits.length() * 8L;
+    }
+
+    public double getExpectedFalsePositiveRate() {
+        double fillRatio = 1 - Math.exp(-(double) hashCount * insertions.sum() / bitCount);
+        return Math.pow(fillRatio, hashCount);
+    }
+
+    public void registerMetrics(MeterRegistry meterRegistry) {
+        Gauge.builder("bloom.filter.memory", this, IdBloomFilter::getMemoryBytes)
+                .tag("filter", name).baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("bloom.filter.expected.fpp", this, IdBloomFilter::getExpectedFalsePositiveRate)
+                .tag("filter", name).register(meterRegistry);
+        FunctionCounter.builder("bloom.filter.insertions", insertions, LongAdder::sum)
+                .tag("filter", name).register(meterRegistry);
+        FunctionCounter.builder("bloom.filter.rejections", rejections, LongAdder::sum)
+                .tag("filter", name).register(meterRegistry);
+        FunctionCounter.builder("bloom.filter.shared.hits", sharedHits, LongAdder::sum)
+                .tag("filter", name).register(meterRegistry);
+    }
+
+    private void add(long id) {
+        long hash1 = mix(id);
+        long hash2 = mix(hash1 ^ id) | 1;
+        boolean changed = false;
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, bitCount);
+            changed |= setBit(index);
+        }
+        if (changed) {
+            insertions.increment();
+        }
+    }
+
+    private boolean containsLocally(long id) {
+        long hash1 = mix(id);
+        long hash2 = mix(hash1 ^ id) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Set<Long> findShared(Collection<Long> ids) {
+        Set<Long> found = new HashSet<>(sharedLookup.apply(ids));
+        found.forEach(this::add);
+        sharedHits.add(found.size());
+        return found;
+    }
+
+    private boolean setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+        return true;
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
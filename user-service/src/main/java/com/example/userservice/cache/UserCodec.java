@@ -0,0 +1,39 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.entity.User;
+
+public class UserCodec implements EntityCodec<User> {
+    public static final int TAG = 1;
+
+    @Override
+    public int tag() {
+        return TAG;
+    }
+
+    @Override
+    public Class<User> type() {
+        return User.class;
+    }
+
+    @Override
+    public void write(BinaryWriter out, User user) {
+        out.writeNullableLong(user.getId());
+        out.writeString(user.getName());
+        out.writeString(user.getEmail());
+        out.writeString(user.getPassword());
+        out.writeString(user.getRole());
+        out.writeNullableInt(user.getYear());
+    }
+
+    @Override
+    public User read(BinaryReader in) {
+        User user = new User();
+        user.setId(in.readNullableLong());
+        user.setName(in.readString());
+        user.setEmail(in.readString());
+        user.setPassword(in.readString());
+        user.setRole(in.readString());
+        user.setYear(in.readNullableInt());
+        return user;
+    }
+}
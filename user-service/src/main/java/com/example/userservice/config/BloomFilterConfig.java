@@ -0,0 +1,73 @@
+package com.example.userservice.config;
+
+import com.example.userservice.cache.IdBloomFilter;
+import com.example.userservice.cache.RecentIdLog;
+import com.example.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.stream.Stream;
+
+@Configuration
+public class BloomFilterConfig {
+    @Value("${bloom-filter.expected-insertions:1000000}")
+    private long expectedInsertions;
+    @Value("${bloom-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+    @Value("${bloom-filter.reload-interval:10m}")
+    private Duration reloadInterval;
+    @Value("${bloom-filter.recent-id-retention:1h}")
+    private Duration recentIdRetention;
+
+    @Bean
+    public RecentIdLog userIdLog(StringRedisTemplate redisTemplate) {
+        if (recentIdRetention.compareTo(reloadInterval.multipliedBy(2)) < 0) {
+            throw new IllegalArgumentException("bloom-filter.recent-id-retention must be at least twice the reload interval");
+        }
+        return new RecentIdLog(redisTemplate, "users", recentIdRetention);
+    }
+
+    @Bean
+    public IdBloomFilter userIdFilter(RecentIdLog userIdLog, MeterRegistry meterRegistry) {
+        IdBloomFilter filter = new IdBloomFilter("users", expectedInsertions, falsePositiveRate);
+        filter.share(userIdLog::record, userIdLog::findAll);
+        filter.registerMetrics(meterRegistry);
+        return filter;
+    }
+
+    @Bean
+    public ApplicationRunner userIdFilterLoader(IdBloomFilter userIdFilter, UserRepository userRepository,
+            TransactionTemplate transactionTemplate) {
+        return args -> load(userIdFilter, userRepository, transactionTemplate);
+    }
+
+    @Bean
+    public SchedulingConfigurer userIdFilterReloader(IdBloomFilter userIdFilter, RecentIdLog userIdLog,
+            UserRepository userRepository, TransactionTemplate transactionTemplate) {
+        return registrar -> registrar.addFixedDelayTask(new FixedDelayTask(() -> {
+            try {
+                load(userIdFilter, userRepository, transactionTemplate);
+                userIdLog.trim();
+            } catch (RuntimeException e) {
+                System.err.println("Could not reload user id filter: " + e.getMessage());
+            }
+        }, reloadInterval, reloadInterval));
+    }
+
+    private static void load(IdBloomFilter filter, UserRepository userRepository,
+            TransactionTemplate transactionTemplate) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Long> ids = userRepository.streamAllIds()) {
+                filter.load(ids);
+            }
+        });
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.userservice.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class IdSequenceConfig {
+
+    @Bean
+    public SmartInitializingSingleton userIdSequenceAligner(JdbcTemplate jdbcTemplate) {
+        return () -> jdbcTemplate.execute("select setval('users_seq', (select max(id) from users)) " +
+                "where (select max(id) from users) > (select last_value from users_seq)");
+    }
+}
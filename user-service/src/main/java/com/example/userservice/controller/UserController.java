@@ -2,10 +2,14 @@ package com.example.userservice.controller;
 
 import com.example.userservice.entity.User;
 import com.example.userservice.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -13,15 +17,32 @@ import java.util.List;
 @RequestMapping("/api/users")
 public class UserController {
     private final UserService userService;
+    private final ObjectMapper objectMapper;
+    @Value("${pagination.default-limit:100}")
+    private int defaultPageLimit;
+    @Value("${pagination.max-limit:1000}")
+    private int maxPageLimit;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    public List<User> getAllUsers() {
-        return userService.getAllUsers();
+    public List<User> getAllUsers(@RequestParam(required = false) Long after,
+                                  @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return userService.getAllUsers();
+        }
+        long pageAfter = after == null ? 0 : after;
+        int pageLimit = limit == null ? defaultPageLimit : limit;
+        return userService.getUsersAfter(pageAfter, Math.max(1, Math.min(pageLimit, maxPageLimit)));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return NdjsonResponses.stream(objectMapper, userService::streamAllUsers);
     }
 
     @GetMapping("/{id}")
@@ -1,33 +1,51 @@
 package com.example.userservice.service;
 
+import com.example.userservice.cache.IdBloomFilter;
 import com.example.userservice.entity.User;
 import com.example.userservice.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class UserService {
     private final UserRepository userRepository;
+    private final IdBloomFilter userIdFilter;
+    private final EntityManager entityManager;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, IdBloomFilter userIdFilter,
+                       EntityManager entityManager) {
         this.userRepository = userRepository;
+        this.userIdFilter = userIdFilter;
+        this.entityManager = entityManager;
     }
 
     public User saveUser(User user) {
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        userIdFilter.put(savedUser.getId());
+        return savedUser;
     }
 
     @CachePut(value = "users", key = "#user.id")
     public User updateUser(User user) {
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        userIdFilter.put(savedUser.getId());
+        return savedUser;
     }
 
-    @Cacheable(value = "users", key = "#id")
+    @Cacheable(value = "users", key = "#id", sync = true)
     public User getUserById(Long id) {
+        if (userIdFilter.rejects(id)) {
+            return null;
+        }
         return (User) userRepository.findById(id).orElse(null);
     }
 
@@ -39,6 +57,20 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    public List<User> getUsersAfter(long after, int limit) {
+        return userRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllUsers(Consumer<User> consumer) {
+        try (Stream<User> userStream = userRepository.streamAll()) {
+            userStream.forEach(user -> {
+                consumer.accept(user);
+                entityManager.detach(user);
+            });
+        }
+    }
+
     @CacheEvict(value = "users", key = "#id")
     public User deleteUser(Long id) {
         User user = userRepository.findById(id).orElse(null);
@@ -68,6 +68,19 @@ class UserControllerTest {
         verify(userService, times(1)).getAllUsers();
     }
 
+    @Test
+    void getUsersPage_WithAfterButNoLimit_ShouldReturnDefaultPage() throws Exception {
+        doReturn(List.of(user2)).when(userService).getUsersAfter(1L, 100);
+
+        mockMvc.perform(get("/api/users")
+                        .param("after", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value(user2.getName()));
+
+        verify(userService, times(1)).getUsersAfter(1L, 100);
+        verify(userService, never()).getAllUsers();
+    }
+
     @Test
     void getUserById_WhenUserExists_ShouldReturnUser() throws Exception {
         doReturn(user1).when(userService).getUserById(user1.getId());
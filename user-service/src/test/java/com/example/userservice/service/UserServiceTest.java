@@ -1,14 +1,19 @@
 package com.example.userservice.service;
 
+import com.example.userservice.cache.IdBloomFilter;
 import com.example.userservice.entity.User;
 import com.example.userservice.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -20,6 +25,10 @@ import static org.mockito.Mockito.*;
 class UserServiceTest {
     @Mock
     private UserRepository userRepository;
+    @Spy
+    private IdBloomFilter userIdFilter = new IdBloomFilter("users", 1000, 0.01);
+    @Mock
+    private EntityManager entityManager;
     @InjectMocks
     private UserService userService;
     private User testUser;
@@ -119,6 +128,29 @@ class UserServiceTest {
         verify(userRepository, times(1)).findAll();
     }
 
+    @Test
+    void getUsersAfter_ShouldQueryNextPageByKey() {
+        List<User> page = List.of(testUser);
+        doReturn(page).when(userRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2));
+
+        List<User> result = userService.getUsersAfter(0L, 2);
+
+        assertThat(result).isEqualTo(page);
+        verify(userRepository, times(1)).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2));
+    }
+
+    @Test
+    void streamAllUsers_ShouldPassEachRowAndDetachIt() {
+        List<User> rows = List.of(testUser);
+        doReturn(rows.stream()).when(userRepository).streamAll();
+        List<User> received = new ArrayList<>();
+
+        userService.streamAllUsers(received::add);
+
+        assertThat(received).isEqualTo(rows);
+        verify(entityManager, times(rows.size())).detach(any(User.class));
+    }
+
     @Test
     void deleteUser_WhenUserExists_ShouldDeleteAndEvictCacheUser() {
         doReturn(Optional.of(testUser)).when(userRepository).findById(1L);